@@ -1,5 +1,6 @@
 package org.example.languagecommunication.auth.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -44,6 +45,8 @@ public class SecurityConfig {
                 .cors(Customizer.withDefaults())
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(request -> request
+                        // async results are dispatched back after the original request was authenticated
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**", "/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html", "/webjars/**", "/health", "/ws/**", "/api/test/last-verification-code", "/supportedLanguages", "/openapi.yaml", "/redoc").permitAll()
                         .anyRequest().authenticated()
                 )
@@ -1,13 +1,28 @@
 package org.example.languagecommunication.common.controllers;
 
+import org.example.languagecommunication.config.AwsThrottling;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 public class HealthController {
+
+    private final AwsThrottling awsThrottling;
+
+    public HealthController(AwsThrottling awsThrottling) {
+        this.awsThrottling = awsThrottling;
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("OK");
     }
-}
\ No newline at end of file
+
+    @GetMapping("/health/aws")
+    public ResponseEntity<List<AwsThrottling.Stats>> awsThrottling() {
+        return ResponseEntity.ok(awsThrottling.stats());
+    }
+}
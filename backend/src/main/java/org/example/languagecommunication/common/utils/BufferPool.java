@@ -0,0 +1,42 @@
+package org.example.languagecommunication.common.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pool of equally sized byte buffers for copying streams. Buffers are not tied to
+ * threads, so it works with virtual threads where thread-local caches would only grow.
+ * When the pool is empty a new buffer is allocated, buffers returned to a full pool are
+ * dropped, so at most {@code capacity} buffers stay on the heap between requests.
+ */
+public class BufferPool {
+
+    private final int bufferSize;
+    private final ArrayBlockingQueue<byte[]> buffers;
+
+    public BufferPool(int bufferSize, int capacity) {
+        if (bufferSize <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Buffer size and capacity must be positive");
+        }
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    public void release(byte[] buffer) {
+        if (buffer.length == bufferSize) {
+            buffers.offer(buffer);
+        }
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    public int pooled() {
+        return buffers.size();
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.languagecommunication.common.utils;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Response body that never changes while the application runs, rendered once with
+ * a strong ETag. Spring answers a matching If-None-Match with 304 before the body
+ * is written, so repeated requests cost a header comparison.
+ */
+public final class PrecomputedResponse {
+
+    private final byte[] body;
+    private final String eTag;
+    private final MediaType contentType;
+    private final CacheControl cacheControl;
+
+    private PrecomputedResponse(byte[] body, MediaType contentType, CacheControl cacheControl) {
+        this.body = body;
+        this.eTag = "\"" + DigestUtils.sha256Hex(body) + "\"";
+        this.contentType = contentType;
+        this.cacheControl = cacheControl;
+    }
+
+    public static PrecomputedResponse of(byte[] body, MediaType contentType, CacheControl cacheControl) {
+        return new PrecomputedResponse(body.clone(), contentType, cacheControl);
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public ResponseEntity<byte[]> toResponseEntity() {
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .contentLength(body.length)
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .body(body);
+    }
+}
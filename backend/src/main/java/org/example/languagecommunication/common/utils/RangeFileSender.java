@@ -0,0 +1,124 @@
+package org.example.languagecommunication.common.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sends an immutable file with single byte range support. On Tomcat the body is handed to
+ * the connector's sendfile, the file goes from the page cache to the socket without being
+ * copied through the heap. Elsewhere it is written with {@link FileChannel#transferTo}.
+ * Multiple ranges are answered with the whole file, which the RFC allows.
+ * <p>
+ * The file is opened before anything is sent, so a file that is already gone fails with
+ * {@link NoSuchFileException} while the response can still be changed. Tomcat opens the
+ * file again by name after the servlet has returned, callers that delete files must
+ * leave them in place for a while after they were last handed out.
+ */
+public final class RangeFileSender {
+
+    // request attributes of Tomcat's sendfile support, see org.apache.catalina.Globals
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private RangeFileSender() {
+    }
+
+    /**
+     * @param etag unquoted entity tag, the file must not change while it stays the same
+     * @throws NoSuchFileException when the file is gone, nothing has been sent then
+     */
+    public static void send(Path file, long length, MediaType contentType, String etag,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            send(channel, file, length, contentType, etag, request, response);
+        }
+    }
+
+    private static void send(FileChannel channel, Path file, long length, MediaType contentType, String etag,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String quotedEtag = "\"" + etag + "\"";
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, quotedEtag);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), quotedEtag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.strip().equals(quotedEtag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                // a malformed Range header is ignored
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.getFirst().getRangeStart(length);
+                    end = ranges.getFirst().getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    // not satisfiable for this length
+                    start = length;
+                }
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(contentType.toString());
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long position = start;
+        while (count > 0) {
+            long sent = channel.transferTo(position, count, out);
+            if (sent <= 0) {
+                throw new EOFException("File ended before the announced length: " + file);
+            }
+            position += sent;
+            count -= sent;
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String quotedEtag) {
+        return ifNoneMatch != null && Arrays.stream(ifNoneMatch.split(","))
+                .map(String::strip)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(quotedEtag) || tag.equals("W/" + quotedEtag));
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.languagecommunication.common.utils;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key into one upstream call. The first caller
+ * starts the call, callers that arrive while it is in flight share it and all of them get
+ * its result or its exception. Nothing is kept after the call finished, so this is not a
+ * cache: the next caller starts a new call. Results are shared as they are, callers must
+ * not modify them.
+ * <p>
+ * A caller that gives up does not end the call for the others. Every caller waits on its
+ * own future, cancelling it or interrupting a blocked caller only detaches that caller.
+ * The upstream call is cancelled once every caller has left. Blocking calls run on a
+ * virtual thread of their own for this reason, which is interrupted on cancellation.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the blocking call or joins the one in flight for the key. Exceptions of the
+     * call are rethrown unchanged to every caller.
+     *
+     * @throws CancellationException when the waiting thread is interrupted, the interrupt flag is kept
+     */
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> caller = executeAsync(key, () -> runOnVirtualThread(call));
+        try {
+            return caller.get();
+        } catch (InterruptedException e) {
+            caller.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for " + key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    /**
+     * Starts the asynchronous call or joins the one in flight for the key. Cancelling the
+     * returned future detaches this caller only.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> call) {
+        while (true) {
+            Flight flight = flights.computeIfAbsent(key, Flight::new);
+            CompletableFuture<V> caller = flight.join(call);
+            if (caller != null) {
+                return caller;
+            }
+            // every caller left that flight just now, it is being removed
+        }
+    }
+
+    public int inFlight() {
+        return flights.size();
+    }
+
+    private static <V> CompletableFuture<V> runOnVirtualThread(Supplier<V> call) {
+        CompletableFuture<V> upstream = new CompletableFuture<>();
+        Thread worker = Thread.ofVirtual().name("single-flight").start(() -> {
+            try {
+                upstream.complete(call.get());
+            } catch (Throwable e) {
+                upstream.completeExceptionally(e);
+            }
+        });
+        upstream.whenComplete((result, error) -> {
+            if (error instanceof CancellationException) {
+                worker.interrupt();
+            }
+        });
+        return upstream;
+    }
+
+    private final class Flight {
+
+        private final K key;
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private CompletableFuture<V> upstream;
+        private int callers;
+        private boolean abandoned;
+
+        Flight(K key) {
+            this.key = key;
+        }
+
+        synchronized CompletableFuture<V> join(Supplier<CompletableFuture<V>> call) {
+            if (abandoned) {
+                return null;
+            }
+            callers++;
+            if (upstream == null) {
+                start(call);
+            }
+
+            CompletableFuture<V> caller = result.copy();
+            caller.whenComplete((value, error) -> {
+                // only a caller cancelling its own copy sees a bare CancellationException
+                if (error instanceof CancellationException) {
+                    leave();
+                }
+            });
+            return caller;
+        }
+
+        private void start(Supplier<CompletableFuture<V>> call) {
+            try {
+                upstream = call.get();
+            } catch (RuntimeException e) {
+                upstream = CompletableFuture.failedFuture(e);
+            }
+            upstream.whenComplete((value, error) -> {
+                flights.remove(key, this);
+                if (error != null) {
+                    result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+
+        private synchronized void leave() {
+            callers--;
+            if (callers == 0 && !result.isDone()) {
+                abandoned = true;
+                flights.remove(key, this);
+                upstream.cancel(true);
+            }
+        }
+    }
+}
@@ -2,47 +2,89 @@ package org.example.languagecommunication.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.comprehend.ComprehendClient;
+import software.amazon.awssdk.services.polly.PollyAsyncClient;
 import software.amazon.awssdk.services.polly.PollyClient;
 import software.amazon.awssdk.services.transcribestreaming.TranscribeStreamingAsyncClient;
+import software.amazon.awssdk.services.translate.TranslateAsyncClient;
 import software.amazon.awssdk.services.translate.TranslateClient;
+import software.amazon.awssdk.services.textract.TextractAsyncClient;
 import software.amazon.awssdk.services.textract.TextractClient;
 
 @Configuration
+@Profile("!simulator")
 public class AWSConfig {
     @Bean
-    public TranslateClient translateClient() {
+    public TranslateClient translateClient(AwsThrottling awsThrottling) {
+        Region region = Region.of("eu-central-1");
         return TranslateClient.builder()
-                .region(Region.of("eu-central-1"))
+                .region(region)
+                .overrideConfiguration(awsThrottling.overrideConfiguration("translate", region))
                 .build();
     }
 
     @Bean
-    public ComprehendClient comprehendClient() {
+    public ComprehendClient comprehendClient(AwsThrottling awsThrottling) {
+        Region region = Region.EU_CENTRAL_1;
         return ComprehendClient.builder()
-                .region(Region.EU_CENTRAL_1)
+                .region(region)
+                .overrideConfiguration(awsThrottling.overrideConfiguration("comprehend", region))
                 .build();
     }
 
     @Bean
-    public PollyClient pollyClient() {
+    public PollyClient pollyClient(AwsThrottling awsThrottling) {
+        Region region = Region.EU_CENTRAL_1;
         return PollyClient.builder()
-                .region(Region.EU_CENTRAL_1)
+                .region(region)
+                .overrideConfiguration(awsThrottling.overrideConfiguration("polly", region))
                 .build();
     }
 
     @Bean
-    public TranscribeStreamingAsyncClient transcribeStreamingAsyncClient() {
+    public TranscribeStreamingAsyncClient transcribeStreamingAsyncClient(AwsThrottling awsThrottling) {
+        Region region = Region.EU_CENTRAL_1;
         return TranscribeStreamingAsyncClient.builder()
-                .region(Region.EU_CENTRAL_1)
+                .region(region)
+                .overrideConfiguration(awsThrottling.asyncOverrideConfiguration("transcribe", region))
                 .build();
     }
 
     @Bean
-    public TextractClient textractClient() {
+    public TextractClient textractClient(AwsThrottling awsThrottling) {
+        Region region = Region.of("eu-central-1");
         return TextractClient.builder()
-                .region(Region.of("eu-central-1"))
+                .region(region)
+                .overrideConfiguration(awsThrottling.overrideConfiguration("textract", region))
+                .build();
+    }
+
+    @Bean
+    public TranslateAsyncClient translateAsyncClient(AwsThrottling awsThrottling) {
+        Region region = Region.EU_CENTRAL_1;
+        return TranslateAsyncClient.builder()
+                .region(region)
+                .overrideConfiguration(awsThrottling.asyncOverrideConfiguration("translate", region))
+                .build();
+    }
+
+    @Bean
+    public PollyAsyncClient pollyAsyncClient(AwsThrottling awsThrottling) {
+        Region region = Region.EU_CENTRAL_1;
+        return PollyAsyncClient.builder()
+                .region(region)
+                .overrideConfiguration(awsThrottling.asyncOverrideConfiguration("polly", region))
+                .build();
+    }
+
+    @Bean
+    public TextractAsyncClient textractAsyncClient(AwsThrottling awsThrottling) {
+        Region region = Region.EU_CENTRAL_1;
+        return TextractAsyncClient.builder()
+                .region(region)
+                .overrideConfiguration(awsThrottling.asyncOverrideConfiguration("textract", region))
                 .build();
     }
 }
@@ -0,0 +1,339 @@
+package org.example.languagecommunication.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.retries.StandardRetryStrategy;
+import software.amazon.awssdk.retries.api.AcquireInitialTokenRequest;
+import software.amazon.awssdk.retries.api.AcquireInitialTokenResponse;
+import software.amazon.awssdk.retries.api.BackoffStrategy;
+import software.amazon.awssdk.retries.api.RecordSuccessRequest;
+import software.amazon.awssdk.retries.api.RecordSuccessResponse;
+import software.amazon.awssdk.retries.api.RefreshRetryTokenRequest;
+import software.amazon.awssdk.retries.api.RefreshRetryTokenResponse;
+import software.amazon.awssdk.retries.api.RetryStrategy;
+import software.amazon.awssdk.retries.api.RetryToken;
+import software.amazon.awssdk.retries.api.TokenAcquisitionFailedException;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-side throttling shared by all AWS clients of one service in one region.
+ * Every attempt, retries included, takes a token from an adaptive {@link TokenBucket},
+ * so traffic spikes are queued under the AWS quota instead of being rejected by AWS.
+ * Failed attempts are retried with full-jitter exponential backoff while the shared
+ * retry budget lasts; the budget is refilled by successful calls, so a failing service
+ * quickly stops receiving retries.
+ * Sync clients wait for their token on the calling thread. Async clients never park a
+ * thread: when the next token is only due later, they reserve it and fail the attempt with
+ * a client error, the retry strategy starts the attempt again once the token is due, from
+ * the SDK's scheduled executor. Such deferrals do not count as attempts and do not use the
+ * retry budget.
+ */
+@Component
+public class AwsThrottling {
+
+    private static final Logger logger = LoggerFactory.getLogger(AwsThrottling.class);
+
+    private static final int RETRY_COST = 5;
+
+    private static final ExecutionAttribute<Boolean> TOKEN_RESERVED = new ExecutionAttribute<>("AwsThrottlingTokenReserved");
+
+    private final Map<String, Double> rates;
+    private final Duration maxWait;
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration throttlingBaseDelay;
+    private final Duration maxBackoff;
+    private final int retryBudget;
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+    public AwsThrottling(@Value("${aws.throttling.translate.rate:10}") double translateRate,
+                         @Value("${aws.throttling.comprehend.rate:10}") double comprehendRate,
+                         @Value("${aws.throttling.polly.rate:8}") double pollyRate,
+                         @Value("${aws.throttling.textract.rate:1}") double textractRate,
+                         @Value("${aws.throttling.transcribe.rate:5}") double transcribeRate,
+                         @Value("${aws.throttling.max-wait:2s}") Duration maxWait,
+                         @Value("${aws.retry.max-attempts:4}") int maxAttempts,
+                         @Value("${aws.retry.base-delay:100ms}") Duration baseDelay,
+                         @Value("${aws.retry.throttling-base-delay:500ms}") Duration throttlingBaseDelay,
+                         @Value("${aws.retry.max-backoff:5s}") Duration maxBackoff,
+                         @Value("${aws.retry.budget:500}") int retryBudget) {
+        this.rates = Map.of(
+                "translate", translateRate,
+                "comprehend", comprehendRate,
+                "polly", pollyRate,
+                "textract", textractRate,
+                "transcribe", transcribeRate);
+        this.maxWait = maxWait;
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.throttlingBaseDelay = throttlingBaseDelay;
+        this.maxBackoff = maxBackoff;
+        this.retryBudget = retryBudget;
+    }
+
+    /**
+     * Rate limiting and retry configuration for a sync client of the given service.
+     * Clients of the same service and region share the token bucket and the retry budget.
+     */
+    public ClientOverrideConfiguration overrideConfiguration(String service, Region region) {
+        return overrideConfiguration(service, region, false);
+    }
+
+    /**
+     * Like {@link #overrideConfiguration(String, Region)} for an async client, attempts
+     * waiting for a token are deferred instead of blocking.
+     */
+    public ClientOverrideConfiguration asyncOverrideConfiguration(String service, Region region) {
+        return overrideConfiguration(service, region, true);
+    }
+
+    private ClientOverrideConfiguration overrideConfiguration(String service, Region region, boolean async) {
+        Double rate = rates.get(service);
+        if (rate == null) {
+            throw new IllegalArgumentException("No rate limit configured for AWS service " + service);
+        }
+        Limiter limiter = limiters.computeIfAbsent(service + "/" + region.id(),
+                name -> new Limiter(name, new TokenBucket(rate, System::nanoTime)));
+
+        return ClientOverrideConfiguration.builder()
+                .addExecutionInterceptor(limiter.interceptor(async))
+                .retryStrategy(limiter.retryStrategy)
+                .build();
+    }
+
+    public List<Stats> stats() {
+        return limiters.values()
+                .stream()
+                .map(Limiter::stats)
+                .sorted(Comparator.comparing(Stats::client))
+                .toList();
+    }
+
+    /**
+     * Whether the call failed because no token became available within the maximum wait.
+     */
+    public static boolean isClientThrottled(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ClientThrottledException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the call was throttled, by the service or by the client-side rate limit.
+     */
+    public static boolean isThrottled(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof AwsServiceException serviceException && serviceException.isThrottlingException()) {
+                return true;
+            }
+        }
+        return isClientThrottled(error);
+    }
+
+    public record Stats(String client, double rate, long acquired, long rejected, Duration waited, long deferred,
+                        long throttled, long retries, long retryBudgetExhausted) {
+    }
+
+    public static class ClientThrottledException extends RuntimeException {
+        ClientThrottledException(String client) {
+            super("Client-side rate limit for " + client + " exceeded");
+        }
+    }
+
+    private static TokenNotDueException tokenNotDue(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TokenNotDueException notDue) {
+                return notDue;
+            }
+        }
+        return null;
+    }
+
+    private static class TokenNotDueException extends RuntimeException {
+
+        private final long waitNanos;
+
+        TokenNotDueException(String client, long waitNanos) {
+            super("Next token for " + client + " is due in " + Duration.ofNanos(waitNanos), null, false, false);
+            this.waitNanos = waitNanos;
+        }
+    }
+
+    private record LimitedRetryToken(RetryToken delegate, boolean retried) implements RetryToken {
+    }
+
+    private class Limiter {
+
+        private final String name;
+        private final TokenBucket bucket;
+        private final RetryStrategy retryStrategy = new LimitedRetryStrategy();
+        private final LongAdder deferred = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder retryBudgetExhausted = new LongAdder();
+
+        Limiter(String name, TokenBucket bucket) {
+            this.name = name;
+            this.bucket = bucket;
+        }
+
+        ExecutionInterceptor interceptor(boolean async) {
+            return new ExecutionInterceptor() {
+                @Override
+                public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+                    if (async) {
+                        acquireOrDefer(executionAttributes);
+                    } else {
+                        acquire();
+                    }
+                }
+
+                @Override
+                public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+                    bucket.onSuccess();
+                }
+            };
+        }
+
+        private void acquire() {
+            try {
+                if (bucket.acquire(maxWait)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new ClientThrottledException(name);
+        }
+
+        /**
+         * Takes a token without waiting. A token that is only due later is reserved for the
+         * next attempt of the same call and this attempt is deferred until then.
+         */
+        private void acquireOrDefer(ExecutionAttributes executionAttributes) {
+            if (Boolean.TRUE.equals(executionAttributes.getAttribute(TOKEN_RESERVED))) {
+                executionAttributes.putAttribute(TOKEN_RESERVED, false);
+                return;
+            }
+            long waitNanos = bucket.reserve(maxWait.toNanos());
+            if (waitNanos < 0) {
+                throw new ClientThrottledException(name);
+            }
+            if (waitNanos > 0) {
+                executionAttributes.putAttribute(TOKEN_RESERVED, true);
+                deferred.increment();
+                throw SdkClientException.create("Attempt deferred by the client-side rate limit", new TokenNotDueException(name, waitNanos));
+            }
+        }
+
+        Stats stats() {
+            return new Stats(name, bucket.rate(), bucket.acquired(), bucket.rejected(), bucket.waited(), deferred.sum(),
+                    bucket.throttled(), retries.sum(), retryBudgetExhausted.sum());
+        }
+
+        /**
+         * The SDK's standard retry strategy, except that deferred attempts are started again
+         * once their token is due and that retries are paid from the retry budget shared by
+         * the clients of the limiter.
+         */
+        private class LimitedRetryStrategy implements RetryStrategy {
+
+            private final StandardRetryStrategy delegate = AwsRetryStrategy.standardRetryStrategy()
+                    .toBuilder()
+                    .maxAttempts(maxAttempts)
+                    .backoffStrategy(BackoffStrategy.exponentialDelay(baseDelay, maxBackoff))
+                    .throttlingBackoffStrategy(BackoffStrategy.exponentialDelay(throttlingBaseDelay, maxBackoff))
+                    // replaced by the retry budget, which is sized by configuration
+                    .circuitBreakerEnabled(false)
+                    .build();
+            private int remainingBudget = retryBudget;
+
+            @Override
+            public AcquireInitialTokenResponse acquireInitialToken(AcquireInitialTokenRequest request) {
+                AcquireInitialTokenResponse response = delegate.acquireInitialToken(request);
+                return AcquireInitialTokenResponse.create(new LimitedRetryToken(response.token(), false), response.delay());
+            }
+
+            @Override
+            public RefreshRetryTokenResponse refreshRetryToken(RefreshRetryTokenRequest request) {
+                LimitedRetryToken token = (LimitedRetryToken) request.token();
+                Throwable failure = request.failure();
+                TokenNotDueException notDue = tokenNotDue(failure);
+                if (notDue != null) {
+                    return RefreshRetryTokenResponse.create(token, Duration.ofNanos(notDue.waitNanos));
+                }
+                if (isClientThrottled(failure)) {
+                    throw new TokenAcquisitionFailedException("Client-side rate limit for " + name + " exceeded, not retrying", token, failure);
+                }
+                if (isThrottled(failure)) {
+                    bucket.onThrottled();
+                }
+                RefreshRetryTokenRequest.Builder delegateRequest = RefreshRetryTokenRequest.builder()
+                        .token(token.delegate())
+                        .failure(failure);
+                request.suggestedDelay().ifPresent(delegateRequest::suggestedDelay);
+                RefreshRetryTokenResponse response = delegate.refreshRetryToken(delegateRequest.build());
+                if (!takeBudget()) {
+                    retryBudgetExhausted.increment();
+                    logger.warn("Retry budget for {} exhausted, not retrying {}", name, failure.getMessage());
+                    throw new TokenAcquisitionFailedException("Retry budget for " + name + " exhausted", token, failure);
+                }
+                retries.increment();
+                return RefreshRetryTokenResponse.create(new LimitedRetryToken(response.token(), true), response.delay());
+            }
+
+            @Override
+            public RecordSuccessResponse recordSuccess(RecordSuccessRequest request) {
+                LimitedRetryToken token = (LimitedRetryToken) request.token();
+                delegate.recordSuccess(RecordSuccessRequest.create(token.delegate()));
+                refillBudget(token.retried() ? RETRY_COST : 1);
+                return RecordSuccessResponse.create(token);
+            }
+
+            @Override
+            public int maxAttempts() {
+                return delegate.maxAttempts();
+            }
+
+            /**
+             * Copies are plain standard strategies without the rate limit and the retry
+             * budget, the clients use this instance as configured.
+             */
+            @Override
+            public StandardRetryStrategy.Builder toBuilder() {
+                return delegate.toBuilder();
+            }
+
+            private synchronized boolean takeBudget() {
+                if (remainingBudget < RETRY_COST) {
+                    return false;
+                }
+                remainingBudget -= RETRY_COST;
+                return true;
+            }
+
+            private synchronized void refillBudget(int amount) {
+                remainingBudget = Math.min(retryBudget, remainingBudget + amount);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.languagecommunication.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService translationExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Runs the maintenance jobs that schedule themselves on it. Scheduling is not enabled
+     * application-wide, so dormant {@code @Scheduled} methods stay off.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler maintenanceScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("maintenance-");
+        return scheduler;
+    }
+}
@@ -1,49 +1,63 @@
 package org.example.languagecommunication.config;
 
+import org.example.languagecommunication.common.utils.PrecomputedResponse;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
 @RestController
 public class OpenApiController {
 
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+
+    private static final String REDOC_HTML = """
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <title>Flashlingo API Documentation</title>
+                <meta charset="utf-8"/>
+                <meta name="viewport" content="width=device-width, initial-scale=1">
+                <link href="https://fonts.googleapis.com/css?family=Montserrat:300,400,700|Roboto:300,400,700" rel="stylesheet">
+                <style>
+                    body {
+                        margin: 0;
+                        padding: 0;
+                    }
+                </style>
+            </head>
+            <body>
+                <redoc spec-url='/openapi.yaml'></redoc>
+                <script src="https://cdn.redoc.ly/redoc/latest/bundles/redoc.standalone.js"></script>
+            </body>
+            </html>
+            """;
+
+    private final PrecomputedResponse openApiSpec;
+    private final PrecomputedResponse redocUI;
+
+    public OpenApiController() throws IOException {
+        try (InputStream spec = new ClassPathResource("openapi.yaml").getInputStream()) {
+            this.openApiSpec = PrecomputedResponse.of(spec.readAllBytes(), MediaType.valueOf("application/vnd.oai.openapi"), CACHE_CONTROL);
+        }
+        this.redocUI = PrecomputedResponse.of(REDOC_HTML.getBytes(StandardCharsets.UTF_8),
+                new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8), CACHE_CONTROL);
+    }
+
     @GetMapping(value = "/openapi.yaml")
-    public ResponseEntity<String> getOpenApiSpec() throws IOException {
-        ClassPathResource resource = new ClassPathResource("openapi.yaml");
-        String content = new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
-        return ResponseEntity.ok()
-                .contentType(MediaType.valueOf("application/vnd.oai.openapi"))
-                .body(content);
+    public ResponseEntity<byte[]> getOpenApiSpec() {
+        return openApiSpec.toResponseEntity();
     }
 
     @GetMapping(value = "/redoc", produces = MediaType.TEXT_HTML_VALUE)
-    public ResponseEntity<String> getRedocUI() {
-        String html = """
-                <!DOCTYPE html>
-                <html>
-                <head>
-                    <title>Flashlingo API Documentation</title>
-                    <meta charset="utf-8"/>
-                    <meta name="viewport" content="width=device-width, initial-scale=1">
-                    <link href="https://fonts.googleapis.com/css?family=Montserrat:300,400,700|Roboto:300,400,700" rel="stylesheet">
-                    <style>
-                        body {
-                            margin: 0;
-                            padding: 0;
-                        }
-                    </style>
-                </head>
-                <body>
-                    <redoc spec-url='/openapi.yaml'></redoc>
-                    <script src="https://cdn.redoc.ly/redoc/latest/bundles/redoc.standalone.js"></script>
-                </body>
-                </html>
-                """;
-        return ResponseEntity.ok(html);
+    public ResponseEntity<byte[]> getRedocUI() {
+        return redocUI.toResponseEntity();
     }
-} 
\ No newline at end of file
+}
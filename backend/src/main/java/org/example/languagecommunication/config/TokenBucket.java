@@ -0,0 +1,129 @@
+package org.example.languagecommunication.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket that paces calls to one AWS service in one region. A caller that finds
+ * the bucket empty reserves the next token and sleeps until it is due, so a burst is
+ * spread out instead of being sent to AWS at once. The refill rate adapts to the
+ * service: it is halved when AWS throttles a request and grows back with every success.
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long DECREASE_INTERVAL_NANOS = NANOS_PER_SECOND;
+    private static final double MIN_RATE_FACTOR = 0.1;
+    private static final double INCREASE_FACTOR = 0.01;
+
+    private final double maxRate;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long lastDecrease;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitedNanos = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * @param ratePerSecond sustained rate, also the burst size of an idle bucket
+     */
+    public TokenBucket(double ratePerSecond, LongSupplier nanoClock) {
+        this.maxRate = ratePerSecond;
+        this.capacity = Math.max(1, ratePerSecond);
+        this.nanoClock = nanoClock;
+        this.rate = ratePerSecond;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+        this.lastDecrease = lastRefill - DECREASE_INTERVAL_NANOS;
+    }
+
+    /**
+     * Waits for a token for at most {@code maxWait}.
+     *
+     * @return false when the token would not be due in time, nothing is taken from the bucket then
+     */
+    public boolean acquire(Duration maxWait) throws InterruptedException {
+        long waitNanos = reserve(maxWait.toNanos());
+        if (waitNanos < 0) {
+            return false;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return true;
+    }
+
+    /**
+     * Takes a token, possibly one that is only due in the future.
+     *
+     * @return nanoseconds until the token may be used, or -1 if that is longer than {@code maxWaitNanos}
+     */
+    public synchronized long reserve(long maxWaitNanos) {
+        refill();
+        long waitNanos = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / rate * NANOS_PER_SECOND);
+        if (waitNanos > maxWaitNanos) {
+            rejected.increment();
+            return -1;
+        }
+        tokens -= 1;
+        acquired.increment();
+        waitedNanos.add(waitNanos);
+        return waitNanos;
+    }
+
+    /**
+     * AWS throttled a request: halve the rate, at most once per second so that one
+     * burst of throttled requests does not collapse it, and drop any saved-up burst.
+     */
+    public synchronized void onThrottled() {
+        refill();
+        throttled.increment();
+        long now = nanoClock.getAsLong();
+        if (now - lastDecrease >= DECREASE_INTERVAL_NANOS) {
+            rate = Math.max(maxRate * MIN_RATE_FACTOR, rate / 2);
+            lastDecrease = now;
+        }
+        tokens = Math.min(tokens, 0);
+    }
+
+    public synchronized void onSuccess() {
+        if (rate < maxRate) {
+            refill();
+            rate = Math.min(maxRate, rate + maxRate * INCREASE_FACTOR);
+        }
+    }
+
+    public synchronized double rate() {
+        return rate;
+    }
+
+    public long acquired() {
+        return acquired.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public Duration waited() {
+        return Duration.ofNanos(waitedNanos.sum());
+    }
+
+    public long throttled() {
+        return throttled.sum();
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * rate / NANOS_PER_SECOND);
+        lastRefill = now;
+    }
+}
@@ -12,6 +12,7 @@ import org.example.languagecommunication.flashcard.models.Flashcard;
 import org.example.languagecommunication.flashcard.models.FlashcardFolder;
 import org.example.languagecommunication.flashcard.repositories.FlashcardFolderRepository;
 import org.example.languagecommunication.flashcard.repositories.FlashcardRepository;
+import org.example.languagecommunication.textspeech.SpeechPresynthesizer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -25,11 +26,14 @@ import java.util.*;
 public class FlashcardFolderService implements IFlashcardFolderService{
     FlashcardFolderRepository flashcardFolderRepository;
     FlashcardRepository flashcardRepository;
+    SpeechPresynthesizer speechPresynthesizer;
 
     @Autowired
-    public FlashcardFolderService(FlashcardFolderRepository flashcardFolderRepository, FlashcardRepository flashcardRepository) {
+    public FlashcardFolderService(FlashcardFolderRepository flashcardFolderRepository, FlashcardRepository flashcardRepository,
+                                  SpeechPresynthesizer speechPresynthesizer) {
         this.flashcardFolderRepository = flashcardFolderRepository;
         this.flashcardRepository = flashcardRepository;
+        this.speechPresynthesizer = speechPresynthesizer;
     }
 
     @Override
@@ -41,7 +45,9 @@ public class FlashcardFolderService implements IFlashcardFolderService{
                 }
             }
         }
-        return flashcardFolderRepository.save(folder);
+        FlashcardFolder saved = flashcardFolderRepository.save(folder);
+        presynthesize(saved.getUserID(), saved.getFlashcards());
+        return saved;
     }
 
     @Override
@@ -170,6 +176,19 @@ public class FlashcardFolderService implements IFlashcardFolderService{
         }
 
         flashcardFolderRepository.save(copiedFolder);
+        presynthesize(userId, copiedFlashcards);
         return copiedFolder;
     }
+
+    private void presynthesize(Long userId, Collection<Flashcard> flashcards) {
+        if (flashcards == null) {
+            return;
+        }
+        List<String> texts = new ArrayList<>();
+        for (Flashcard flashcard : flashcards) {
+            texts.add(flashcard.getFrontContent());
+            texts.add(flashcard.getBackContent());
+        }
+        speechPresynthesizer.submit(userId, texts);
+    }
 }
@@ -5,24 +5,30 @@ import jakarta.transaction.Transactional;
 import org.example.languagecommunication.flashcard.models.Flashcard;
 import org.example.languagecommunication.flashcard.models.FlashcardStatus;
 import org.example.languagecommunication.flashcard.repositories.FlashcardRepository;
+import org.example.languagecommunication.textspeech.SpeechPresynthesizer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @Service
 public class FlashcardService implements IFlashcardService {
     private final FlashcardRepository flashcardRepository;
+    private final SpeechPresynthesizer speechPresynthesizer;
 
     @Autowired
-    public FlashcardService(FlashcardRepository flashcardRepository) {
+    public FlashcardService(FlashcardRepository flashcardRepository, SpeechPresynthesizer speechPresynthesizer) {
         this.flashcardRepository = flashcardRepository;
+        this.speechPresynthesizer = speechPresynthesizer;
     }
 
     @Override
     public Flashcard addFlashcard(Flashcard flashcard) {
-        return flashcardRepository.save(flashcard);
+        Flashcard saved = flashcardRepository.save(flashcard);
+        speechPresynthesizer.submit(saved.getUserID(), Arrays.asList(saved.getFrontContent(), saved.getBackContent()));
+        return saved;
     }
 
     @Override
@@ -73,6 +79,10 @@ public class FlashcardService implements IFlashcardService {
         if (updated.getFrontContent() != null) flashcard.setFrontContent(updated.getFrontContent());
         if (updated.getBackContent() != null) flashcard.setBackContent(updated.getBackContent());
         if (updated.getStatus() != null) flashcard.setStatus(updated.getStatus());
-        return flashcardRepository.save(flashcard);
+        Flashcard saved = flashcardRepository.save(flashcard);
+        if (updated.getFrontContent() != null || updated.getBackContent() != null) {
+            speechPresynthesizer.submit(saved.getUserID(), Arrays.asList(saved.getFrontContent(), saved.getBackContent()));
+        }
+        return saved;
     }
 }
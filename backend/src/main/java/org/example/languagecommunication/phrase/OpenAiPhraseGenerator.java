@@ -0,0 +1,48 @@
+package org.example.languagecommunication.phrase;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Profile("!simulator")
+public class OpenAiPhraseGenerator implements PhraseGenerator {
+
+    private final WebClient webClient;
+
+    public OpenAiPhraseGenerator(@Value("${openai.api.key}") String apiKey) {
+        this.webClient = WebClient.builder()
+                .baseUrl("https://api.openai.com/v1")
+                .defaultHeader("Authorization", "Bearer " + apiKey)
+                .defaultHeader("Content-Type", "application/json")
+                .build();
+    }
+
+    @Override
+    public String generate(String word) {
+        Map<String, Object> requestBody = Map.of(
+                "model", "gpt-4.1-nano-2025-04-14",
+                "messages", List.of(
+                        Map.of(
+                                "role", "user",
+                                "content", "Generate a short and natural phrase (in the same language as the word provided) that includes the given word. \n" +
+                                        "The response must consist of only the phrase — do not include any quotation marks or additional formatting. \n" +
+                                        "If the word is not valid, unknown, or cannot be used in a sentence, respond with exactly the same word.\n The word is: " + word
+                        )
+                )
+        );
+
+        return webClient.post()
+                .uri("/chat/completions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+    }
+}
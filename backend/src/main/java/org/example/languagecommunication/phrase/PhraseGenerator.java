@@ -0,0 +1,10 @@
+package org.example.languagecommunication.phrase;
+
+/**
+ * Generates an example phrase for a word. Returns the raw chat completion response body,
+ * the client reads the phrase from {@code choices[0].message.content}.
+ */
+public interface PhraseGenerator {
+
+    String generate(String word);
+}
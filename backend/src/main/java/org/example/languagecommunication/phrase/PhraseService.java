@@ -1,51 +1,26 @@
 package org.example.languagecommunication.phrase;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.example.languagecommunication.common.utils.SingleFlight;
 import org.springframework.stereotype.Service;
-import org.springframework.http.*;
-
-import org.springframework.web.reactive.function.client.WebClient;
-
-import java.util.List;
-import java.util.Map;
 
 @Service
 public class PhraseService {
 
-    private final WebClient webClient;
+    private final PhraseGenerator phraseGenerator;
+    // identical concurrent prompts share one OpenAI request
+    private final SingleFlight<String, String> phraseFlights = new SingleFlight<>();
 
-    public PhraseService(@Value("${openai.api.key}") String apiKey) {
-        this.webClient = WebClient.builder()
-                .baseUrl("https://api.openai.com/v1")
-                .defaultHeader("Authorization", "Bearer " + apiKey)
-                .defaultHeader("Content-Type", "application/json")
-                .build();
+    public PhraseService(PhraseGenerator phraseGenerator) {
+        this.phraseGenerator = phraseGenerator;
     }
 
     public String getResponse(String phrase) {
-        Map<String, Object> requestBody = Map.of(
-                "model", "gpt-4.1-nano-2025-04-14",
-                "messages", List.of(
-                        Map.of(
-                                "role", "user",
-                                "content", "Generate a short and natural phrase (in the same language as the word provided) that includes the given word. \n" +
-                                        "The response must consist of only the phrase — do not include any quotation marks or additional formatting. \n" +
-                                        "If the word is not valid, unknown, or cannot be used in a sentence, respond with exactly the same word.\n The word is: " + phrase
-                        )
-                )
-        );
-
+        String word = phrase.strip();
         try {
-            return webClient.post()
-                    .uri("/chat/completions")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+            return phraseFlights.execute(word, () -> phraseGenerator.generate(word));
         } catch (Exception e) {
             System.out.println(e);
             return "Błąd przy komunikacji z Groq: " + e.getMessage();
         }
     }
-}
\ No newline at end of file
+}
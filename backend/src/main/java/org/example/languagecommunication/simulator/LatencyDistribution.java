@@ -0,0 +1,95 @@
+package org.example.languagecommunication.simulator;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Latency of a simulated call. Written as {@code fixed:50ms}, {@code uniform:20ms:200ms}
+ * or {@code lognormal:80ms:600ms}, the last one takes the median and the 99th percentile
+ * and gives the long tail real services have.
+ */
+public sealed interface LatencyDistribution {
+
+    // 99th percentile of the standard normal distribution
+    double Z_99 = 2.3263;
+
+    Duration sample(Random random);
+
+    static LatencyDistribution parse(String spec) {
+        String[] parts = spec.strip().split(":");
+        try {
+            return switch (parts[0]) {
+                case "fixed" -> {
+                    check(parts, 2, spec);
+                    yield new Fixed(duration(parts[1]));
+                }
+                case "uniform" -> {
+                    check(parts, 3, spec);
+                    yield new Uniform(duration(parts[1]), duration(parts[2]));
+                }
+                case "lognormal" -> {
+                    check(parts, 3, spec);
+                    yield new LogNormal(duration(parts[1]), duration(parts[2]));
+                }
+                default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+            };
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid latency distribution '" + spec + "': " + e.getMessage(), e);
+        }
+    }
+
+    private static void check(String[] parts, int length, String spec) {
+        if (parts.length != length) {
+            throw new IllegalArgumentException("expected " + (length - 1) + " duration(s)");
+        }
+    }
+
+    private static Duration duration(String value) {
+        Duration duration = DurationStyle.detectAndParse(value);
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("negative duration " + value);
+        }
+        return duration;
+    }
+
+    record Fixed(Duration latency) implements LatencyDistribution {
+
+        @Override
+        public Duration sample(Random random) {
+            return latency;
+        }
+    }
+
+    record Uniform(Duration min, Duration max) implements LatencyDistribution {
+
+        public Uniform {
+            if (max.compareTo(min) < 0) {
+                throw new IllegalArgumentException("max is below min");
+            }
+        }
+
+        @Override
+        public Duration sample(Random random) {
+            long spread = max.toNanos() - min.toNanos();
+            return min.plusNanos(spread == 0 ? 0 : random.nextLong(spread + 1));
+        }
+    }
+
+    record LogNormal(Duration median, Duration p99) implements LatencyDistribution {
+
+        public LogNormal {
+            if (median.isZero() || p99.compareTo(median) < 0) {
+                throw new IllegalArgumentException("median must be positive and not above p99");
+            }
+        }
+
+        @Override
+        public Duration sample(Random random) {
+            double mu = Math.log(median.toNanos());
+            double sigma = (Math.log(p99.toNanos()) - mu) / Z_99;
+            return Duration.ofNanos(Math.round(Math.exp(mu + sigma * random.nextGaussian())));
+        }
+    }
+}
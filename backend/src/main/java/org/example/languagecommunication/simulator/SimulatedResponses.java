@@ -0,0 +1,155 @@
+package org.example.languagecommunication.simulator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.codec.digest.DigestUtils;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.comprehend.model.BatchDetectDominantLanguageItemResult;
+import software.amazon.awssdk.services.comprehend.model.BatchDetectDominantLanguageRequest;
+import software.amazon.awssdk.services.comprehend.model.BatchDetectDominantLanguageResponse;
+import software.amazon.awssdk.services.comprehend.model.BatchItemError;
+import software.amazon.awssdk.services.comprehend.model.DetectDominantLanguageResponse;
+import software.amazon.awssdk.services.comprehend.model.DominantLanguage;
+import software.amazon.awssdk.services.polly.model.SynthesizeSpeechResponse;
+import software.amazon.awssdk.services.textract.model.Block;
+import software.amazon.awssdk.services.textract.model.DetectDocumentTextResponse;
+import software.amazon.awssdk.services.translate.model.TranslateTextRequest;
+import software.amazon.awssdk.services.translate.model.TranslateTextResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic fake responses. The same request always gets the same response, and the
+ * responses have the size and shape of the real ones where that matters for the callers.
+ */
+final class SimulatedResponses {
+
+    // MPEG-1 Layer III frame header: 128 kbit/s, 44.1 kHz, mono. A frame of 417 bytes plays 26 ms.
+    private static final byte[] MP3_FRAME_HEADER = {(byte) 0xFF, (byte) 0xFB, (byte) 0x90, (byte) 0xC0};
+    private static final int MP3_FRAME_BYTES = 417;
+    // Polly speaks about 15 characters a second, two frames cover one character
+    private static final int MP3_FRAMES_PER_CHAR = 2;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SimulatedResponses() {
+    }
+
+    static TranslateTextResponse translation(TranslateTextRequest request) {
+        String source = "auto".equals(request.sourceLanguageCode())
+                ? dominantLanguage(request.text())
+                : request.sourceLanguageCode();
+        return TranslateTextResponse.builder()
+                .translatedText("[" + request.targetLanguageCode() + "] " + request.text())
+                .sourceLanguageCode(source)
+                .targetLanguageCode(request.targetLanguageCode())
+                .build();
+    }
+
+    static DetectDominantLanguageResponse detection(String text) {
+        return DetectDominantLanguageResponse.builder()
+                .languages(List.of(DominantLanguage.builder()
+                        .languageCode(dominantLanguage(text))
+                        .score(0.99f)
+                        .build()))
+                .build();
+    }
+
+    static BatchDetectDominantLanguageResponse batchDetection(BatchDetectDominantLanguageRequest request) {
+        List<BatchDetectDominantLanguageItemResult> results = new ArrayList<>();
+        List<BatchItemError> errors = new ArrayList<>();
+        List<String> texts = request.textList();
+        for (int i = 0; i < texts.size(); i++) {
+            if (texts.get(i) == null || texts.get(i).isBlank()) {
+                errors.add(BatchItemError.builder()
+                        .index(i)
+                        .errorCode("INVALID_REQUEST")
+                        .errorMessage("Text is empty")
+                        .build());
+            } else {
+                results.add(BatchDetectDominantLanguageItemResult.builder()
+                        .index(i)
+                        .languages(detection(texts.get(i)).languages())
+                        .build());
+            }
+        }
+        return BatchDetectDominantLanguageResponse.builder()
+                .resultList(results)
+                .errorList(errors)
+                .build();
+    }
+
+    /**
+     * Picks the language by its letters, everything without them is English.
+     */
+    static String dominantLanguage(String text) {
+        String lower = text.toLowerCase();
+        if (lower.matches("(?s).*[ąćęłńśźż].*")) {
+            return "pl";
+        }
+        if (lower.matches("(?s).*[äöüß].*")) {
+            return "de";
+        }
+        if (lower.matches("(?s).*[ñ¿¡].*")) {
+            return "es";
+        }
+        if (lower.matches("(?s).*[àâçèéêëîïôûœ].*")) {
+            return "fr";
+        }
+        if (lower.matches("(?s).*\\p{IsCyrillic}.*")) {
+            return "ru";
+        }
+        return "en";
+    }
+
+    static SynthesizeSpeechResponse speechResponse(String text) {
+        return SynthesizeSpeechResponse.builder()
+                .contentType("audio/mpeg")
+                .requestCharacters(text.length())
+                .build();
+    }
+
+    /**
+     * Silent MP3 about as long as the spoken text would be.
+     */
+    static byte[] speech(String text) {
+        int frames = Math.max(1, text.length() * MP3_FRAMES_PER_CHAR);
+        byte[] audio = new byte[frames * MP3_FRAME_BYTES];
+        for (int frame = 0; frame < frames; frame++) {
+            System.arraycopy(MP3_FRAME_HEADER, 0, audio, frame * MP3_FRAME_BYTES, MP3_FRAME_HEADER.length);
+        }
+        return audio;
+    }
+
+    static DetectDocumentTextResponse documentText(SdkBytes image) {
+        String digest = DigestUtils.sha256Hex(image.asByteArrayUnsafe());
+        return DetectDocumentTextResponse.builder()
+                .blocks(List.of(
+                        Block.builder().blockType("PAGE").build(),
+                        Block.builder().blockType("LINE").text("Simulated document " + digest.substring(0, 8)).build(),
+                        Block.builder().blockType("WORD").text("Simulated").build(),
+                        Block.builder().blockType("LINE").text("Scanned " + image.asByteArrayUnsafe().length + " bytes").build()))
+                .build();
+    }
+
+    /**
+     * Chat completion response body in the format of the OpenAI API.
+     */
+    static String chatCompletion(String word) {
+        Map<String, Object> completion = Map.of(
+                "id", "chatcmpl-simulated-" + DigestUtils.sha256Hex(word).substring(0, 12),
+                "object", "chat.completion",
+                "model", "simulator",
+                "choices", List.of(Map.of(
+                        "index", 0,
+                        "message", Map.of("role", "assistant", "content", "This is a simulated phrase with " + word + "."),
+                        "finish_reason", "stop")));
+        try {
+            return objectMapper.writeValueAsString(completion);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.languagecommunication.simulator;
+
+import org.springframework.core.env.Environment;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Latency and faults of one simulated backend. Every call samples a latency and rolls
+ * for a throttling or a server error, both from a random seeded per service, so a
+ * single-threaded run replays exactly. Concurrent calls draw in arrival order.
+ */
+public class SimulatedService {
+
+    private final String name;
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final double throttleRate;
+    private final Random random;
+    private final Function<String, RuntimeException> throttled;
+    private final Function<String, RuntimeException> failed;
+
+    public SimulatedService(String name, LatencyDistribution latency, double errorRate, double throttleRate, long seed,
+                            Function<String, RuntimeException> throttled, Function<String, RuntimeException> failed) {
+        if (errorRate < 0 || throttleRate < 0 || errorRate + throttleRate > 1) {
+            throw new IllegalArgumentException("Error and throttle rates of " + name + " must be between 0 and 1 together");
+        }
+        this.name = name;
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.throttleRate = throttleRate;
+        this.random = new Random(seed ^ name.hashCode());
+        this.throttled = throttled;
+        this.failed = failed;
+    }
+
+    /**
+     * Reads {@code simulator.<name>.latency}, {@code .error-rate} and {@code .throttle-rate},
+     * falling back to the shared {@code simulator.*} values.
+     */
+    public static SimulatedService of(Environment environment, String name,
+                                      Function<String, RuntimeException> throttled, Function<String, RuntimeException> failed) {
+        String latency = environment.getProperty("simulator." + name + ".latency",
+                environment.getProperty("simulator.latency", "fixed:0ms"));
+        double errorRate = environment.getProperty("simulator." + name + ".error-rate", Double.class,
+                environment.getProperty("simulator.error-rate", Double.class, 0.0));
+        double throttleRate = environment.getProperty("simulator." + name + ".throttle-rate", Double.class,
+                environment.getProperty("simulator.throttle-rate", Double.class, 0.0));
+        long seed = environment.getProperty("simulator.seed", Long.class, 42L);
+        return new SimulatedService(name, LatencyDistribution.parse(latency), errorRate, throttleRate, seed, throttled, failed);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Duration nextLatency() {
+        return latency.sample(random);
+    }
+
+    /**
+     * The fault injected into the next call, or null when it succeeds.
+     */
+    public RuntimeException nextFault() {
+        double roll = random.nextDouble();
+        if (roll < throttleRate) {
+            return throttled.apply("Rate exceeded (simulated " + name + ")");
+        }
+        if (roll < throttleRate + errorRate) {
+            return failed.apply("Internal failure (simulated " + name + ")");
+        }
+        return null;
+    }
+
+    /**
+     * Blocks for the sampled latency, then throws the injected fault if there is one.
+     */
+    public void call() {
+        Duration delay = nextLatency();
+        RuntimeException fault = nextFault();
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SdkClientException.create("Simulated " + name + " call was interrupted", e);
+        }
+        if (fault != null) {
+            throw fault;
+        }
+    }
+
+    /**
+     * Completes with the response, or with the injected fault, after the sampled latency
+     * without holding a thread meanwhile.
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<T> response) {
+        Duration delay = nextLatency();
+        RuntimeException fault = nextFault();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            if (fault != null) {
+                result.completeExceptionally(fault);
+                return;
+            }
+            try {
+                result.complete(response.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+}
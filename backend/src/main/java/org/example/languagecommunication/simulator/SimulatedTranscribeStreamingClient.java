@@ -0,0 +1,171 @@
+package org.example.languagecommunication.simulator;
+
+import org.reactivestreams.FlowAdapters;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.transcribestreaming.TranscribeStreamingAsyncClient;
+import software.amazon.awssdk.services.transcribestreaming.model.Alternative;
+import software.amazon.awssdk.services.transcribestreaming.model.AudioEvent;
+import software.amazon.awssdk.services.transcribestreaming.model.AudioStream;
+import software.amazon.awssdk.services.transcribestreaming.model.Result;
+import software.amazon.awssdk.services.transcribestreaming.model.StartStreamTranscriptionRequest;
+import software.amazon.awssdk.services.transcribestreaming.model.StartStreamTranscriptionResponse;
+import software.amazon.awssdk.services.transcribestreaming.model.StartStreamTranscriptionResponseHandler;
+import software.amazon.awssdk.services.transcribestreaming.model.Transcript;
+import software.amazon.awssdk.services.transcribestreaming.model.TranscriptEvent;
+import software.amazon.awssdk.services.transcribestreaming.model.TranscriptResultStream;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming transcription driven by the amount of audio received. Every second of 16-bit
+ * PCM audio adds two words to a partial result, after every segment of audio and at the
+ * end of the stream the words so far are sent as a final result. Events keep their order,
+ * each one is delayed by the sampled latency after the previous one.
+ */
+public class SimulatedTranscribeStreamingClient implements TranscribeStreamingAsyncClient {
+
+    private static final String[] WORDS = "this is a simulated transcript of the recorded speech".split(" ");
+    private static final int WORDS_PER_SECOND = 2;
+    private static final int BYTES_PER_SAMPLE = 2;
+
+    private final SimulatedService service;
+    private final long segmentSeconds;
+
+    public SimulatedTranscribeStreamingClient(SimulatedService service, Duration segment) {
+        this.service = service;
+        this.segmentSeconds = Math.max(1, segment.toSeconds());
+    }
+
+    @Override
+    public CompletableFuture<Void> startStreamTranscription(StartStreamTranscriptionRequest request,
+                                                            Publisher<AudioStream> audio,
+                                                            StartStreamTranscriptionResponseHandler handler) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        RuntimeException fault = service.nextFault();
+        if (fault != null) {
+            handler.exceptionOccurred(fault);
+            done.completeExceptionally(fault);
+            return done;
+        }
+
+        handler.responseReceived(StartStreamTranscriptionResponse.builder()
+                .requestId(UUID.randomUUID().toString())
+                .build());
+        // delivered on the submitting thread, so the stream has ended before done completes
+        SubmissionPublisher<TranscriptResultStream> events = new SubmissionPublisher<>(Runnable::run, Flow.defaultBufferSize());
+        handler.onEventStream(SdkPublisher.adapt(FlowAdapters.toPublisher(events)));
+
+        int sampleRate = request.mediaSampleRateHertz() != null ? request.mediaSampleRateHertz() : 16000;
+        audio.subscribe(new AudioSubscriber(sampleRate * BYTES_PER_SAMPLE, events, handler, done));
+        return done;
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private final class AudioSubscriber implements Subscriber<AudioStream> {
+
+        private final long bytesPerSecond;
+        private final SubmissionPublisher<TranscriptResultStream> events;
+        private final StartStreamTranscriptionResponseHandler handler;
+        private final CompletableFuture<Void> done;
+        private long bytes;
+        private long seconds;
+        private int words;
+        private int segment;
+        // events are delivered one after another, each after its own latency
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+        AudioSubscriber(long bytesPerSecond, SubmissionPublisher<TranscriptResultStream> events,
+                        StartStreamTranscriptionResponseHandler handler, CompletableFuture<Void> done) {
+            this.bytesPerSecond = bytesPerSecond;
+            this.events = events;
+            this.handler = handler;
+            this.done = done;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(AudioStream chunk) {
+            if (!(chunk instanceof AudioEvent event) || event.audioChunk() == null) {
+                return;
+            }
+            bytes += event.audioChunk().asByteArrayUnsafe().length;
+            while (seconds < bytes / bytesPerSecond) {
+                seconds++;
+                words += WORDS_PER_SECOND;
+                emit(true);
+                if (seconds % segmentSeconds == 0) {
+                    emit(false);
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            tail = tail.thenRun(() -> {
+                events.closeExceptionally(error);
+                handler.exceptionOccurred(error);
+                done.completeExceptionally(error);
+            });
+        }
+
+        @Override
+        public void onComplete() {
+            if (words > 0) {
+                emit(false);
+            }
+            tail = tail.thenRun(() -> {
+                events.close();
+                handler.complete();
+                done.complete(null);
+            });
+        }
+
+        private void emit(boolean partial) {
+            TranscriptEvent event = TranscriptEvent.builder()
+                    .transcript(Transcript.builder()
+                            .results(List.of(Result.builder()
+                                    .resultId("segment-" + segment)
+                                    .isPartial(partial)
+                                    .alternatives(List.of(Alternative.builder().transcript(text(words)).build()))
+                                    .build()))
+                            .build())
+                    .build();
+            if (!partial) {
+                words = 0;
+                segment++;
+            }
+            long delay = service.nextLatency().toNanos();
+            tail = tail.thenRunAsync(() -> events.submit(event),
+                    CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS));
+        }
+
+        private String text(int count) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                text.append(i == 0 ? "" : " ").append(WORDS[(segment * WORDS_PER_SECOND + i) % WORDS.length]);
+            }
+            return text.append('.').toString();
+        }
+    }
+}
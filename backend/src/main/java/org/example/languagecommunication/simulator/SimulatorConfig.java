@@ -0,0 +1,258 @@
+package org.example.languagecommunication.simulator;
+
+import org.example.languagecommunication.phrase.PhraseGenerator;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.comprehend.ComprehendClient;
+import software.amazon.awssdk.services.comprehend.model.BatchDetectDominantLanguageRequest;
+import software.amazon.awssdk.services.comprehend.model.BatchDetectDominantLanguageResponse;
+import software.amazon.awssdk.services.comprehend.model.DetectDominantLanguageRequest;
+import software.amazon.awssdk.services.comprehend.model.DetectDominantLanguageResponse;
+import software.amazon.awssdk.services.polly.PollyAsyncClient;
+import software.amazon.awssdk.services.polly.PollyClient;
+import software.amazon.awssdk.services.polly.model.ServiceFailureException;
+import software.amazon.awssdk.services.polly.model.SynthesizeSpeechRequest;
+import software.amazon.awssdk.services.polly.model.SynthesizeSpeechResponse;
+import software.amazon.awssdk.services.textract.TextractAsyncClient;
+import software.amazon.awssdk.services.textract.TextractClient;
+import software.amazon.awssdk.services.textract.model.DetectDocumentTextRequest;
+import software.amazon.awssdk.services.textract.model.DetectDocumentTextResponse;
+import software.amazon.awssdk.services.textract.model.ThrottlingException;
+import software.amazon.awssdk.services.transcribestreaming.TranscribeStreamingAsyncClient;
+import software.amazon.awssdk.services.translate.TranslateAsyncClient;
+import software.amazon.awssdk.services.translate.TranslateClient;
+import software.amazon.awssdk.services.translate.model.InternalServerException;
+import software.amazon.awssdk.services.translate.model.TooManyRequestsException;
+import software.amazon.awssdk.services.translate.model.TranslateTextRequest;
+import software.amazon.awssdk.services.translate.model.TranslateTextResponse;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Offline replacements for the AWS clients and OpenAI, active with the {@code simulator}
+ * profile instead of {@link org.example.languagecommunication.config.AWSConfig}. The
+ * services keep talking to the SDK client interfaces, so everything above them runs
+ * unchanged. Latency, errors and throttling are configured per backend, see
+ * application-simulator.properties. Faults are thrown as the exceptions the real backend
+ * throws, without the SDK retries in between.
+ */
+@Configuration
+@Profile("simulator")
+public class SimulatorConfig {
+
+    private final SimulatedService translate;
+    private final SimulatedService comprehend;
+    private final SimulatedService polly;
+    private final SimulatedService textract;
+    private final SimulatedService transcribe;
+    private final SimulatedService openai;
+    private final Duration transcribeSegment;
+
+    public SimulatorConfig(Environment environment) {
+        this.translate = SimulatedService.of(environment, "translate",
+                message -> TooManyRequestsException.builder().message(message).statusCode(429).build(),
+                message -> InternalServerException.builder().message(message).statusCode(500).build());
+        this.comprehend = SimulatedService.of(environment, "comprehend",
+                message -> software.amazon.awssdk.services.comprehend.model.TooManyRequestsException.builder().message(message).statusCode(429).build(),
+                message -> software.amazon.awssdk.services.comprehend.model.InternalServerException.builder().message(message).statusCode(500).build());
+        this.polly = SimulatedService.of(environment, "polly",
+                message -> AwsServiceException.builder().message(message).statusCode(429).build(),
+                message -> ServiceFailureException.builder().message(message).statusCode(500).build());
+        this.textract = SimulatedService.of(environment, "textract",
+                message -> ThrottlingException.builder().message(message).statusCode(429).build(),
+                message -> AwsServiceException.builder().message(message).statusCode(500).build());
+        this.transcribe = SimulatedService.of(environment, "transcribe",
+                message -> AwsServiceException.builder().message(message).statusCode(429).build(),
+                message -> AwsServiceException.builder().message(message).statusCode(500).build());
+        this.openai = SimulatedService.of(environment, "openai",
+                message -> new WebClientResponseException(429, message, null, null, null),
+                message -> new WebClientResponseException(500, message, null, null, null));
+        this.transcribeSegment = DurationStyle.detectAndParse(environment.getProperty("simulator.transcribe.segment", "3s"));
+    }
+
+    @Bean
+    public TranslateClient translateClient() {
+        return new TranslateClient() {
+            @Override
+            public TranslateTextResponse translateText(TranslateTextRequest request) {
+                translate.call();
+                return SimulatedResponses.translation(request);
+            }
+
+            @Override
+            public String serviceName() {
+                return SERVICE_NAME;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Bean
+    public TranslateAsyncClient translateAsyncClient() {
+        return new TranslateAsyncClient() {
+            @Override
+            public CompletableFuture<TranslateTextResponse> translateText(TranslateTextRequest request) {
+                return translate.callAsync(() -> SimulatedResponses.translation(request));
+            }
+
+            @Override
+            public String serviceName() {
+                return SERVICE_NAME;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Bean
+    public ComprehendClient comprehendClient() {
+        return new ComprehendClient() {
+            @Override
+            public DetectDominantLanguageResponse detectDominantLanguage(DetectDominantLanguageRequest request) {
+                comprehend.call();
+                return SimulatedResponses.detection(request.text());
+            }
+
+            @Override
+            public BatchDetectDominantLanguageResponse batchDetectDominantLanguage(BatchDetectDominantLanguageRequest request) {
+                comprehend.call();
+                return SimulatedResponses.batchDetection(request);
+            }
+
+            @Override
+            public String serviceName() {
+                return SERVICE_NAME;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Bean
+    public PollyClient pollyClient() {
+        return new PollyClient() {
+            @Override
+            public ResponseInputStream<SynthesizeSpeechResponse> synthesizeSpeech(SynthesizeSpeechRequest request) {
+                polly.call();
+                return new ResponseInputStream<>(SimulatedResponses.speechResponse(request.text()),
+                        AbortableInputStream.create(new ByteArrayInputStream(SimulatedResponses.speech(request.text()))));
+            }
+
+            @Override
+            public String serviceName() {
+                return SERVICE_NAME;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Bean
+    public PollyAsyncClient pollyAsyncClient() {
+        return new PollyAsyncClient() {
+            @Override
+            public <T> CompletableFuture<T> synthesizeSpeech(SynthesizeSpeechRequest request,
+                                                             AsyncResponseTransformer<SynthesizeSpeechResponse, T> transformer) {
+                CompletableFuture<T> result = new CompletableFuture<>();
+                transformer.prepare().whenComplete((value, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+                polly.callAsync(() -> SimulatedResponses.speech(request.text())).whenComplete((audio, error) -> {
+                    if (error != null) {
+                        transformer.exceptionOccurred(error);
+                        result.completeExceptionally(error);
+                        return;
+                    }
+                    transformer.onResponse(SimulatedResponses.speechResponse(request.text()));
+                    transformer.onStream(AsyncRequestBody.fromBytes(audio));
+                });
+                return result;
+            }
+
+            @Override
+            public String serviceName() {
+                return SERVICE_NAME;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Bean
+    public TextractClient textractClient() {
+        return new TextractClient() {
+            @Override
+            public DetectDocumentTextResponse detectDocumentText(DetectDocumentTextRequest request) {
+                textract.call();
+                return SimulatedResponses.documentText(request.document().bytes());
+            }
+
+            @Override
+            public String serviceName() {
+                return SERVICE_NAME;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Bean
+    public TextractAsyncClient textractAsyncClient() {
+        return new TextractAsyncClient() {
+            @Override
+            public CompletableFuture<DetectDocumentTextResponse> detectDocumentText(DetectDocumentTextRequest request) {
+                return textract.callAsync(() -> SimulatedResponses.documentText(request.document().bytes()));
+            }
+
+            @Override
+            public String serviceName() {
+                return SERVICE_NAME;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Bean
+    public TranscribeStreamingAsyncClient transcribeStreamingAsyncClient() {
+        return new SimulatedTranscribeStreamingClient(transcribe, transcribeSegment);
+    }
+
+    @Bean
+    public PhraseGenerator phraseGenerator() {
+        return word -> {
+            openai.call();
+            return SimulatedResponses.chatCompletion(word);
+        };
+    }
+}
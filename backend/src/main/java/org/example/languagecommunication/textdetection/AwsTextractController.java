@@ -8,6 +8,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class AwsTextractController {
@@ -25,4 +26,10 @@ public class AwsTextractController {
             return ResponseEntity.ok(detectedText);
         }
     }
+
+    @PostMapping("/detectText/async")
+    public CompletableFuture<ResponseEntity<String>> detectTextAsync(@RequestParam("file") MultipartFile file) throws IOException {
+        return awsTextractService.detectTextAsync(file.getBytes())
+                .thenApply(ResponseEntity::ok);
+    }
 }
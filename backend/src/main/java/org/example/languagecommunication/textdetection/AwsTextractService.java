@@ -1,22 +1,31 @@
 package org.example.languagecommunication.textdetection;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.example.languagecommunication.common.utils.SingleFlight;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.textract.TextractAsyncClient;
 import software.amazon.awssdk.services.textract.TextractClient;
 import software.amazon.awssdk.services.textract.model.*;
 
 import java.io.InputStream;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
 public class AwsTextractService {
 
     private final TextractClient textractClient;
+    private final TextractAsyncClient textractAsyncClient;
+    // the same image uploaded by several users at once is sent to Textract once, keyed by its SHA-256
+    private final SingleFlight<String, String> detectFlights = new SingleFlight<>();
 
     @Autowired
-    public AwsTextractService(TextractClient textractClient) {
+    public AwsTextractService(TextractClient textractClient, TextractAsyncClient textractAsyncClient) {
         this.textractClient = textractClient;
+        this.textractAsyncClient = textractAsyncClient;
     }
 
     public String detectText(InputStream inputStream) {
@@ -28,8 +37,30 @@ public class AwsTextractService {
                 .document(document).build();
 
 
-        DetectDocumentTextResponse response = textractClient.detectDocumentText(request);
+        return detectFlights.execute(DigestUtils.sha256Hex(bytes.asByteArrayUnsafe()),
+                () -> joinLines(textractClient.detectDocumentText(request)));
+    }
+
+    public CompletableFuture<String> detectTextAsync(byte[] bytes) {
+        Document document = Document.builder().bytes(SdkBytes.fromByteArray(bytes)).build();
+
+        DetectDocumentTextRequest request = DetectDocumentTextRequest.builder()
+                .document(document).build();
+
+        return detectFlights.executeAsync(DigestUtils.sha256Hex(bytes), () -> {
+            CompletableFuture<DetectDocumentTextResponse> call = textractAsyncClient.detectDocumentText(request);
+            CompletableFuture<String> text = call.thenApply(AwsTextractService::joinLines);
+            // once every caller has left, the Textract request is aborted too
+            text.whenComplete((result, error) -> {
+                if (error instanceof CancellationException) {
+                    call.cancel(true);
+                }
+            });
+            return text;
+        });
+    }
 
+    private static String joinLines(DetectDocumentTextResponse response) {
         return response.blocks().stream()
                 .filter(block -> block.blockTypeAsString().equals("LINE"))
                 .map(Block::text)
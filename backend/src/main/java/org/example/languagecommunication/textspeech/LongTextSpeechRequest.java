@@ -0,0 +1,4 @@
+package org.example.languagecommunication.textspeech;
+
+public record LongTextSpeechRequest(String text, String langCode) {
+}
@@ -0,0 +1,240 @@
+package org.example.languagecommunication.textspeech;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Synthesized audio on local disk, addressed by the hash of everything that determines it.
+ * Files live under {@code <directory>/<first two hash chars>/<hash>.<format>}, so a file
+ * never changes once written and the hash works as an ETag.
+ * <p>
+ * The index of files is kept in memory in least recently used order and rebuilt from one
+ * directory walk at startup, ordered by modification time. Hits refresh the modification
+ * time at most once per {@link #TOUCH_INTERVAL}, so the order survives restarts without a
+ * write per play. When the files exceed {@code max-bytes} the least recently used ones
+ * leave the index. Their files are only deleted {@code delete-delay} later, by a later
+ * {@link #put}, because a reader that has just looked one up may still hand it to the
+ * connector's sendfile, which opens it by name. A file removed from outside is noticed
+ * by the reader, which {@link #discard}s the entry.
+ */
+@Component
+public class SpeechCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpeechCache.class);
+    private static final Duration TOUCH_INTERVAL = Duration.ofHours(1);
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Duration deleteDelay;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // evicted files in eviction order, so the ones that are due come first
+    private final ArrayDeque<PendingDelete> pendingDeletes = new ArrayDeque<>();
+    private long totalBytes;
+
+    public SpeechCache(@Value("${speech.cache.directory:${user.home}/.languagecommunication/speech-cache}") Path directory,
+                       @Value("${speech.cache.max-bytes:1073741824}") long maxBytes,
+                       @Value("${speech.cache.delete-delay:1m}") Duration deleteDelay) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.deleteDelay = deleteDelay;
+        try {
+            Files.createDirectories(directory);
+            rebuildIndex();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the speech cache in " + directory, e);
+        }
+    }
+
+    public record CachedSpeech(String key, Path file, long size) {
+    }
+
+    public static String key(String text, String voiceId, String engine, String format) {
+        return DigestUtils.sha256Hex(String.join("\u0000", text, voiceId, engine, format)) + "." + format;
+    }
+
+    public Optional<CachedSpeech> get(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            return Optional.empty();
+        }
+        long now = System.currentTimeMillis();
+        if (now - entry.touched > TOUCH_INTERVAL.toMillis()) {
+            entry.touched = now;
+            try {
+                Files.setLastModifiedTime(entry.file, FileTime.fromMillis(now));
+            } catch (IOException e) {
+                // evicted or removed from outside in the meantime
+                remove(key, entry);
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new CachedSpeech(key, entry.file, entry.size));
+    }
+
+    /**
+     * Whether the audio is cached, without counting as a use.
+     */
+    public synchronized boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Writes the audio to a temporary file and moves it into place, readers never see a
+     * partial file.
+     */
+    public CachedSpeech put(String key, InputStream audio) throws IOException {
+        Path file = file(key);
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), key, TEMP_SUFFIX);
+        long size;
+        try {
+            size = Files.copy(audio, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        List<Path> due = new ArrayList<>();
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(file, size, System.currentTimeMillis()));
+            if (previous != null) {
+                totalBytes -= previous.size;
+            }
+            totalBytes += size;
+            long now = System.nanoTime();
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && entries.size() > 1) {
+                Map.Entry<String, Entry> evicted = eldest.next();
+                eldest.remove();
+                totalBytes -= evicted.getValue().size;
+                pendingDeletes.addLast(new PendingDelete(evicted.getKey(), evicted.getValue().file, now + deleteDelay.toNanos()));
+            }
+            while (!pendingDeletes.isEmpty() && pendingDeletes.peekFirst().due() - now <= 0) {
+                PendingDelete pending = pendingDeletes.pollFirst();
+                // stored again since it was evicted, the file now belongs to the new entry
+                if (!entries.containsKey(pending.key())) {
+                    due.add(pending.file());
+                }
+            }
+        }
+        due.forEach(SpeechCache::delete);
+        return new CachedSpeech(key, file, size);
+    }
+
+    /**
+     * Drops the entry when its file is gone, after an eviction by a concurrent
+     * {@link #put} or a removal from outside. The next lookup misses.
+     */
+    public void discard(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry != null && Files.notExists(entry.file)) {
+            remove(key, entry);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private synchronized void remove(String key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            totalBytes -= entry.size;
+        }
+    }
+
+    private void rebuildIndex() throws IOException {
+        List<Entry> found = new ArrayList<>();
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    // left over by a write that did not finish
+                    delete(file);
+                } else if (attributes.isRegularFile()) {
+                    found.add(new Entry(file, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        found.sort(Comparator.comparingLong(entry -> entry.touched));
+
+        List<Path> evicted = new ArrayList<>();
+        synchronized (this) {
+            for (Entry entry : found) {
+                entries.put(entry.file.getFileName().toString(), entry);
+                totalBytes += entry.size;
+            }
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Entry entry = eldest.next();
+                eldest.remove();
+                totalBytes -= entry.size;
+                evicted.add(entry.file);
+            }
+        }
+        evicted.forEach(SpeechCache::delete);
+        logger.info("Speech cache in {} holds {} files, {} bytes", directory, entries.size(), totalBytes);
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Cannot delete cached speech {}", file, e);
+        }
+    }
+
+    private record PendingDelete(String key, Path file, long due) {
+    }
+
+    private static final class Entry {
+
+        private final Path file;
+        private final long size;
+        private volatile long touched;
+
+        Entry(Path file, long size, long touched) {
+            this.file = file;
+            this.size = size;
+            this.touched = touched;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package org.example.languagecommunication.textspeech;
+
+import org.example.languagecommunication.config.AwsThrottling;
+import org.example.languagecommunication.config.TokenBucket;
+import org.example.languagecommunication.exception.TextSpeechException;
+import org.example.languagecommunication.translation.awstranslation.DTO.DetectedLanguage;
+import org.example.languagecommunication.translation.awstranslation.model.SupportedLanguage;
+import org.example.languagecommunication.translation.awstranslation.service.AwsTranslationService;
+import org.example.languagecommunication.translation.awstranslation.service.LocalLanguageDetector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Synthesizes flashcard audio into the {@link SpeechCache} in the background, so a study
+ * session plays it from disk instead of waiting on Polly for every card.
+ * <p>
+ * Flashcards carry no language. When the local detector is confident about a side, it is
+ * only queued if the language has a Polly voice and the audio is not cached yet. Sides
+ * too short for the local detector, which most flashcards are, are queued undetected and
+ * the worker asks {@link AwsTranslationService#detectLanguage} first, which answers from
+ * the detection cache or Comprehend. Texts already queued are skipped. Every user has a queue of their own and workers take one job per
+ * user in turn, so a large imported deck does not hold back the cards of other users. At
+ * most {@code workers} jobs run at once.
+ * <p>
+ * Interactive speech shares the Polly rate limit, so pre-synthesis is paced by a token
+ * bucket of its own with the much smaller {@code rate}, which leaves the rest of the
+ * Polly rate to users waiting for audio. When Polly or the client-side rate limit
+ * throttles, that rate is halved and every worker pauses, starting at
+ * {@code throttle-pause} and doubling up to {@code max-throttle-pause} while throttling
+ * goes on. The throttled job is retried first.
+ */
+@Component
+public class SpeechPresynthesizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpeechPresynthesizer.class);
+    // a worker waits for its token however long that takes
+    private static final Duration MAX_TOKEN_WAIT = Duration.ofNanos(Long.MAX_VALUE);
+    // prefix of the keys of jobs whose language is not known yet
+    private static final String UNDETECTED = "undetected:";
+
+    private final TextSpeechService textSpeechService;
+    private final SpeechCache speechCache;
+    private final LocalLanguageDetector localLanguageDetector;
+    private final AwsTranslationService awsTranslationService;
+    private final ExecutorService translationExecutor;
+    private final boolean enabled;
+    private final int workers;
+    private final TokenBucket rate;
+    private final int maxQueued;
+    private final Duration throttlePause;
+    private final Duration maxThrottlePause;
+
+    // workers run on virtual threads, which a monitor wait would pin to their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition resumed = lock.newCondition();
+    private final Map<Long, ArrayDeque<Job>> queues = new HashMap<>();
+    // users with queued jobs, a worker serves the first one and puts them back at the end
+    private final ArrayDeque<Long> turns = new ArrayDeque<>();
+    // keys of queued and running jobs
+    private final Set<String> pending = new HashSet<>();
+    private int queued;
+    private int activeWorkers;
+    private Duration pause;
+    private long pausedUntil = System.nanoTime();
+
+    public SpeechPresynthesizer(TextSpeechService textSpeechService,
+                                SpeechCache speechCache,
+                                LocalLanguageDetector localLanguageDetector,
+                                AwsTranslationService awsTranslationService,
+                                @Qualifier("translationExecutor") ExecutorService translationExecutor,
+                                @Value("${speech.presynthesis.enabled:true}") boolean enabled,
+                                @Value("${speech.presynthesis.workers:2}") int workers,
+                                @Value("${speech.presynthesis.rate:2}") double rate,
+                                @Value("${speech.presynthesis.max-queued:10000}") int maxQueued,
+                                @Value("${speech.presynthesis.throttle-pause:5s}") Duration throttlePause,
+                                @Value("${speech.presynthesis.max-throttle-pause:5m}") Duration maxThrottlePause) {
+        this.textSpeechService = textSpeechService;
+        this.speechCache = speechCache;
+        this.localLanguageDetector = localLanguageDetector;
+        this.awsTranslationService = awsTranslationService;
+        this.translationExecutor = translationExecutor;
+        this.enabled = enabled;
+        this.workers = workers;
+        this.rate = new TokenBucket(rate, System::nanoTime);
+        this.maxQueued = maxQueued;
+        this.throttlePause = throttlePause;
+        this.maxThrottlePause = maxThrottlePause;
+    }
+
+    /**
+     * @param langCode null until the worker has detected it
+     * @param key      identity of the job among the queued and running ones
+     */
+    private record Job(Long userId, String text, String langCode, String key) {
+    }
+
+    /**
+     * Queues the texts of the user's flashcards and returns right away.
+     */
+    public void submit(Long userId, Collection<String> texts) {
+        if (!enabled) {
+            return;
+        }
+        for (String text : texts) {
+            job(userId, text).ifPresent(this::enqueue);
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Optional<Job> job(Long userId, String text) {
+        if (text == null || text.isBlank()) {
+            return Optional.empty();
+        }
+        Optional<DetectedLanguage> detected = localLanguageDetector.detect(text);
+        if (detected.isEmpty()) {
+            return Optional.of(new Job(userId, text, null, UNDETECTED + text));
+        }
+        Optional<SupportedLanguage> language = voicedLanguage(detected.get().languageCode());
+        if (language.isEmpty()) {
+            return Optional.empty();
+        }
+        String langCode = language.get().getLanguageCode();
+        try {
+            String key = textSpeechService.speechKey(text, langCode);
+            return speechCache.contains(key) ? Optional.empty() : Optional.of(new Job(userId, text, langCode, key));
+        } catch (TextSpeechException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<SupportedLanguage> voicedLanguage(String languageCode) {
+        try {
+            SupportedLanguage language = SupportedLanguage.fromLanguageCode(languageCode);
+            return "none".equals(language.getVoiceId()) ? Optional.empty() : Optional.of(language);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void enqueue(Job job) {
+        lock.lock();
+        try {
+            if (queued >= maxQueued || !pending.add(job.key())) {
+                return;
+            }
+            ArrayDeque<Job> queue = queues.computeIfAbsent(job.userId(), userId -> new ArrayDeque<>());
+            if (queue.isEmpty()) {
+                turns.addLast(job.userId());
+            }
+            queue.addLast(job);
+            queued++;
+            if (activeWorkers < workers) {
+                activeWorkers++;
+                translationExecutor.execute(this::work);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            // the token is taken before the job, so no job waits while another worker could run it
+            if (!awaitToken()) {
+                return;
+            }
+            Job job = next();
+            if (job == null) {
+                return;
+            }
+            try {
+                synthesize(job);
+                rate.onSuccess();
+                finished(job, false);
+            } catch (RuntimeException e) {
+                if (AwsThrottling.isThrottled(e)) {
+                    rate.onThrottled();
+                    finished(job, true);
+                } else {
+                    logger.warn("Pre-synthesis of {} characters failed: {}", job.text().length(), e.getMessage());
+                    finished(job, false);
+                }
+            }
+        }
+    }
+
+    private void synthesize(Job job) {
+        String langCode = job.langCode();
+        if (langCode == null) {
+            Optional<SupportedLanguage> language = voicedLanguage(awsTranslationService.detectLanguage(job.text()).languageCode());
+            if (language.isEmpty()) {
+                return;
+            }
+            langCode = language.get().getLanguageCode();
+            if (speechCache.contains(textSpeechService.speechKey(job.text(), langCode))) {
+                return;
+            }
+        }
+        textSpeechService.cachedSpeech(job.text(), langCode);
+    }
+
+    private boolean awaitToken() {
+        try {
+            return rate.acquire(MAX_TOKEN_WAIT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lock.lock();
+            try {
+                activeWorkers--;
+            } finally {
+                lock.unlock();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The next job in user order, after any throttling pause. Null ends the worker.
+     */
+    private Job next() {
+        lock.lock();
+        try {
+            long wait;
+            while ((wait = pausedUntil - System.nanoTime()) > 0) {
+                resumed.awaitNanos(wait);
+            }
+
+            Long userId = turns.pollFirst();
+            if (userId == null) {
+                activeWorkers--;
+                return null;
+            }
+            ArrayDeque<Job> queue = queues.get(userId);
+            Job job = queue.pollFirst();
+            if (queue.isEmpty()) {
+                queues.remove(userId);
+            } else {
+                turns.addLast(userId);
+            }
+            queued--;
+            return job;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            activeWorkers--;
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finished(Job job, boolean throttled) {
+        lock.lock();
+        try {
+            if (!throttled) {
+                pending.remove(job.key());
+                pause = null;
+                return;
+            }
+            pause = pause == null ? throttlePause : min(pause.multipliedBy(2), maxThrottlePause);
+            pausedUntil = System.nanoTime() + pause.toNanos();
+            logger.info("Polly is throttling, pausing pre-synthesis for {}", pause);
+
+            ArrayDeque<Job> queue = queues.computeIfAbsent(job.userId(), userId -> new ArrayDeque<>());
+            if (queue.isEmpty()) {
+                turns.addFirst(job.userId());
+            }
+            queue.addFirst(job);
+            queued++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
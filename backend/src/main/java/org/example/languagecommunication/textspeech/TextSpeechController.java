@@ -1,10 +1,20 @@
 package org.example.languagecommunication.textspeech;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.languagecommunication.common.utils.RangeFileSender;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class TextSpeechController {
@@ -16,12 +26,46 @@ public class TextSpeechController {
     }
 
     @GetMapping("/text-to-speech")
-    public ResponseEntity<byte[]> convertTextToSpeech(String text, String langCode) {
-        byte[] audioBytes = textSpeechService.convertTextToSpeech(text, langCode);
+    public void convertTextToSpeech(String text, String langCode,
+                                    HttpServletRequest request, HttpServletResponse response) throws IOException {
+        SpeechCache.CachedSpeech audio = textSpeechService.cachedSpeech(text, langCode);
+        try {
+            sendAudio(audio, request, response);
+        } catch (NoSuchFileException e) {
+            // evicted between the lookup and opening the file, nothing has been sent yet
+            textSpeechService.discardCachedSpeech(audio);
+            sendAudio(textSpeechService.cachedSpeech(text, langCode), request, response);
+        }
+    }
+
+    private static void sendAudio(SpeechCache.CachedSpeech audio,
+                                  HttpServletRequest request, HttpServletResponse response) throws IOException {
+        RangeFileSender.send(audio.file(), audio.size(), MediaType.valueOf("audio/mpeg"), audio.key(), request, response);
+    }
+
+    @GetMapping("/text-to-speech/stream")
+    public ResponseEntity<StreamingResponseBody> streamTextToSpeech(String text, String langCode) {
+        // no content length, the audio is sent with chunked transfer encoding as Polly produces it
         return ResponseEntity
                 .ok()
                 .contentType(MediaType.valueOf("audio/mpeg"))
-                .body(audioBytes);
+                .body(textSpeechService.streamTextToSpeech(text, langCode));
+    }
+
+    @PostMapping("/text-to-speech/long")
+    public ResponseEntity<StreamingResponseBody> streamLongTextToSpeech(@RequestBody LongTextSpeechRequest request) {
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.valueOf("audio/mpeg"))
+                .body(textSpeechService.streamLongTextToSpeech(request.text(), request.langCode()));
+    }
 
+    @GetMapping("/text-to-speech/async")
+    public CompletableFuture<ResponseEntity<byte[]>> convertTextToSpeechAsync(String text, String langCode) {
+        return textSpeechService.convertTextToSpeechAsync(text, langCode)
+                .thenApply(audioBytes -> ResponseEntity
+                        .ok()
+                        .contentType(MediaType.valueOf("audio/mpeg"))
+                        .body(audioBytes));
     }
 }
@@ -1,65 +1,358 @@
 package org.example.languagecommunication.textspeech;
 
+import org.example.languagecommunication.common.utils.BufferPool;
+import org.example.languagecommunication.common.utils.SingleFlight;
+import org.example.languagecommunication.config.AwsThrottling;
 import org.example.languagecommunication.exception.TextSpeechException;
 import org.example.languagecommunication.translation.awstranslation.model.SupportedLanguage;
+import org.example.languagecommunication.translation.awstranslation.service.TextSegmenter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.polly.PollyAsyncClient;
 import software.amazon.awssdk.services.polly.PollyClient;
 import software.amazon.awssdk.services.polly.model.OutputFormat;
 import software.amazon.awssdk.services.polly.model.SynthesizeSpeechRequest;
 import software.amazon.awssdk.services.polly.model.SynthesizeSpeechResponse;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class TextSpeechService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TextSpeechService.class);
+
+    // Polly's limit for the text of one request
+    private static final int MAX_REQUEST_CHARS = 3000;
+
     private final PollyClient pollyClient;
+    private final PollyAsyncClient pollyAsyncClient;
+    // identical concurrent syntheses share one Polly call, the audio bytes are shared read-only
+    private final SingleFlight<SpeechKey, byte[]> speechFlights = new SingleFlight<>();
+    // misses of the disk cache for the same audio write it once
+    private final SingleFlight<String, SpeechCache.CachedSpeech> cacheFlights = new SingleFlight<>();
+    private final SpeechCache speechCache;
+    private final BufferPool bufferPool;
+    private final ExecutorService translationExecutor;
+    private final int maxLongTextChars;
+    private final int firstSegmentBytes;
+    private final int maxSegmentBytes;
+    private final int maxConcurrency;
+    // Polly calls of long-text segments across all requests
+    private final Semaphore segmentPermits;
+    private final int maxSegmentAttempts;
+    private final Duration segmentRetryBackoff;
 
-    public TextSpeechService(PollyClient pollyClient) {
+    public TextSpeechService(PollyClient pollyClient, PollyAsyncClient pollyAsyncClient, SpeechCache speechCache,
+                             @Qualifier("translationExecutor") ExecutorService translationExecutor,
+                             @Value("${speech.stream.buffer-bytes:16384}") int bufferBytes,
+                             @Value("${speech.stream.pooled-buffers:64}") int pooledBuffers,
+                             @Value("${speech.long.max-chars:100000}") int maxLongTextChars,
+                             @Value("${speech.long.first-segment-bytes:200}") int firstSegmentBytes,
+                             @Value("${speech.long.max-segment-bytes:2000}") int maxSegmentBytes,
+                             @Value("${speech.long.max-concurrency:4}") int maxConcurrency,
+                             @Value("${speech.long.max-segments-in-flight:16}") int maxSegmentsInFlight,
+                             @Value("${speech.long.max-attempts:4}") int maxSegmentAttempts,
+                             @Value("${speech.long.retry-backoff:500ms}") Duration segmentRetryBackoff) {
         this.pollyClient = pollyClient;
+        this.pollyAsyncClient = pollyAsyncClient;
+        this.speechCache = speechCache;
+        this.translationExecutor = translationExecutor;
+        this.bufferPool = new BufferPool(bufferBytes, pooledBuffers);
+        this.maxLongTextChars = maxLongTextChars;
+        this.firstSegmentBytes = firstSegmentBytes;
+        // segments are measured in UTF-8 bytes, which are never fewer than characters
+        this.maxSegmentBytes = Math.min(maxSegmentBytes, MAX_REQUEST_CHARS);
+        this.maxConcurrency = maxConcurrency;
+        this.segmentPermits = new Semaphore(maxSegmentsInFlight);
+        this.maxSegmentAttempts = maxSegmentAttempts;
+        this.segmentRetryBackoff = segmentRetryBackoff;
     }
 
-    public byte[] convertTextToSpeech(String text, String langCode) {
+    /**
+     * Audio for the text from the disk cache, synthesized and stored first on a miss.
+     * Concurrent misses for the same audio share one Polly call.
+     */
+    public SpeechCache.CachedSpeech cachedSpeech(String text, String langCode) {
         try {
-            if(text == null || text.isEmpty()) {
-                throw new TextSpeechException("Text cannot be null or empty", HttpStatus.BAD_REQUEST);
+            SynthesizeSpeechRequest request = buildRequest(text, langCode);
+            String key = key(request);
+
+            return speechCache.get(key).orElseGet(() -> cacheFlights.execute(key,
+                    () -> speechCache.get(key).orElseGet(() -> synthesizeToCache(key, request))));
+
+        } catch (IllegalArgumentException e) {
+            throw new TextSpeechException("Unsupported language code: " + langCode, HttpStatus.BAD_REQUEST);
+        } catch (TextSpeechException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Unexpected error converting text to speech: " + e.getMessage(), e);
+        }
+
+    }
+
+    /**
+     * Forgets cached audio whose file turned out to be gone, the next {@link #cachedSpeech}
+     * synthesizes it again.
+     */
+    public void discardCachedSpeech(SpeechCache.CachedSpeech audio) {
+        speechCache.discard(audio.key());
+    }
+
+    /**
+     * Key of the audio {@link #cachedSpeech} stores for the text.
+     *
+     * @throws TextSpeechException when the text or language cannot be synthesized
+     */
+    public String speechKey(String text, String langCode) {
+        return key(buildRequest(text, langCode));
+    }
+
+    private static String key(SynthesizeSpeechRequest request) {
+        return SpeechCache.key(request.text(), request.voiceIdAsString(), request.engineAsString(), request.outputFormatAsString());
+    }
+
+    /**
+     * Starts the synthesis and returns a body that writes the audio while Polly still
+     * produces it. Polly is called here, so invalid input and Polly errors still become an
+     * error response. Unlike {@link #cachedSpeech} the stream is not shared with
+     * concurrent identical requests.
+     */
+    public StreamingResponseBody streamTextToSpeech(String text, String langCode) {
+        ResponseInputStream<SynthesizeSpeechResponse> audio;
+        try {
+            audio = pollyClient.synthesizeSpeech(buildRequest(text, langCode));
+        } catch (TextSpeechException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Unexpected error converting text to speech: " + e.getMessage(), e);
+        }
+
+        return outputStream -> {
+            try {
+                transfer(audio, outputStream);
+            } catch (IOException | RuntimeException e) {
+                // usually the client went away, drop the rest of the audio instead of draining it
+                audio.abort();
+                throw e;
+            } finally {
+                audio.close();
+            }
+        };
+    }
+
+    /**
+     * Speaks texts longer than one Polly request. The text is split at sentence boundaries,
+     * the first segment is short so playback starts after one small synthesis, and the
+     * following ones grow. Up to {@code max-concurrency} segments are synthesized ahead
+     * while earlier ones are written, so the audio leaves in order and at most that many
+     * segments are held in memory. Polly's MP3 output has no container, the segments
+     * concatenate into one playable stream. All requests together have at most
+     * {@code max-segments-in-flight} segments at Polly, and a throttled segment is tried
+     * up to {@code max-attempts} times with growing pauses.
+     * <p>
+     * The first segment is awaited here, so invalid input and Polly errors up to then still
+     * become an error response. A later failure ends the response early.
+     */
+    public StreamingResponseBody streamLongTextToSpeech(String text, String langCode) {
+        if (text == null || text.isBlank()) {
+            throw new TextSpeechException("Text cannot be null or empty", HttpStatus.BAD_REQUEST);
+        }
+        if (text.length() > maxLongTextChars) {
+            throw new TextSpeechException("Text length exceeds the limit of " + maxLongTextChars + " characters", HttpStatus.BAD_REQUEST);
+        }
+        SupportedLanguage language = language(langCode);
+        Iterator<String> segments = TextSegmenter.splitGrowing(text, Locale.forLanguageTag(language.getLanguageCode()),
+                        firstSegmentBytes, maxSegmentBytes)
+                .stream()
+                .filter(segment -> !segment.isBlank())
+                .iterator();
+
+        Deque<Future<byte[]>> window = new ArrayDeque<>();
+        fill(window, segments, language);
+        try {
+            awaitSegment(window.getFirst());
+        } catch (RuntimeException e) {
+            window.forEach(segment -> segment.cancel(true));
+            if (e instanceof TextSpeechException) {
+                throw e;
+            }
+            throw new RuntimeException("Unexpected error converting text to speech: " + e.getMessage(), e);
+        }
+
+        return outputStream -> {
+            try {
+                while (!window.isEmpty()) {
+                    byte[] audio;
+                    try {
+                        audio = awaitSegment(window.removeFirst());
+                    } catch (RuntimeException e) {
+                        logger.warn("Long text speech in {} ended early, a segment failed: {}", langCode, e.getMessage());
+                        throw e;
+                    }
+                    fill(window, segments, language);
+                    outputStream.write(audio);
+                    outputStream.flush();
+                }
+            } finally {
+                window.forEach(segment -> segment.cancel(true));
             }
+        };
+    }
+
+    private void fill(Deque<Future<byte[]>> window, Iterator<String> segments, SupportedLanguage language) {
+        while (window.size() < maxConcurrency && segments.hasNext()) {
+            SynthesizeSpeechRequest request = request(segments.next(), language);
+            window.addLast(translationExecutor.submit(() -> synthesizeSegment(request)));
+        }
+    }
 
-            if (text.length() > 3000) {
-                throw new TextSpeechException("Text length exceeds the limit of 3000 characters", HttpStatus.BAD_REQUEST);
+    private static byte[] awaitSegment(Future<byte[]> segment) {
+        try {
+            return segment.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for speech synthesis");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
 
-            SupportedLanguage supportedLanguage = SupportedLanguage.fromLanguageCode(langCode);
-            String voiceId = supportedLanguage.getVoiceId();
-            String engine = supportedLanguage.getEngine().trim();
+    /**
+     * Synthesizes a segment under a permit of the service-wide pool. The permit is given
+     * back during the pause before a retry, so other requests go on meanwhile.
+     */
+    private byte[] synthesizeSegment(SynthesizeSpeechRequest request) throws InterruptedException {
+        Duration backoff = segmentRetryBackoff;
+        for (int attempt = 1; ; attempt++) {
+            segmentPermits.acquire();
+            try {
+                return synthesize(request);
+            } catch (RuntimeException e) {
+                if (attempt >= maxSegmentAttempts || !AwsThrottling.isThrottled(e)) {
+                    throw e;
+                }
+            } finally {
+                segmentPermits.release();
+            }
+            // full jitter, so throttled segments of different requests do not come back together
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoff.toMillis() + 1));
+            backoff = backoff.multipliedBy(2);
+        }
+    }
 
-            SynthesizeSpeechRequest request = SynthesizeSpeechRequest.builder()
-                    .text(text)
-                    .voiceId(voiceId)
-                    .outputFormat(OutputFormat.MP3)
-                    .engine(engine)
-                    .build();
+    private byte[] synthesize(SynthesizeSpeechRequest request) {
+        try (ResponseInputStream<SynthesizeSpeechResponse> response = pollyClient.synthesizeSpeech(request)) {
+            return response.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-            try (ResponseInputStream<SynthesizeSpeechResponse> response = pollyClient.synthesizeSpeech(request)) {
-                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    public CompletableFuture<byte[]> convertTextToSpeechAsync(String text, String langCode) {
+        SynthesizeSpeechRequest request;
+        try {
+            request = buildRequest(text, langCode);
+        } catch (TextSpeechException e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
-                byte[] buffer = new byte[2 * 1024];
-                int read;
-                while ((read = response.read(buffer)) != -1) {
-                    outputStream.write(buffer, 0, read);
+        return speechFlights.executeAsync(new SpeechKey(text, langCode), () -> {
+            CompletableFuture<ResponseBytes<SynthesizeSpeechResponse>> call =
+                    pollyAsyncClient.synthesizeSpeech(request, AsyncResponseTransformer.<SynthesizeSpeechResponse>toBytes());
+            CompletableFuture<byte[]> audio = call.thenApply(ResponseBytes::asByteArray);
+            // once every caller has left, the Polly request is aborted too
+            audio.whenComplete((result, error) -> {
+                if (error instanceof CancellationException) {
+                    call.cancel(true);
                 }
+            });
+            return audio;
+        });
+    }
 
-                return outputStream.toByteArray();
+    private SpeechCache.CachedSpeech synthesizeToCache(String key, SynthesizeSpeechRequest request) {
+        try (ResponseInputStream<SynthesizeSpeechResponse> response = pollyClient.synthesizeSpeech(request)) {
+            return speechCache.put(key, response);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Copies through a pooled buffer and sends every read on right away, the servlet
+     * response then goes out in chunks as the audio arrives.
+     */
+    private void transfer(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = bufferPool.acquire();
+        try {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                out.flush();
             }
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    private SynthesizeSpeechRequest buildRequest(String text, String langCode) {
+        if(text == null || text.isEmpty()) {
+            throw new TextSpeechException("Text cannot be null or empty", HttpStatus.BAD_REQUEST);
+        }
+
+        if (text.length() > MAX_REQUEST_CHARS) {
+            throw new TextSpeechException("Text length exceeds the limit of " + MAX_REQUEST_CHARS + " characters", HttpStatus.BAD_REQUEST);
+        }
+
+        return request(text, language(langCode));
+    }
 
+    private static SupportedLanguage language(String langCode) {
+        try {
+            return SupportedLanguage.fromLanguageCode(langCode);
         } catch (IllegalArgumentException e) {
             throw new TextSpeechException("Unsupported language code: " + langCode, HttpStatus.BAD_REQUEST);
-        } catch (TextSpeechException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new RuntimeException("Unexpected error converting text to speech: " + e.getMessage(), e);
         }
+    }
+
+    private static SynthesizeSpeechRequest request(String text, SupportedLanguage supportedLanguage) {
+        String voiceId = supportedLanguage.getVoiceId();
+        String engine = supportedLanguage.getEngine().trim();
+
+        return SynthesizeSpeechRequest.builder()
+                .text(text)
+                .voiceId(voiceId)
+                .outputFormat(OutputFormat.MP3)
+                .engine(engine)
+                .build();
+    }
 
+    private record SpeechKey(String text, String langCode) {
     }
 }
@@ -0,0 +1,9 @@
+package org.example.languagecommunication.translation.awstranslation.DTO;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record BatchTranslationRequest(List<String> texts, String sourceLang, List<String> targetLangs) {
+}
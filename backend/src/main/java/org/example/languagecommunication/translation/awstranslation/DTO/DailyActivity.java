@@ -0,0 +1,9 @@
+package org.example.languagecommunication.translation.awstranslation.DTO;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+
+@Builder
+public record DailyActivity(LocalDate date, long total, long successful) {
+}
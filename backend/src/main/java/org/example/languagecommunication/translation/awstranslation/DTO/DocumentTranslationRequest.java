@@ -0,0 +1,10 @@
+package org.example.languagecommunication.translation.awstranslation.DTO;
+
+import lombok.Builder;
+
+@Builder
+public record DocumentTranslationRequest(
+        String text,
+        String sourceLang,
+        String targetLang
+) {}
@@ -0,0 +1,15 @@
+package org.example.languagecommunication.translation.awstranslation.DTO;
+
+import lombok.Builder;
+
+@Builder
+public record LanguageDetectionResult(int index, String languageCode, Float confidenceScore, boolean success, String errorMessage) {
+
+    public static LanguageDetectionResult detected(int index, DetectedLanguage language) {
+        return new LanguageDetectionResult(index, language.languageCode(), language.confidenceScore(), true, null);
+    }
+
+    public static LanguageDetectionResult failed(int index, String errorMessage) {
+        return new LanguageDetectionResult(index, null, null, false, errorMessage);
+    }
+}
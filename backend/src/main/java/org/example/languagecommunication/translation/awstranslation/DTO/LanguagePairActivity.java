@@ -0,0 +1,7 @@
+package org.example.languagecommunication.translation.awstranslation.DTO;
+
+import lombok.Builder;
+
+@Builder
+public record LanguagePairActivity(String sourceLanguage, String targetLanguage, long total, long successful) {
+}
@@ -0,0 +1,9 @@
+package org.example.languagecommunication.translation.awstranslation.DTO;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record MultiTranslationResponse(String sourceText, String sourceLanguage, List<TranslationDTO> translations, boolean complete) {
+}
@@ -1,6 +1,7 @@
 package org.example.languagecommunication.translation.awstranslation.DTO;
 
 import lombok.Builder;
+import org.example.languagecommunication.translation.awstranslation.model.MatchType;
 
 import java.time.LocalDateTime;
 
@@ -13,5 +14,12 @@ public record TranslationDTO(
         String targetLanguage,
         boolean success,
         String errorMessage,
-        LocalDateTime timestamp
-) {}
\ No newline at end of file
+        LocalDateTime timestamp,
+        MatchType matchType,
+        DetectedLanguage detectedLanguage
+) {
+    public TranslationDTO(Long id, String sourceText, String translatedText, String sourceLanguage, String targetLanguage,
+                          boolean success, String errorMessage, LocalDateTime timestamp) {
+        this(id, sourceText, translatedText, sourceLanguage, targetLanguage, success, errorMessage, timestamp, null, null);
+    }
+}
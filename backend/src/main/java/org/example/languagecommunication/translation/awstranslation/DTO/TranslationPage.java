@@ -0,0 +1,11 @@
+package org.example.languagecommunication.translation.awstranslation.DTO;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record TranslationPage(
+        List<TranslationDTO> items,
+        String nextCursor
+) {}
@@ -0,0 +1,9 @@
+package org.example.languagecommunication.translation.awstranslation.DTO;
+
+import lombok.Builder;
+
+@Builder
+public record TranslationSearchHit(
+        TranslationDTO translation,
+        double rank
+) {}
@@ -0,0 +1,13 @@
+package org.example.languagecommunication.translation.awstranslation.DTO;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record TranslationSearchResult(
+        List<TranslationSearchHit> hits,
+        int page,
+        int size,
+        boolean hasMore
+) {}
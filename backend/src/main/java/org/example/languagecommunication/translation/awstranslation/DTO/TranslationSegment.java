@@ -0,0 +1,4 @@
+package org.example.languagecommunication.translation.awstranslation.DTO;
+
+public record TranslationSegment(int index, String sourceText, String translatedText) {
+}
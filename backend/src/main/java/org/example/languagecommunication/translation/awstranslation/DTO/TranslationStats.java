@@ -0,0 +1,17 @@
+package org.example.languagecommunication.translation.awstranslation.DTO;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Builder
+public record TranslationStats(
+        LocalDate from,
+        LocalDate to,
+        long total,
+        long successful,
+        double successRate,
+        List<DailyActivity> days,
+        List<LanguagePairActivity> topPairs
+) {}
@@ -1,27 +1,69 @@
 package org.example.languagecommunication.translation.awstranslation.controller;
 
+import org.example.languagecommunication.translation.awstranslation.DTO.BatchDetectionRequest;
+import org.example.languagecommunication.translation.awstranslation.DTO.BatchTranslationRequest;
 import org.example.languagecommunication.translation.awstranslation.DTO.DetectedLanguage;
-import org.example.languagecommunication.translation.awstranslation.DTO.LanguageDTO;
+import org.example.languagecommunication.translation.awstranslation.DTO.DocumentTranslationRequest;
+import org.example.languagecommunication.translation.awstranslation.DTO.LanguageDetectionResult;
+import org.example.languagecommunication.translation.awstranslation.DTO.MultiTranslationRequest;
+import org.example.languagecommunication.translation.awstranslation.DTO.MultiTranslationResponse;
 import org.example.languagecommunication.translation.awstranslation.DTO.TranslationDTO;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationHistoryQuery;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationPage;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationSearchResult;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationStats;
+import org.example.languagecommunication.translation.awstranslation.model.ExportFormat;
 import org.example.languagecommunication.translation.awstranslation.service.AwsTranslationService;
+import org.example.languagecommunication.translation.awstranslation.service.BatchLanguageDetectionService;
+import org.example.languagecommunication.translation.awstranslation.service.BatchTranslationService;
+import org.example.languagecommunication.translation.awstranslation.service.SupportedLanguageCatalog;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationExportService;
 import org.example.languagecommunication.translation.awstranslation.service.TranslationHistoryService;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationSearchService;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class AwsTranslationController {
 
     private final AwsTranslationService awsTranslationService;
     private final TranslationHistoryService translationHistoryService;
+    private final BatchTranslationService batchTranslationService;
+    private final TranslationExportService translationExportService;
+    private final TranslationSearchService translationSearchService;
+    private final BatchLanguageDetectionService batchLanguageDetectionService;
+    private final SupportedLanguageCatalog supportedLanguageCatalog;
+    private final TranslationStatsService translationStatsService;
 
     @Autowired
     public AwsTranslationController(AwsTranslationService awsTranslationService,
-                                    TranslationHistoryService translationHistoryService) {
+                                    TranslationHistoryService translationHistoryService,
+                                    BatchTranslationService batchTranslationService,
+                                    TranslationExportService translationExportService,
+                                    TranslationSearchService translationSearchService,
+                                    BatchLanguageDetectionService batchLanguageDetectionService,
+                                    SupportedLanguageCatalog supportedLanguageCatalog,
+                                    TranslationStatsService translationStatsService) {
         this.awsTranslationService = awsTranslationService;
         this.translationHistoryService = translationHistoryService;
+        this.batchTranslationService = batchTranslationService;
+        this.translationExportService = translationExportService;
+        this.translationSearchService = translationSearchService;
+        this.batchLanguageDetectionService = batchLanguageDetectionService;
+        this.supportedLanguageCatalog = supportedLanguageCatalog;
+        this.translationStatsService = translationStatsService;
     }
 
     @GetMapping("/translate")
@@ -32,16 +74,89 @@ public class AwsTranslationController {
         return ResponseEntity.ok(translationDTO);
     }
 
+    @GetMapping("/translate/async")
+    public CompletableFuture<ResponseEntity<TranslationDTO>> translateTextAsync(@RequestParam String text,
+                                                                            @RequestParam String sourceLang,
+                                                                            @RequestParam String targetLang) {
+        return awsTranslationService.translateTextAsync(text, sourceLang, targetLang)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/translate/batch")
+    public ResponseEntity<List<TranslationDTO>> translateBatch(@RequestBody BatchTranslationRequest request) {
+        List<TranslationDTO> translations = batchTranslationService.translateBatch(request);
+        return ResponseEntity.ok(translations);
+    }
+
+    @PostMapping("/translate/multi")
+    public ResponseEntity<MultiTranslationResponse> translateToTargets(@RequestBody MultiTranslationRequest request) {
+        MultiTranslationResponse response = batchTranslationService.translateToTargets(request);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/translate/document")
+    public ResponseEntity<TranslationDTO> translateDocument(@RequestBody DocumentTranslationRequest request) {
+        TranslationDTO translationDTO = batchTranslationService.translateDocument(request);
+        return ResponseEntity.ok(translationDTO);
+    }
+
+    @PostMapping(value = "/translate/document/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter translateDocumentStream(@RequestBody DocumentTranslationRequest request) {
+        SseEmitter emitter = new SseEmitter();
+        batchTranslationService.translateDocumentStream(request, emitter);
+        return emitter;
+    }
+
     @GetMapping("/detectLanguage")
     public ResponseEntity<DetectedLanguage> detectLanguage(@RequestParam String text) {
         DetectedLanguage detectedLanguage = awsTranslationService.detectLanguage(text);
         return ResponseEntity.ok(detectedLanguage);
     }
 
+    @PostMapping("/detectLanguage/batch")
+    public ResponseEntity<List<LanguageDetectionResult>> detectLanguages(@RequestBody BatchDetectionRequest request) {
+        List<LanguageDetectionResult> results = batchLanguageDetectionService.detectLanguages(request);
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/supportedLanguages")
-    public ResponseEntity<List<LanguageDTO>> getSupportedLanguages() {
-        List<LanguageDTO> supportedLanguages = awsTranslationService.getSupportedLanguages();
-        return ResponseEntity.ok(supportedLanguages);
+    public ResponseEntity<byte[]> getSupportedLanguages() {
+        return supportedLanguageCatalog.getResponse().toResponseEntity();
+    }
+
+    @GetMapping("/translations")
+    public ResponseEntity<TranslationPage> getTranslationPage(TranslationHistoryQuery query) {
+        TranslationPage page = translationHistoryService.getTranslationPage(query);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/translations/search")
+    public ResponseEntity<TranslationSearchResult> searchTranslations(@RequestParam String q,
+                                                                      @RequestParam(required = false) String lang,
+                                                                      @RequestParam(defaultValue = "0") int page,
+                                                                      @RequestParam(defaultValue = "20") int size) {
+        TranslationSearchResult result = translationSearchService.search(q, lang, page, size);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/translations/stats")
+    public ResponseEntity<TranslationStats> getTranslationStats(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                @RequestParam(required = false) Integer top) {
+        TranslationStats stats = translationStatsService.getStats(from, to, top);
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/translations/export")
+    public ResponseEntity<StreamingResponseBody> exportTranslations(@RequestParam(defaultValue = "ndjson") String format,
+                                                                    @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        String filename = "translations." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(translationExportService.export(exportFormat, gzip));
     }
 
     @GetMapping("/translations/all")
@@ -0,0 +1,34 @@
+package org.example.languagecommunication.translation.awstranslation.model;
+
+import org.example.languagecommunication.exception.TranslationException;
+import org.springframework.http.HttpStatus;
+
+import java.util.Arrays;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat fromName(String name) {
+        return Arrays.stream(values())
+                .filter(format -> format.name().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new TranslationException("Unsupported export format: " + name, HttpStatus.BAD_REQUEST));
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.languagecommunication.translation.awstranslation.model;
+
+/**
+ * Where the text of a translation came from.
+ */
+public enum MatchType {
+    /** Same source text was translated before, served from the cache or translation memory. */
+    EXACT,
+    /** Translation of a very similar earlier source text from the user's history. */
+    FUZZY,
+    /** Fresh machine translation from AWS Translate. */
+    MACHINE
+}
@@ -2,6 +2,12 @@ package org.example.languagecommunication.translation.awstranslation.model;
 
 import lombok.Getter;
 
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Getter
 public enum SupportedLanguage {
    ALBANIAN("sq","none", "none", "none", "ALBAŃSKI"),
@@ -78,6 +84,9 @@ public enum SupportedLanguage {
     VIETNAMESE("vi","none", "none", "vi-VN", "WIETNAMSKI"),
     WELSH("cy", "Gwyneth", "standard", "none", "WALISKI");
 
+    private static final Map<String, SupportedLanguage> BY_LANGUAGE_CODE = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(language -> language.languageCode.toLowerCase(Locale.ROOT), Function.identity()));
+
     private final String languageCode;
     private final String voiceId;
     private final String engine;
@@ -93,12 +102,11 @@ public enum SupportedLanguage {
     }
 
     public static SupportedLanguage fromLanguageCode(String languageCode) {
-        for (SupportedLanguage lang : SupportedLanguage.values()) {
-            if (lang.getLanguageCode().equalsIgnoreCase(languageCode)) {
-                return lang;
-            }
+        SupportedLanguage language = languageCode != null ? BY_LANGUAGE_CODE.get(languageCode.toLowerCase(Locale.ROOT)) : null;
+        if (language == null) {
+            throw new IllegalArgumentException("Unsupported language code: " + languageCode);
         }
-        throw new IllegalArgumentException("Unsupported language code: " + languageCode);
+        return language;
     }
 }
 
@@ -3,11 +3,14 @@ package org.example.languagecommunication.translation.awstranslation.model;
 import jakarta.persistence.*;
 import lombok.*;
 import org.example.languagecommunication.auth.model.User;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "translations")
+@Table(name = "translations", indexes = {
+        @Index(name = "idx_translations_user_timestamp_id", columnList = "user_id, timestamp, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,20 +19,27 @@ import java.time.LocalDateTime;
 public class Translation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "translations_seq")
+    @SequenceGenerator(name = "translations_seq", sequenceName = "translations_seq", allocationSize = 50)
     private Long id;
 
-    @Column(columnDefinition = "TEXT", nullable = false)
-    private String sourceText;
+    // The reference columns stay nullable for the schema update of existing tables,
+    // TranslationTextRepository makes them NOT NULL once the inline columns are migrated.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "source_text_id")
+    private TranslationText sourceText;
 
-    @Column(columnDefinition = "TEXT")
-    private String translatedText;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "translated_text_id")
+    private TranslationText translatedText;
 
-    @Column(nullable = false, length = 10)
-    private String sourceLanguage;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "source_language_id")
+    private TranslationLanguage sourceLanguage;
 
-    @Column(nullable = false, length = 10)
-    private String targetLanguage;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "target_language_id")
+    private TranslationLanguage targetLanguage;
 
     @Column(nullable = false)
     private LocalDateTime timestamp;
@@ -40,6 +50,16 @@ public class Translation {
     @Column(columnDefinition = "TEXT")
     private String errorMessage;
 
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private MatchType matchType;
+
+    // identical translations repeated by the user within a short window share one row
+    @ColumnDefault("1")
+    @Column(nullable = false)
+    @Builder.Default
+    private int repeatCount = 1;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
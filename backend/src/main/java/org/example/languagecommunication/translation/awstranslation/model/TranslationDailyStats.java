@@ -0,0 +1,50 @@
+package org.example.languagecommunication.translation.awstranslation.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Number of translations one user made on one day for one language pair, split by
+ * outcome. Maintained by the history write path, read by the activity statistics.
+ */
+@Entity
+@Table(name = "translation_daily_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TranslationDailyStats {
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(nullable = false)
+    private long translationCount;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Column(nullable = false)
+        private Long userId;
+
+        @Column(nullable = false)
+        private LocalDate statDate;
+
+        @Column(nullable = false, length = 10)
+        private String sourceLanguage;
+
+        @Column(nullable = false, length = 10)
+        private String targetLanguage;
+
+        @Column(nullable = false)
+        private boolean success;
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.languagecommunication.translation.awstranslation.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Language code referenced by history rows through a small id instead of repeating
+ * the code on every row. Rows are only ever added, so an id never changes its code.
+ */
+@Entity
+@Table(name = "translation_languages", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_translation_languages_code", columnNames = "code")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TranslationLanguage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Short id;
+
+    @Column(nullable = false, length = 10)
+    private String code;
+
+    public TranslationLanguage(String code) {
+        this.code = code;
+    }
+
+    public static TranslationLanguage of(String code) {
+        return code != null ? new TranslationLanguage(code) : null;
+    }
+
+    public static String codeOf(TranslationLanguage language) {
+        return language != null ? language.getCode() : null;
+    }
+}
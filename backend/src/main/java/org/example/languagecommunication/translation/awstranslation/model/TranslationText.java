@@ -0,0 +1,53 @@
+package org.example.languagecommunication.translation.awstranslation.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A distinct source or translated text, stored once and referenced by every history
+ * row that uses it. Texts are addressed by the SHA-256 of their UTF-8 content.
+ */
+@Entity
+@Table(name = "translation_texts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_translation_texts_content_hash", columnNames = "content_hash")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class TranslationText {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 32)
+    private byte[] contentHash;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String content;
+
+    public TranslationText(String content) {
+        this.content = content;
+        this.contentHash = hash(content);
+    }
+
+    public static TranslationText of(String content) {
+        return content != null ? new TranslationText(content) : null;
+    }
+
+    public static String contentOf(TranslationText text) {
+        return text != null ? text.getContent() : null;
+    }
+
+    public static byte[] hash(String content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.languagecommunication.translation.awstranslation.repository;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Lookups of earlier successful translations for the translation memory. Rows that were
+ * themselves served by a fuzzy match are skipped, so approximations never build on each other.
+ * On PostgreSQL exact matches compare a hash of the NFC-normalized source text, with runs
+ * of spaces and tabs collapsed and line breaks kept, through an expression index and
+ * fuzzy candidates come from the pg_trgm index.
+ * Both indexes are on the deduplicated texts, history rows are found by their text id.
+ * Other databases compare the text as is and have no fuzzy candidates.
+ */
+@Repository
+public class TranslationMemoryRepository {
+
+    private static final List<String> POSTGRES_SCHEMA = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            """
+            CREATE OR REPLACE FUNCTION translation_source_key(source text) RETURNS text
+            LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+                SELECT md5(regexp_replace(btrim(normalize(source, NFC), E' \\t\\n\\r'), '[ \\t]+', ' ', 'g'))
+            $$""",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_translation_texts_source_key " +
+                    "ON translation_texts (translation_source_key(content))",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_translation_texts_content_trgm " +
+                    "ON translation_texts USING GIN (content gin_trgm_ops)"
+    );
+
+    private static final Map<String, String> POSTGRES_INDEXES = Map.of(
+            "idx_translations_memory_lookup",
+            "(source_text_id, source_language_id, target_language_id) " +
+                    "WHERE success AND match_type IS DISTINCT FROM 'FUZZY'"
+    );
+
+    private static final String MEMORY_ROWS = """
+            FROM translations t
+            JOIN translation_texts st ON st.id = t.source_text_id
+            JOIN translation_texts tt ON tt.id = t.translated_text_id
+            JOIN translation_languages sl ON sl.id = t.source_language_id
+            JOIN translation_languages tl ON tl.id = t.target_language_id
+            """;
+
+    // The WHERE clauses must imply the predicate of idx_translations_memory_lookup.
+    private static final String POSTGRES_EXACT_SQL = """
+            SELECT tt.content
+            %s
+            WHERE translation_source_key(st.content) = translation_source_key(:text)
+              AND sl.code = :sourceLang AND tl.code = :targetLang
+              AND t.success AND t.match_type IS DISTINCT FROM 'FUZZY'
+            ORDER BY t.id DESC
+            LIMIT 1
+            """.formatted(MEMORY_ROWS);
+
+    private static final String FALLBACK_EXACT_SQL = """
+            SELECT tt.content
+            %s
+            WHERE st.content = :text
+              AND sl.code = :sourceLang AND tl.code = :targetLang
+              AND t.success AND t.match_type IS DISTINCT FROM 'FUZZY'
+            ORDER BY t.id DESC
+            LIMIT 1
+            """.formatted(MEMORY_ROWS);
+
+    private static final String POSTGRES_FUZZY_SQL = """
+            SELECT st.content AS source_text, tt.content AS translated_text
+            %s
+            WHERE t.user_id = :userId
+              AND sl.code = :sourceLang AND tl.code = :targetLang
+              AND t.success AND t.match_type IS DISTINCT FROM 'FUZZY'
+              AND char_length(st.content) BETWEEN :minLength AND :maxLength
+              AND st.content %% :text
+            ORDER BY similarity(st.content, :text) DESC, t.id DESC
+            LIMIT :limit
+            """.formatted(MEMORY_ROWS);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TranslationPartitionRepository translationPartitionRepository;
+    private final boolean postgres;
+
+    public TranslationMemoryRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                                       TranslationPartitionRepository translationPartitionRepository,
+                                       DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.translationPartitionRepository = translationPartitionRepository;
+        this.postgres = "PostgreSQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createMemorySchema() {
+        if (!postgres) {
+            return;
+        }
+        POSTGRES_SCHEMA.forEach(statement -> jdbcTemplate.getJdbcTemplate().execute(statement));
+        POSTGRES_INDEXES.forEach(translationPartitionRepository::createIndex);
+    }
+
+    /**
+     * Newest translation of the same source text in the same language pair, by any user.
+     */
+    public Optional<String> findExact(String text, String sourceLang, String targetLang) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("text", text)
+                .addValue("sourceLang", sourceLang)
+                .addValue("targetLang", targetLang);
+
+        return jdbcTemplate.queryForList(postgres ? POSTGRES_EXACT_SQL : FALLBACK_EXACT_SQL, params, String.class)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Up to {@code limit} of the user's translations whose source text shares enough
+     * trigrams with the text, most similar first.
+     */
+    public List<Candidate> findFuzzyCandidates(Long userId, String text, String sourceLang, String targetLang,
+                                               int minLength, int maxLength, int limit) {
+        if (!postgres) {
+            return List.of();
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("text", text)
+                .addValue("sourceLang", sourceLang)
+                .addValue("targetLang", targetLang)
+                .addValue("minLength", minLength)
+                .addValue("maxLength", maxLength)
+                .addValue("limit", limit);
+
+        return jdbcTemplate.query(POSTGRES_FUZZY_SQL, params,
+                (rs, rowNum) -> new Candidate(rs.getString("source_text"), rs.getString("translated_text")));
+    }
+
+    public record Candidate(String sourceText, String translatedText) {
+    }
+}
@@ -0,0 +1,176 @@
+package org.example.languagecommunication.translation.awstranslation.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DDL for the PostgreSQL range partitioning of the translations table by timestamp.
+ * Partitions cover one calendar month each and are named translations_pYYYY_MM.
+ * A table created before partitioning becomes the translations_legacy partition,
+ * which ends where its newest row's month ends. Other databases keep a plain table.
+ */
+@Repository
+public class TranslationPartitionRepository {
+
+    public static final String TABLE = "translations";
+    public static final String LEGACY_PARTITION = "translations_legacy";
+    public static final String DEFAULT_PARTITION = "translations_default";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'p'yyyy_MM");
+    private static final Pattern BOUND = Pattern.compile("FROM \\((.+?)\\) TO \\((.+?)\\)");
+    private static final int MAX_IDENTIFIER_LENGTH = 63;
+
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname, pg_get_expr(c.relpartbound, c.oid)
+            FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'translations'::regclass
+            ORDER BY c.relname
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final boolean postgres;
+
+    public TranslationPartitionRepository(JdbcTemplate jdbcTemplate,
+                                          PlatformTransactionManager transactionManager,
+                                          DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.postgres = "PostgreSQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+    }
+
+    public boolean isPostgres() {
+        return postgres;
+    }
+
+    public boolean isPartitioned() {
+        return postgres && "p".equals(jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = 'translations'::regclass", String.class));
+    }
+
+    /**
+     * Turns the plain translations table into a partitioned one in a single transaction.
+     * The old table keeps its rows and indexes and is attached as the legacy partition.
+     * Indexes of the old table are renamed with a _legacy suffix, so that
+     * {@link #createIndex} finds and attaches them instead of building them again.
+     */
+    public void convertToPartitioned() {
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE translations IN ACCESS EXCLUSIVE MODE");
+
+            LocalDateTime newest = jdbcTemplate.queryForObject("SELECT MAX(timestamp) FROM translations", LocalDateTime.class);
+            YearMonth legacyEnd = (newest != null ? YearMonth.from(newest) : YearMonth.now()).plusMonths(1);
+            List<String> foreignKeys = jdbcTemplate.queryForList(
+                    "SELECT conname || ' ' || pg_get_constraintdef(oid) FROM pg_constraint " +
+                            "WHERE conrelid = 'translations'::regclass AND contype = 'f'", String.class);
+            List<String> indexes = jdbcTemplate.queryForList(
+                    "SELECT indexrelid::regclass::text FROM pg_index WHERE indrelid = 'translations'::regclass", String.class);
+
+            jdbcTemplate.execute("ALTER TABLE translations RENAME TO " + LEGACY_PARTITION);
+            for (String index : indexes) {
+                jdbcTemplate.execute("ALTER INDEX " + index + " RENAME TO " + partitionIndexName(index, LEGACY_PARTITION));
+            }
+            // partitions cannot have identity columns, ids come from translations_seq anyway
+            jdbcTemplate.execute("ALTER TABLE " + LEGACY_PARTITION + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+
+            jdbcTemplate.execute("CREATE TABLE translations (LIKE " + LEGACY_PARTITION + " INCLUDING DEFAULTS) PARTITION BY RANGE (timestamp)");
+            jdbcTemplate.execute("ALTER TABLE translations ADD CONSTRAINT translations_pkey PRIMARY KEY (id, timestamp)");
+            for (String foreignKey : foreignKeys) {
+                jdbcTemplate.execute("ALTER TABLE translations ADD CONSTRAINT " + foreignKey);
+            }
+            jdbcTemplate.execute("ALTER TABLE translations ATTACH PARTITION " + LEGACY_PARTITION +
+                    " FOR VALUES FROM (MINVALUE) TO ('" + legacyEnd.atDay(1) + "')");
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF translations DEFAULT");
+        });
+    }
+
+    public List<Partition> findPartitions() {
+        return jdbcTemplate.query(PARTITIONS_SQL, (rs, rowNum) -> Partition.of(rs.getString(1), rs.getString(2)));
+    }
+
+    public void createMonthPartition(YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF translations " +
+                "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    /**
+     * Drops a whole partition. Detaching first keeps the lock on the parent short,
+     * the rows go away with the table files instead of a DELETE and vacuum.
+     */
+    public void dropPartition(String name) {
+        jdbcTemplate.execute("ALTER TABLE translations DETACH PARTITION " + name);
+        jdbcTemplate.execute("DROP TABLE " + name);
+    }
+
+    /**
+     * Creates an index on translations without blocking writes on existing rows.
+     * A plain table gets a concurrent build. A partitioned table gets the index on the
+     * parent only; each existing partition then builds its own copy concurrently, which
+     * is attached to the parent. Partitions created later inherit the index.
+     */
+    public void createIndex(String name, String definition) {
+        if (!isPartitioned()) {
+            jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " ON translations " + definition);
+            return;
+        }
+
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + name + " ON ONLY translations " + definition);
+        for (Partition partition : findPartitions()) {
+            String partitionIndex = partitionIndexName(name, partition.name());
+            jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + partitionIndex + " ON " + partition.name() + " " + definition);
+            Boolean attached = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = ?::regclass)", Boolean.class, partitionIndex);
+            if (!Boolean.TRUE.equals(attached)) {
+                jdbcTemplate.execute("ALTER INDEX " + name + " ATTACH PARTITION " + partitionIndex);
+            }
+        }
+    }
+
+    public static String partitionName(YearMonth month) {
+        return TABLE + "_" + PARTITION_SUFFIX.format(month);
+    }
+
+    static String partitionIndexName(String index, String partition) {
+        String name = index + "_" + partition.substring(TABLE.length() + 1);
+        return name.length() <= MAX_IDENTIFIER_LENGTH ? name : name.substring(0, MAX_IDENTIFIER_LENGTH);
+    }
+
+    /**
+     * A partition and its range. {@code from} is null for MINVALUE, both bounds are
+     * null for the default partition.
+     */
+    public record Partition(String name, LocalDateTime from, LocalDateTime to, boolean isDefault) {
+
+        public static Partition of(String name, String bound) {
+            Matcher matcher = BOUND.matcher(bound);
+            if (!matcher.find()) {
+                return new Partition(name, null, null, true);
+            }
+            return new Partition(name, parse(matcher.group(1)), parse(matcher.group(2)), false);
+        }
+
+        private static LocalDateTime parse(String value) {
+            if ("MINVALUE".equals(value) || "MAXVALUE".equals(value)) {
+                return null;
+            }
+            return LocalDateTime.parse(value.replace("'", "").replace(' ', 'T'));
+        }
+
+        public boolean covers(LocalDateTime time) {
+            return !isDefault && (from == null || !time.isBefore(from)) && (to == null || time.isBefore(to));
+        }
+    }
+}
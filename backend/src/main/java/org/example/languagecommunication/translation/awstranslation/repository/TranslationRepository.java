@@ -1,14 +1,88 @@
 package org.example.languagecommunication.translation.awstranslation.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface TranslationRepository extends JpaRepository<Translation, Long> {
+    @EntityGraph(attributePaths = {"sourceText", "translatedText", "sourceLanguage", "targetLanguage"})
     List<Translation> findByUserId(Long userId);
 
+    @EntityGraph(attributePaths = {"sourceText", "translatedText", "sourceLanguage", "targetLanguage"})
     List<Translation> findByUserIdAndSuccessTrue(Long userId);
+
+    @Override
+    @EntityGraph(attributePaths = {"sourceText", "translatedText", "sourceLanguage", "targetLanguage"})
+    Optional<Translation> findById(Long id);
+
+    /**
+     * Newest-first page of a user's history that starts strictly after the
+     * (cursorTimestamp, cursorId) position, served by the (user_id, timestamp, id) index.
+     */
+    @Query("""
+            SELECT t.id AS id, st.content AS sourceText, tt.content AS translatedText,
+                   sl.code AS sourceLanguage, tl.code AS targetLanguage,
+                   t.success AS success, t.errorMessage AS errorMessage, t.timestamp AS timestamp,
+                   t.matchType AS matchType
+            FROM Translation t
+            JOIN t.sourceText st
+            LEFT JOIN t.translatedText tt
+            JOIN t.sourceLanguage sl
+            JOIN t.targetLanguage tl
+            WHERE t.user.id = :userId
+              AND (t.timestamp < :cursorTimestamp OR (t.timestamp = :cursorTimestamp AND t.id < :cursorId))
+              AND (:sourceLang IS NULL OR sl.code = :sourceLang)
+              AND (:targetLang IS NULL OR tl.code = :targetLang)
+              AND (:success IS NULL OR t.success = :success)
+              AND (:from IS NULL OR t.timestamp >= :from)
+              AND (:to IS NULL OR t.timestamp < :to)
+            ORDER BY t.timestamp DESC, t.id DESC
+            """)
+    List<TranslationView> findPage(@Param("userId") Long userId,
+                                   @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+                                   @Param("cursorId") Long cursorId,
+                                   @Param("sourceLang") String sourceLang,
+                                   @Param("targetLang") String targetLang,
+                                   @Param("success") Boolean success,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to,
+                                   Limit limit);
+
+    /**
+     * Whole history of a user, oldest first, read in fetch-size chunks.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT t.id AS id, st.content AS sourceText, tt.content AS translatedText,
+                   sl.code AS sourceLanguage, tl.code AS targetLanguage,
+                   t.success AS success, t.errorMessage AS errorMessage, t.timestamp AS timestamp,
+                   t.matchType AS matchType
+            FROM Translation t
+            JOIN t.sourceText st
+            LEFT JOIN t.translatedText tt
+            JOIN t.sourceLanguage sl
+            JOIN t.targetLanguage tl
+            WHERE t.user.id = :userId
+            ORDER BY t.timestamp, t.id
+            """)
+    Stream<TranslationView> streamByUserId(@Param("userId") Long userId);
 }
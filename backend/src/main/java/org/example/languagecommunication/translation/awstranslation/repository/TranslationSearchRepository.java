@@ -0,0 +1,229 @@
+package org.example.languagecommunication.translation.awstranslation.repository;
+
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationDTO;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationSearchHit;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Types;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Ranked search over a user's translation history. On PostgreSQL it combines full-text
+ * search, using the text search configuration of each side's language, with pg_trgm word
+ * similarity so that typos still match. The document is stored in the search_vector column
+ * of every row, because the stemming depends on the language of the row and texts are
+ * shared between rows, and is indexed together with user_id. Trigram matches on the
+ * deduplicated texts are served by their GIN index. Other databases fall back to a
+ * case-insensitive substring match.
+ */
+@Repository
+public class TranslationSearchRepository {
+
+    public static final String SEARCH_INDEX = "idx_translations_user_search_vector";
+
+    /**
+     * Value of the search_vector column with the source language code, source text,
+     * target language code and translated text bound in this order.
+     */
+    public static final String SEARCH_VECTOR = document("?", "?", "?", "?");
+
+    private static final String TS_CONFIG_FUNCTION = """
+            CREATE OR REPLACE FUNCTION translation_ts_config(lang varchar) RETURNS regconfig
+            LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+                SELECT CASE lower(split_part(lang, '-', 1))
+                    WHEN 'ar' THEN 'arabic'::regconfig
+                    WHEN 'ca' THEN 'catalan'::regconfig
+                    WHEN 'da' THEN 'danish'::regconfig
+                    WHEN 'de' THEN 'german'::regconfig
+                    WHEN 'el' THEN 'greek'::regconfig
+                    WHEN 'en' THEN 'english'::regconfig
+                    WHEN 'es' THEN 'spanish'::regconfig
+                    WHEN 'fi' THEN 'finnish'::regconfig
+                    WHEN 'fr' THEN 'french'::regconfig
+                    WHEN 'hi' THEN 'hindi'::regconfig
+                    WHEN 'hu' THEN 'hungarian'::regconfig
+                    WHEN 'id' THEN 'indonesian'::regconfig
+                    WHEN 'it' THEN 'italian'::regconfig
+                    WHEN 'lt' THEN 'lithuanian'::regconfig
+                    WHEN 'nl' THEN 'dutch'::regconfig
+                    WHEN 'no' THEN 'norwegian'::regconfig
+                    WHEN 'pt' THEN 'portuguese'::regconfig
+                    WHEN 'ro' THEN 'romanian'::regconfig
+                    WHEN 'ru' THEN 'russian'::regconfig
+                    WHEN 'sr' THEN 'serbian'::regconfig
+                    WHEN 'sv' THEN 'swedish'::regconfig
+                    WHEN 'ta' THEN 'tamil'::regconfig
+                    WHEN 'tr' THEN 'turkish'::regconfig
+                    ELSE 'simple'::regconfig
+                END
+            $$""";
+
+    private static final String SEARCH_COLUMN_SQL = """
+            SELECT COUNT(*) FROM information_schema.columns
+            WHERE table_schema = current_schema() AND table_name = 'translations' AND column_name = 'search_vector'
+            """;
+
+    private static final String FILL_SEARCH_COLUMN_SQL = """
+            UPDATE translations t SET search_vector = %s
+            FROM translation_texts st, translation_languages sl, translation_languages tl
+            WHERE t.search_vector IS NULL
+              AND st.id = t.source_text_id AND sl.id = t.source_language_id AND tl.id = t.target_language_id
+            """.formatted(document("sl.code", "st.content", "tl.code",
+            "(SELECT tt.content FROM translation_texts tt WHERE tt.id = t.translated_text_id)"));
+
+    private static final List<String> POSTGRES_SCHEMA = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            // lets user_id share the GIN index with search_vector
+            "CREATE EXTENSION IF NOT EXISTS btree_gin",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_translation_texts_content_trgm " +
+                    "ON translation_texts USING GIN (content gin_trgm_ops)"
+    );
+
+    private static final String HISTORY_ROWS = """
+            SELECT t.id, st.content AS source_text, tt.content AS translated_text,
+                   sl.code AS source_language, tl.code AS target_language,
+                   t.success, t.error_message, t.timestamp""";
+
+    private static final String HISTORY_JOINS = """
+            JOIN translation_texts st ON st.id = t.source_text_id
+            LEFT JOIN translation_texts tt ON tt.id = t.translated_text_id
+            JOIN translation_languages sl ON sl.id = t.source_language_id
+            JOIN translation_languages tl ON tl.id = t.target_language_id""";
+
+    // Each branch of the union has an index of its own, a single OR across the joins would scan all of the user's rows.
+    private static final String POSTGRES_SEARCH_SQL = """
+            WITH q AS (SELECT websearch_to_tsquery(translation_ts_config(:lang), :text) AS query),
+            matches AS (
+                SELECT t.id FROM translations t, q
+                WHERE t.user_id = :userId AND t.search_vector @@ q.query
+                UNION
+                SELECT t.id FROM translations t JOIN translation_texts st ON st.id = t.source_text_id
+                WHERE t.user_id = :userId AND :text <%% st.content
+                UNION
+                SELECT t.id FROM translations t JOIN translation_texts tt ON tt.id = t.translated_text_id
+                WHERE t.user_id = :userId AND :text <%% tt.content
+            )
+            %1$s,
+                   ts_rank_cd(t.search_vector, q.query)
+                       + GREATEST(word_similarity(:text, st.content), word_similarity(:text, coalesce(tt.content, ''))) AS score
+            FROM matches m
+            JOIN translations t ON t.id = m.id
+            %2$s
+            CROSS JOIN q
+            WHERE t.user_id = :userId
+            ORDER BY score DESC, t.timestamp DESC, t.id DESC
+            LIMIT :limit OFFSET :offset
+            """.formatted(HISTORY_ROWS, HISTORY_JOINS);
+
+    private static final String FALLBACK_SEARCH_SQL = """
+            %1$s, 0 AS score
+            FROM translations t
+            %2$s
+            WHERE t.user_id = :userId
+              AND (LOWER(st.content) LIKE :pattern ESCAPE '\\' OR LOWER(tt.content) LIKE :pattern ESCAPE '\\')
+            ORDER BY t.timestamp DESC, t.id DESC
+            LIMIT :limit OFFSET :offset
+            """.formatted(HISTORY_ROWS, HISTORY_JOINS);
+
+    private static final RowMapper<TranslationSearchHit> HIT_MAPPER = (rs, rowNum) -> new TranslationSearchHit(
+            new TranslationDTO(
+                    rs.getLong("id"),
+                    rs.getString("source_text"),
+                    rs.getString("translated_text"),
+                    rs.getString("source_language"),
+                    rs.getString("target_language"),
+                    rs.getBoolean("success"),
+                    rs.getString("error_message"),
+                    rs.getTimestamp("timestamp").toLocalDateTime()
+            ),
+            rs.getDouble("score")
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TranslationPartitionRepository translationPartitionRepository;
+    private final boolean postgres;
+
+    public TranslationSearchRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                                       TranslationPartitionRepository translationPartitionRepository,
+                                       DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.translationPartitionRepository = translationPartitionRepository;
+        this.postgres = "PostgreSQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+    }
+
+    /**
+     * Creates the search_vector column the history writer fills on PostgreSQL. Adding
+     * the empty column only changes the catalog, the documents of rows written before
+     * are built by {@link #fillSearchColumn}.
+     */
+    public void createSearchColumn() {
+        if (!postgres) {
+            return;
+        }
+        jdbcTemplate.getJdbcTemplate().execute(TS_CONFIG_FUNCTION);
+        if (jdbcTemplate.getJdbcTemplate().queryForObject(SEARCH_COLUMN_SQL, Integer.class) == 0) {
+            jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE translations ADD COLUMN IF NOT EXISTS search_vector tsvector");
+        }
+    }
+
+    /**
+     * Builds the documents of the rows that have none yet, which are the rows written
+     * before the column existed. Returns the number of filled rows.
+     */
+    public int fillSearchColumn() {
+        if (!postgres) {
+            return 0;
+        }
+        return jdbcTemplate.getJdbcTemplate().update(FILL_SEARCH_COLUMN_SQL);
+    }
+
+    /**
+     * Creates the search indexes once Hibernate has created the tables. They are built
+     * concurrently so that a first deploy on a large table does not block writes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createSearchSchema() {
+        if (!postgres) {
+            return;
+        }
+        POSTGRES_SCHEMA.forEach(statement -> jdbcTemplate.getJdbcTemplate().execute(statement));
+        translationPartitionRepository.createIndex(SEARCH_INDEX, "USING GIN (user_id, search_vector)");
+    }
+
+    /**
+     * @param lang language of the query text, decides its stemming; null searches without stemming
+     */
+    public List<TranslationSearchHit> search(Long userId, String text, String lang, int limit, int offset) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("limit", limit)
+                .addValue("offset", offset);
+
+        if (postgres) {
+            params.addValue("text", text).addValue("lang", lang, Types.VARCHAR);
+            return jdbcTemplate.query(POSTGRES_SEARCH_SQL, params, HIT_MAPPER);
+        }
+
+        String escaped = text.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        params.addValue("pattern", "%" + escaped + "%");
+        return jdbcTemplate.query(FALLBACK_SEARCH_SQL, params, HIT_MAPPER);
+    }
+
+    private static String document(String sourceLang, String sourceText, String targetLang, String translatedText) {
+        return "to_tsvector(translation_ts_config(%s), %s) || to_tsvector(translation_ts_config(%s), coalesce(%s, ''))"
+                .formatted(sourceLang, sourceText, targetLang, translatedText);
+    }
+}
@@ -0,0 +1,198 @@
+package org.example.languagecommunication.translation.awstranslation.repository;
+
+import org.example.languagecommunication.translation.awstranslation.DTO.DailyActivity;
+import org.example.languagecommunication.translation.awstranslation.DTO.LanguagePairActivity;
+import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationLanguage;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Daily translation counts per user, language pair and outcome. Counters are bumped
+ * for every batch the history writer inserts, so statistics read a handful of rows
+ * per day instead of scanning the history. On PostgreSQL a batch is applied with
+ * one upsert per counter; other databases update and insert the missing counters.
+ */
+@Repository
+public class TranslationStatsRepository {
+
+    private static final String POSTGRES_INCREMENT_SQL = """
+            INSERT INTO translation_daily_stats (user_id, stat_date, source_language, target_language, success, translation_count)
+            VALUES (:userId, :statDate, :sourceLang, :targetLang, :success, :delta)
+            ON CONFLICT (user_id, stat_date, source_language, target_language, success)
+            DO UPDATE SET translation_count = translation_daily_stats.translation_count + EXCLUDED.translation_count
+            """;
+
+    private static final String UPDATE_SQL = """
+            UPDATE translation_daily_stats SET translation_count = translation_count + :delta
+            WHERE user_id = :userId AND stat_date = :statDate
+              AND source_language = :sourceLang AND target_language = :targetLang AND success = :success
+            """;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO translation_daily_stats (user_id, stat_date, source_language, target_language, success, translation_count)
+            VALUES (:userId, :statDate, :sourceLang, :targetLang, :success, :delta)
+            """;
+
+    private static final String DELETE_EMPTY_SQL = """
+            DELETE FROM translation_daily_stats
+            WHERE user_id = :userId AND stat_date = :statDate
+              AND source_language = :sourceLang AND target_language = :targetLang AND success = :success
+              AND translation_count <= 0
+            """;
+
+    // Only runs against an empty table, so a restart never counts the history twice.
+    private static final String BACKFILL_SQL = """
+            INSERT INTO translation_daily_stats (user_id, stat_date, source_language, target_language, success, translation_count)
+            SELECT t.user_id, CAST(t.timestamp AS DATE), sl.code, tl.code, t.success, SUM(t.repeat_count)
+            FROM translations t
+            JOIN translation_languages sl ON sl.id = t.source_language_id
+            JOIN translation_languages tl ON tl.id = t.target_language_id
+            WHERE NOT EXISTS (SELECT 1 FROM translation_daily_stats)
+            GROUP BY t.user_id, CAST(t.timestamp AS DATE), sl.code, tl.code, t.success
+            """;
+
+    private static final String DAILY_SQL = """
+            SELECT stat_date,
+                   SUM(translation_count) AS total,
+                   SUM(CASE WHEN success THEN translation_count ELSE 0 END) AS successful
+            FROM translation_daily_stats
+            WHERE user_id = :userId AND stat_date BETWEEN :from AND :to
+            GROUP BY stat_date
+            ORDER BY stat_date
+            """;
+
+    private static final String TOP_PAIRS_SQL = """
+            SELECT source_language, target_language,
+                   SUM(translation_count) AS total,
+                   SUM(CASE WHEN success THEN translation_count ELSE 0 END) AS successful
+            FROM translation_daily_stats
+            WHERE user_id = :userId AND stat_date BETWEEN :from AND :to
+            GROUP BY source_language, target_language
+            ORDER BY total DESC, source_language, target_language
+            LIMIT :limit
+            """;
+
+    // fixed order, so concurrent batches lock shared counters in the same sequence
+    private static final Comparator<Counter> COUNTER_ORDER = Comparator
+            .comparing(Counter::userId)
+            .thenComparing(Counter::statDate)
+            .thenComparing(Counter::sourceLang)
+            .thenComparing(Counter::targetLang)
+            .thenComparing(Counter::success);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    public TranslationStatsRepository(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postgres = "PostgreSQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+    }
+
+    /**
+     * Adds the translations to their daily counters, each with its repeat count.
+     * Every translation must reference its user and carry a timestamp.
+     */
+    public void increment(Collection<Translation> translations) {
+        Map<Counter, Long> deltas = new TreeMap<>(COUNTER_ORDER);
+        for (Translation translation : translations) {
+            deltas.merge(Counter.of(translation), (long) translation.getRepeatCount(), Long::sum);
+        }
+        apply(deltas);
+    }
+
+    public void decrement(Translation translation) {
+        Counter counter = Counter.of(translation);
+        jdbcTemplate.update(UPDATE_SQL, counter.params(-translation.getRepeatCount()));
+        jdbcTemplate.update(DELETE_EMPTY_SQL, counter.params(0));
+    }
+
+    private void apply(Map<Counter, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        if (postgres) {
+            jdbcTemplate.batchUpdate(POSTGRES_INCREMENT_SQL, deltas.entrySet().stream()
+                    .map(delta -> delta.getKey().params(delta.getValue()))
+                    .toArray(SqlParameterSource[]::new));
+            return;
+        }
+        for (Map.Entry<Counter, Long> delta : deltas.entrySet()) {
+            MapSqlParameterSource params = delta.getKey().params(delta.getValue());
+            if (jdbcTemplate.update(UPDATE_SQL, params) == 0) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, params);
+                } catch (DuplicateKeyException e) {
+                    // another writer created the counter in the meantime
+                    jdbcTemplate.update(UPDATE_SQL, params);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the counters from the existing history when the table is still empty.
+     * Returns the number of counters created.
+     */
+    public int backfillIfEmpty() {
+        return jdbcTemplate.update(BACKFILL_SQL, new MapSqlParameterSource());
+    }
+
+    public List<DailyActivity> findDaily(Long userId, LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("from", from)
+                .addValue("to", to);
+
+        return jdbcTemplate.query(DAILY_SQL, params, (rs, rowNum) -> new DailyActivity(
+                rs.getObject("stat_date", LocalDate.class),
+                rs.getLong("total"),
+                rs.getLong("successful")));
+    }
+
+    public List<LanguagePairActivity> findTopPairs(Long userId, LocalDate from, LocalDate to, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("limit", limit);
+
+        return jdbcTemplate.query(TOP_PAIRS_SQL, params, (rs, rowNum) -> new LanguagePairActivity(
+                rs.getString("source_language"),
+                rs.getString("target_language"),
+                rs.getLong("total"),
+                rs.getLong("successful")));
+    }
+
+    private record Counter(Long userId, LocalDate statDate, String sourceLang, String targetLang, boolean success) {
+        static Counter of(Translation translation) {
+            return new Counter(translation.getUser().getId(), translation.getTimestamp().toLocalDate(),
+                    TranslationLanguage.codeOf(translation.getSourceLanguage()),
+                    TranslationLanguage.codeOf(translation.getTargetLanguage()), translation.isSuccess());
+        }
+
+        MapSqlParameterSource params(long delta) {
+            return new MapSqlParameterSource()
+                    .addValue("userId", userId)
+                    .addValue("statDate", statDate)
+                    .addValue("sourceLang", sourceLang)
+                    .addValue("targetLang", targetLang)
+                    .addValue("success", success)
+                    .addValue("delta", delta);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package org.example.languagecommunication.translation.awstranslation.repository;
+
+import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationLanguage;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationText;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Lookup tables behind the history rows: deduplicated texts addressed by content hash
+ * and language codes with small ids. {@link #resolve} assigns the ids of a batch,
+ * inserting the texts and codes that are not stored yet. Language codes are never
+ * deleted. Texts no history row references any more, after a delete or a dropped
+ * partition, are removed by {@link #deleteOrphanTexts}, so a text id read by
+ * {@link #resolve} can be gone by the time the row is inserted.
+ */
+@Repository
+public class TranslationTextRepository {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private static final String FIND_TEXTS_SQL = "SELECT id, content_hash FROM translation_texts WHERE content_hash IN (:hashes)";
+    private static final String INSERT_TEXT_SQL = "INSERT INTO translation_texts (content_hash, content) VALUES (:hash, :content)";
+    private static final String POSTGRES_INSERT_TEXT_SQL = INSERT_TEXT_SQL + " ON CONFLICT (content_hash) DO NOTHING";
+
+    private static final String FIND_LANGUAGES_SQL = "SELECT id, code FROM translation_languages WHERE code IN (:codes)";
+    private static final String INSERT_LANGUAGE_SQL = "INSERT INTO translation_languages (code) VALUES (:code)";
+    private static final String POSTGRES_INSERT_LANGUAGE_SQL = INSERT_LANGUAGE_SQL + " ON CONFLICT (code) DO NOTHING";
+
+    // a full anti-join, meant for a periodic job rather than every delete
+    private static final String DELETE_ORPHAN_TEXTS_SQL = """
+            DELETE FROM translation_texts tt
+            WHERE NOT EXISTS (SELECT 1 FROM translations t WHERE t.source_text_id = tt.id)
+              AND NOT EXISTS (SELECT 1 FROM translations t WHERE t.translated_text_id = tt.id)
+            """;
+
+    // the inline columns of a table created before the lookup tables are NOT NULL until they are migrated
+    private static final String INLINE_COLUMNS_SQL = """
+            SELECT COUNT(*) FROM information_schema.columns
+            WHERE table_schema = current_schema() AND table_name = 'translations'
+              AND column_name = 'source_text' AND is_nullable = 'NO'
+            """;
+
+    // The statements below run once, by the lookup-tables migration, on a table created before the lookup tables.
+    private static final String MIGRATE_LANGUAGES_SQL = """
+            INSERT INTO translation_languages (code)
+            SELECT source_language FROM translations UNION SELECT target_language FROM translations
+            ON CONFLICT (code) DO NOTHING
+            """;
+
+    // the hash must match TranslationText.hash
+    private static final String MIGRATE_TEXTS_SQL = """
+            INSERT INTO translation_texts (content_hash, content)
+            SELECT sha256(convert_to(content, 'UTF8')), content
+            FROM (SELECT source_text AS content FROM translations
+                  UNION SELECT translated_text FROM translations WHERE translated_text IS NOT NULL) texts
+            ON CONFLICT (content_hash) DO NOTHING
+            """;
+
+    private static final String MIGRATE_REFERENCES_SQL = """
+            UPDATE translations t SET
+                source_text_id = st.id,
+                translated_text_id = (SELECT tt.id FROM translation_texts tt
+                                      WHERE tt.content_hash = sha256(convert_to(t.translated_text, 'UTF8'))),
+                source_language_id = sl.id,
+                target_language_id = tl.id
+            FROM translation_texts st, translation_languages sl, translation_languages tl
+            WHERE st.content_hash = sha256(convert_to(t.source_text, 'UTF8'))
+              AND sl.code = t.source_language AND tl.code = t.target_language
+            """;
+
+    // the columns stay until a later release drops them, new rows leave them empty
+    private static final String RELAX_INLINE_COLUMNS_SQL = """
+            ALTER TABLE translations
+                ALTER COLUMN source_text DROP NOT NULL,
+                ALTER COLUMN source_language DROP NOT NULL,
+                ALTER COLUMN target_language DROP NOT NULL
+            """;
+
+    private static final String NULLABLE_REFERENCES_SQL = """
+            SELECT column_name FROM information_schema.columns
+            WHERE table_schema = current_schema() AND table_name = 'translations'
+              AND column_name IN ('source_text_id', 'source_language_id', 'target_language_id') AND is_nullable = 'YES'
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final boolean postgres;
+
+    public TranslationTextRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.postgres = "PostgreSQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+    }
+
+    /**
+     * Sets the ids of all texts and languages the translations reference.
+     */
+    public void resolve(Collection<Translation> translations) {
+        Map<String, List<TranslationText>> texts = new TreeMap<>();
+        Map<String, List<TranslationLanguage>> languages = new TreeMap<>();
+        for (Translation translation : translations) {
+            addText(texts, translation.getSourceText());
+            addText(texts, translation.getTranslatedText());
+            addLanguage(languages, translation.getSourceLanguage());
+            addLanguage(languages, translation.getTargetLanguage());
+        }
+
+        resolveTexts(texts);
+        resolveLanguages(languages);
+    }
+
+    /**
+     * Looks the texts of a translation up again after its insert failed, in case
+     * {@link #deleteOrphanTexts} removed one of them in between. Returns whether an id changed.
+     */
+    public boolean resolveAgain(Translation translation) {
+        Long sourceTextId = idOf(translation.getSourceText());
+        Long translatedTextId = idOf(translation.getTranslatedText());
+        translation.getSourceText().setId(null);
+        if (translation.getTranslatedText() != null) {
+            translation.getTranslatedText().setId(null);
+        }
+
+        resolve(List.of(translation));
+        return !Objects.equals(sourceTextId, idOf(translation.getSourceText()))
+                || !Objects.equals(translatedTextId, idOf(translation.getTranslatedText()));
+    }
+
+    /**
+     * Deletes the texts no history row references. A writer that references one of them
+     * at the same time makes the statement fail on the foreign key, the next run then
+     * tries again. Returns the number of deleted texts.
+     */
+    public int deleteOrphanTexts() {
+        return jdbcTemplate.getJdbcTemplate().update(DELETE_ORPHAN_TEXTS_SQL);
+    }
+
+    private static Long idOf(TranslationText text) {
+        return text != null ? text.getId() : null;
+    }
+
+    private static void addText(Map<String, List<TranslationText>> texts, TranslationText text) {
+        if (text != null && text.getId() == null) {
+            texts.computeIfAbsent(HEX.formatHex(text.getContentHash()), hash -> new ArrayList<>()).add(text);
+        }
+    }
+
+    private static void addLanguage(Map<String, List<TranslationLanguage>> languages, TranslationLanguage language) {
+        if (language != null && language.getId() == null) {
+            languages.computeIfAbsent(language.getCode(), code -> new ArrayList<>()).add(language);
+        }
+    }
+
+    private void resolveTexts(Map<String, List<TranslationText>> texts) {
+        Function<Collection<String>, Map<String, Long>> find = hashes -> {
+            Map<String, Long> ids = new TreeMap<>();
+            jdbcTemplate.query(FIND_TEXTS_SQL,
+                    new MapSqlParameterSource("hashes", hashes.stream().map(HEX::parseHex).toList()),
+                    rs -> {
+                        ids.put(HEX.formatHex(rs.getBytes("content_hash")), rs.getLong("id"));
+                    });
+            return ids;
+        };
+        Function<String, SqlParameterSource> insertParams = hash -> new MapSqlParameterSource()
+                .addValue("hash", HEX.parseHex(hash))
+                .addValue("content", texts.get(hash).getFirst().getContent());
+
+        Map<String, Long> ids = findOrInsert(texts.keySet(), find, insertParams,
+                postgres ? POSTGRES_INSERT_TEXT_SQL : INSERT_TEXT_SQL);
+        texts.forEach((hash, sameTexts) -> sameTexts.forEach(text -> text.setId(ids.get(hash))));
+    }
+
+    private void resolveLanguages(Map<String, List<TranslationLanguage>> languages) {
+        Function<Collection<String>, Map<String, Short>> find = codes -> {
+            Map<String, Short> ids = new TreeMap<>();
+            jdbcTemplate.query(FIND_LANGUAGES_SQL, new MapSqlParameterSource("codes", codes),
+                    rs -> {
+                        ids.put(rs.getString("code"), rs.getShort("id"));
+                    });
+            return ids;
+        };
+        Function<String, SqlParameterSource> insertParams = code -> new MapSqlParameterSource("code", code);
+
+        Map<String, Short> ids = findOrInsert(languages.keySet(), find, insertParams,
+                postgres ? POSTGRES_INSERT_LANGUAGE_SQL : INSERT_LANGUAGE_SQL);
+        languages.forEach((code, sameLanguages) -> sameLanguages.forEach(language -> language.setId(ids.get(code))));
+    }
+
+    /**
+     * Looks the keys up, inserts the missing ones in key order, so that concurrent
+     * writers lock the unique index in the same sequence, and looks them up again.
+     */
+    private <K> Map<String, K> findOrInsert(Collection<String> keys,
+                                            Function<Collection<String>, Map<String, K>> find,
+                                            Function<String, SqlParameterSource> insertParams,
+                                            String insertSql) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, K> ids = find.apply(keys);
+        List<String> missing = keys.stream().filter(key -> !ids.containsKey(key)).toList();
+        if (missing.isEmpty()) {
+            return ids;
+        }
+
+        if (postgres) {
+            jdbcTemplate.batchUpdate(insertSql, missing.stream().map(insertParams).toArray(SqlParameterSource[]::new));
+        } else {
+            for (String key : missing) {
+                try {
+                    jdbcTemplate.update(insertSql, insertParams.apply(key));
+                } catch (DuplicateKeyException e) {
+                    // another writer stored it in the meantime
+                }
+            }
+        }
+        ids.putAll(find.apply(missing));
+        return ids;
+    }
+
+    /**
+     * Whether the table was created before the lookup tables and still needs
+     * {@link #migrateInlineColumns}. The history writer cannot insert into it until then.
+     */
+    public boolean isInlineMigrationPending() {
+        return postgres && jdbcTemplate.getJdbcTemplate().queryForObject(INLINE_COLUMNS_SQL, Integer.class) > 0;
+    }
+
+    /**
+     * Moves the texts and language codes of a table created before the lookup tables
+     * into them, under an exclusive lock on the table. The inline columns are kept but
+     * made nullable, and on PostgreSQL the reference columns are made NOT NULL
+     * afterwards. Returns the number of migrated rows.
+     */
+    public int migrateInlineColumns() {
+        if (!postgres) {
+            return 0;
+        }
+
+        Integer migrated = transaction.execute(status -> {
+            if (jdbcTemplate.getJdbcTemplate().queryForObject(INLINE_COLUMNS_SQL, Integer.class) == 0) {
+                return 0;
+            }
+            jdbcTemplate.getJdbcTemplate().execute("LOCK TABLE translations IN ACCESS EXCLUSIVE MODE");
+            // another instance may have migrated while this one waited for the lock
+            if (jdbcTemplate.getJdbcTemplate().queryForObject(INLINE_COLUMNS_SQL, Integer.class) == 0) {
+                return 0;
+            }
+
+            jdbcTemplate.getJdbcTemplate().update(MIGRATE_LANGUAGES_SQL);
+            jdbcTemplate.getJdbcTemplate().update(MIGRATE_TEXTS_SQL);
+            int rows = jdbcTemplate.getJdbcTemplate().update(MIGRATE_REFERENCES_SQL);
+            jdbcTemplate.getJdbcTemplate().execute(RELAX_INLINE_COLUMNS_SQL);
+            return rows;
+        });
+
+        for (String column : jdbcTemplate.getJdbcTemplate().queryForList(NULLABLE_REFERENCES_SQL, String.class)) {
+            jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE translations ALTER COLUMN " + column + " SET NOT NULL");
+        }
+        return migrated != null ? migrated : 0;
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.languagecommunication.translation.awstranslation.repository;
+
+import org.example.languagecommunication.translation.awstranslation.model.MatchType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a translation history row, without the owning user.
+ */
+public interface TranslationView {
+    Long getId();
+
+    String getSourceText();
+
+    String getTranslatedText();
+
+    String getSourceLanguage();
+
+    String getTargetLanguage();
+
+    boolean isSuccess();
+
+    String getErrorMessage();
+
+    LocalDateTime getTimestamp();
+
+    MatchType getMatchType();
+}
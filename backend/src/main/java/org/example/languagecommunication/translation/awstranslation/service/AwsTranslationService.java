@@ -1,16 +1,26 @@
 package org.example.languagecommunication.translation.awstranslation.service;
 
+import org.example.languagecommunication.common.utils.SecurityUtils;
+import org.example.languagecommunication.common.utils.SingleFlight;
+import org.example.languagecommunication.config.AwsThrottling;
 import org.example.languagecommunication.exception.LanguageDetectionException;
+import org.example.languagecommunication.exception.TranslationException;
 import org.example.languagecommunication.translation.awstranslation.DTO.DetectedLanguage;
 import org.example.languagecommunication.translation.awstranslation.DTO.LanguageDTO;
+import org.example.languagecommunication.translation.awstranslation.model.MatchType;
 import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationLanguage;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationText;
 import org.example.languagecommunication.translation.awstranslation.DTO.TranslationDTO;
 import org.example.languagecommunication.translation.awstranslation.model.SupportedLanguage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.comprehend.ComprehendClient;
 import software.amazon.awssdk.services.comprehend.model.*;
+import software.amazon.awssdk.services.translate.TranslateAsyncClient;
 import software.amazon.awssdk.services.translate.TranslateClient;
 import software.amazon.awssdk.services.translate.model.DetectedLanguageLowConfidenceException;
 import software.amazon.awssdk.services.translate.model.TranslateTextRequest;
@@ -20,55 +30,86 @@ import software.amazon.awssdk.services.translate.model.UnsupportedLanguagePairEx
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 @Service
 public class AwsTranslationService {
 
+    public static final String AUTO = "auto";
+
+    private static final List<LanguageDTO> SUPPORTED_LANGUAGES = Arrays.stream(SupportedLanguage.values())
+            .map(language -> new LanguageDTO(language.name(), language.getLanguageCode(), language.getVoiceId(), language.getTranscribeLangCode(), language.getLanguageNamePL()))
+            .toList();
+
     private final TranslateClient translateClient;
     private final ComprehendClient comprehendClient;
     private final TranslationHistoryService translationHistoryService;
+    private final TranslationCache translationCache;
+    private final TranslateAsyncClient translateAsyncClient;
+    private final TranslationMemory translationMemory;
+    private final LocalLanguageDetector localLanguageDetector;
+    private final LanguageDetectionCache languageDetectionCache;
+    private final Executor translationExecutor;
+    // identical concurrent Translate calls, e.g. a whole class opening the same deck
+    private final SingleFlight<TranslationCache.Key, String> translateFlights = new SingleFlight<>();
 
     @Autowired
     public AwsTranslationService
             (TranslateClient translateClient,
              ComprehendClient comprehendClient,
-             TranslationHistoryService translationHistoryService) {
+             TranslationHistoryService translationHistoryService,
+             TranslationCache translationCache,
+             TranslateAsyncClient translateAsyncClient,
+             TranslationMemory translationMemory,
+             LocalLanguageDetector localLanguageDetector,
+             LanguageDetectionCache languageDetectionCache,
+             @Qualifier("translationExecutor") ExecutorService translationExecutor) {
         this.translateClient = translateClient;
         this.comprehendClient = comprehendClient;
         this.translationHistoryService = translationHistoryService;
+        this.translationCache = translationCache;
+        this.translateAsyncClient = translateAsyncClient;
+        this.translationMemory = translationMemory;
+        this.localLanguageDetector = localLanguageDetector;
+        this.languageDetectionCache = languageDetectionCache;
+        // fuzzy matches come from the history of the user in the security context
+        this.translationExecutor = new DelegatingSecurityContextExecutor(translationExecutor);
     }
 
     public TranslationDTO translateText(String text, String sourceLang, String targetLang) {
+        if (AUTO.equalsIgnoreCase(sourceLang)) {
+            return translateAuto(text, targetLang);
+        }
         try {
-            TranslateTextRequest request = TranslateTextRequest.builder()
-                    .text(text)
-                    .sourceLanguageCode(sourceLang)
-                    .targetLanguageCode(targetLang)
-                    .build();
-
-            TranslateTextResponse response = translateClient.translateText(request);
-            String translated = response.translatedText();
-            Translation savedTranslation = translationHistoryService.saveSuccess(text, translated, sourceLang, targetLang);
+            TranslationMemory.Match match = resolve(text, sourceLang, targetLang, true);
+            Translation savedTranslation = translationHistoryService.saveSuccess(
+                    text, match.translatedText(), sourceLang, targetLang, match.matchType());
 
             return new TranslationDTO(
                     savedTranslation.getId(),
-                    savedTranslation.getSourceText(),
-                    savedTranslation.getTranslatedText(),
-                    savedTranslation.getSourceLanguage(),
-                    savedTranslation.getTargetLanguage(),
+                    TranslationText.contentOf(savedTranslation.getSourceText()),
+                    TranslationText.contentOf(savedTranslation.getTranslatedText()),
+                    TranslationLanguage.codeOf(savedTranslation.getSourceLanguage()),
+                    TranslationLanguage.codeOf(savedTranslation.getTargetLanguage()),
                     savedTranslation.isSuccess(),
                     savedTranslation.getErrorMessage(),
-                    savedTranslation.getTimestamp()
+                    savedTranslation.getTimestamp(),
+                    savedTranslation.getMatchType(),
+                    null
             );
         } catch (UnsupportedLanguagePairException | IllegalArgumentException e) {
             Translation savedError = translationHistoryService.saveError(text, sourceLang, targetLang, e.getMessage());
             return new TranslationDTO(
                     savedError.getId(),
-                    savedError.getSourceText(),
-                    savedError.getTranslatedText(),
-                    savedError.getSourceLanguage(),
-                    savedError.getTargetLanguage(),
+                    TranslationText.contentOf(savedError.getSourceText()),
+                    TranslationText.contentOf(savedError.getTranslatedText()),
+                    TranslationLanguage.codeOf(savedError.getSourceLanguage()),
+                    TranslationLanguage.codeOf(savedError.getTargetLanguage()),
                     savedError.isSuccess(),
                     savedError.getErrorMessage(),
                     savedError.getTimestamp()
@@ -79,10 +120,10 @@ public class AwsTranslationService {
             Translation savedError = translationHistoryService.saveError(text, sourceLang, targetLang, e.getMessage());
             return new TranslationDTO(
                     savedError.getId(),
-                    savedError.getSourceText(),
-                    savedError.getTranslatedText(),
-                    savedError.getSourceLanguage(),
-                    savedError.getTargetLanguage(),
+                    TranslationText.contentOf(savedError.getSourceText()),
+                    TranslationText.contentOf(savedError.getTranslatedText()),
+                    TranslationLanguage.codeOf(savedError.getSourceLanguage()),
+                    TranslationLanguage.codeOf(savedError.getTargetLanguage()),
                     savedError.isSuccess(),
                     savedError.getErrorMessage(),
                     savedError.getTimestamp()
@@ -91,10 +132,10 @@ public class AwsTranslationService {
             Translation savedError = translationHistoryService.saveError(text, sourceLang, targetLang, e.getMessage());
             return new TranslationDTO(
                     savedError.getId(),
-                    savedError.getSourceText(),
-                    savedError.getTranslatedText(),
-                    savedError.getSourceLanguage(),
-                    savedError.getTargetLanguage(),
+                    TranslationText.contentOf(savedError.getSourceText()),
+                    TranslationText.contentOf(savedError.getTranslatedText()),
+                    TranslationLanguage.codeOf(savedError.getSourceLanguage()),
+                    TranslationLanguage.codeOf(savedError.getTargetLanguage()),
                     savedError.isSuccess(),
                     savedError.getErrorMessage(),
                     savedError.getTimestamp()
@@ -102,8 +143,190 @@ public class AwsTranslationService {
         }
     }
 
+    /**
+     * Detects the source language and translates in one call. A cached detection comes
+     * from Comprehend and is trusted as is. A local guess starts the translation right away while Comprehend
+     * confirms it; if Comprehend disagrees the guess is cancelled and the text is
+     * translated again from the confirmed language.
+     */
+    private TranslationDTO translateAuto(String text, String targetLang) {
+        DetectedLanguage detected = null;
+        try {
+            TranslationMemory.Match match;
+            Optional<DetectedLanguage> cached = languageDetectionCache.get(text);
+            if (cached.isPresent()) {
+                detected = cached.get();
+                match = resolve(text, detected.languageCode(), targetLang, true);
+            } else {
+                Optional<DetectedLanguage> guess = localLanguageDetector.detect(text);
+                CompletableFuture<TranslationMemory.Match> speculative = guess
+                        .map(language -> speculate(text, language.languageCode(), targetLang))
+                        .orElse(null);
+
+                detected = detect(text, false);
+                if (speculative != null && guess.get().languageCode().equals(detected.languageCode())) {
+                    match = join(speculative);
+                    if (match.matchType() == MatchType.MACHINE) {
+                        translationCache.put(text, detected.languageCode(), targetLang, match.translatedText());
+                    }
+                } else {
+                    if (speculative != null) {
+                        speculative.cancel(true);
+                    }
+                    match = resolve(text, detected.languageCode(), targetLang, true);
+                }
+            }
+
+            Translation saved = translationHistoryService.saveSuccess(
+                    text, match.translatedText(), detected.languageCode(), targetLang, match.matchType());
+            return new TranslationDTO(
+                    saved.getId(),
+                    TranslationText.contentOf(saved.getSourceText()),
+                    TranslationText.contentOf(saved.getTranslatedText()),
+                    TranslationLanguage.codeOf(saved.getSourceLanguage()),
+                    TranslationLanguage.codeOf(saved.getTargetLanguage()),
+                    saved.isSuccess(),
+                    saved.getErrorMessage(),
+                    saved.getTimestamp(),
+                    saved.getMatchType(),
+                    detected
+            );
+        } catch (LanguageDetectionException | TranslationException e) {
+            // invalid input and rate limits keep their status instead of becoming a history error
+            throw e;
+        } catch (Exception e) {
+            String sourceLang = detected != null ? detected.languageCode() : AUTO;
+            Translation savedError = translationHistoryService.saveError(text, sourceLang, targetLang, e.getMessage());
+            return new TranslationDTO(
+                    savedError.getId(),
+                    TranslationText.contentOf(savedError.getSourceText()),
+                    TranslationText.contentOf(savedError.getTranslatedText()),
+                    TranslationLanguage.codeOf(savedError.getSourceLanguage()),
+                    TranslationLanguage.codeOf(savedError.getTargetLanguage()),
+                    savedError.isSuccess(),
+                    savedError.getErrorMessage(),
+                    savedError.getTimestamp(),
+                    null,
+                    detected
+            );
+        }
+    }
+
+    // Results are not cached here, the guessed source language may still turn out wrong.
+    private CompletableFuture<TranslationMemory.Match> speculate(String text, String sourceLang, String targetLang) {
+        Optional<String> cached = translationCache.get(text, sourceLang, targetLang);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(new TranslationMemory.Match(cached.get(), MatchType.EXACT));
+        }
+        Optional<TranslationMemory.Match> remembered = translationMemory.findExact(text, sourceLang, targetLang);
+        if (remembered.isPresent()) {
+            return CompletableFuture.completedFuture(remembered.get());
+        }
+
+        TranslateTextRequest request = TranslateTextRequest.builder()
+                .text(text)
+                .sourceLanguageCode(sourceLang)
+                .targetLanguageCode(targetLang)
+                .build();
+        CompletableFuture<String> call = translateFlights.executeAsync(TranslationCache.Key.of(text, sourceLang, targetLang),
+                () -> translateAsync(request));
+        CompletableFuture<TranslationMemory.Match> match = call
+                .thenApply(translated -> new TranslationMemory.Match(translated, MatchType.MACHINE));
+        // cancelling the mapped future has to abort the AWS request as well, unless others share it
+        match.whenComplete((result, error) -> {
+            if (error instanceof CancellationException) {
+                call.cancel(true);
+            }
+        });
+        return match;
+    }
+
+    private CompletableFuture<String> translateAsync(TranslateTextRequest request) {
+        CompletableFuture<TranslateTextResponse> call = translateAsyncClient.translateText(request);
+        CompletableFuture<String> translated = call.thenApply(TranslateTextResponse::translatedText);
+        translated.whenComplete((result, error) -> {
+            if (error instanceof CancellationException) {
+                call.cancel(true);
+            }
+        });
+        return translated;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Translates the text without touching the history, serving repeated
+     * (text, sourceLang, targetLang) triples from {@link TranslationCache}
+     * or from exact matches in the {@link TranslationMemory}.
+     */
+    public String translate(String text, String sourceLang, String targetLang) {
+        return resolve(text, sourceLang, targetLang, false).translatedText();
+    }
+
+    private TranslationMemory.Match resolve(String text, String sourceLang, String targetLang, boolean allowFuzzy) {
+        Optional<String> cached = translationCache.get(text, sourceLang, targetLang);
+        if (cached.isPresent()) {
+            return new TranslationMemory.Match(cached.get(), MatchType.EXACT);
+        }
+
+        Optional<TranslationMemory.Match> remembered = translationMemory.findExact(text, sourceLang, targetLang);
+        if (remembered.isPresent()) {
+            translationCache.put(text, sourceLang, targetLang, remembered.get().translatedText());
+            return remembered.get();
+        }
+        if (allowFuzzy) {
+            Optional<TranslationMemory.Match> fuzzy = translationMemory.findFuzzy(text, sourceLang, targetLang);
+            if (fuzzy.isPresent()) {
+                return fuzzy.get();
+            }
+        }
+
+        TranslateTextRequest request = TranslateTextRequest.builder()
+                .text(text)
+                .sourceLanguageCode(sourceLang)
+                .targetLanguageCode(targetLang)
+                .build();
+
+        String translated = translateFlights.execute(TranslationCache.Key.of(text, sourceLang, targetLang),
+                () -> translateClient.translateText(request).translatedText());
+        translationCache.put(text, sourceLang, targetLang, translated);
+        return new TranslationMemory.Match(translated, MatchType.MACHINE);
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #translateText} for an explicit source language.
+     * The calling thread only reads the user; the cache, translation memory and AWS lookups
+     * run on the translation executor with the caller's security context, followed by the
+     * history write.
+     */
+    public CompletableFuture<TranslationDTO> translateTextAsync(String text, String sourceLang, String targetLang) {
+        Long userId = SecurityUtils.getCurrentUserId();
+
+        return CompletableFuture.supplyAsync(() -> resolve(text, sourceLang, targetLang, true), translationExecutor)
+                .handle((match, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        return TranslationHistoryService.toDTO(translationHistoryService.saveError(userId, text, sourceLang, targetLang, cause.getMessage()));
+                    }
+                    return TranslationHistoryService.toDTO(translationHistoryService.saveSuccess(
+                            userId, text, match.translatedText(), sourceLang, targetLang, match.matchType()));
+                });
+    }
 
     public DetectedLanguage detectLanguage(String text) {
+        return detect(text, true);
+    }
+
+    private DetectedLanguage detect(String text, boolean allowLocal) {
         try {
             if (text == null || text.trim().isEmpty()) {
                 throw new LanguageDetectionException("Text must not be null or empty", HttpStatus.BAD_REQUEST);
@@ -113,18 +336,30 @@ public class AwsTranslationService {
                 throw new LanguageDetectionException("Text exceeds the 5000-byte limit", HttpStatus.BAD_REQUEST);
             }
 
+            Optional<DetectedLanguage> known = languageDetectionCache.get(text);
+            if (known.isPresent()) {
+                return known.get();
+            }
+            // local guesses are cheap to repeat and are not cached, the cache only holds confirmed answers
+            known = allowLocal ? localLanguageDetector.detect(text) : Optional.empty();
+            if (known.isPresent()) {
+                return known.get();
+            }
+
             DetectDominantLanguageRequest request = DetectDominantLanguageRequest.builder()
                     .text(text)
                     .build();
 
             DetectDominantLanguageResponse response = comprehendClient.detectDominantLanguage(request);
 
-            return response
+            DetectedLanguage detected = response
                     .languages()
                     .stream()
                     .map(language -> new DetectedLanguage(language.languageCode(), language.score()))
                     .findFirst()
                     .orElseThrow(() -> new LanguageDetectionException("No dominant language detected", HttpStatus.NOT_FOUND));
+            languageDetectionCache.put(text, detected);
+            return detected;
         } catch (InvalidRequestException e) {
             throw new LanguageDetectionException("Invalid request to AWS Comprehend", HttpStatus.BAD_REQUEST, e);
         } catch (TextSizeLimitExceededException e) {
@@ -136,14 +371,15 @@ public class AwsTranslationService {
         } catch (LanguageDetectionException e) {
             throw e;
         } catch (Exception e) {
+            if (AwsThrottling.isClientThrottled(e)) {
+                throw new LanguageDetectionException("Rate limit exceeded", HttpStatus.TOO_MANY_REQUESTS, e);
+            }
             throw new RuntimeException("Unexpected language detection failed: " + e.getMessage(), e);
         }
 }
 
         public List<LanguageDTO> getSupportedLanguages() {
-           return  Arrays.stream(SupportedLanguage.values())
-                    .map(language -> new LanguageDTO(language.name(), language.getLanguageCode(), language.getVoiceId(), language.getTranscribeLangCode(), language.getLanguageNamePL()))
-                    .collect(Collectors.toList());
+           return SUPPORTED_LANGUAGES;
         }
     }
 
@@ -0,0 +1,187 @@
+package org.example.languagecommunication.translation.awstranslation.service;
+
+import org.example.languagecommunication.config.AwsThrottling;
+import org.example.languagecommunication.exception.LanguageDetectionException;
+import org.example.languagecommunication.translation.awstranslation.DTO.BatchDetectionRequest;
+import org.example.languagecommunication.translation.awstranslation.DTO.DetectedLanguage;
+import org.example.languagecommunication.translation.awstranslation.DTO.LanguageDetectionResult;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.comprehend.ComprehendClient;
+import software.amazon.awssdk.services.comprehend.model.BatchDetectDominantLanguageItemResult;
+import software.amazon.awssdk.services.comprehend.model.BatchDetectDominantLanguageRequest;
+import software.amazon.awssdk.services.comprehend.model.BatchDetectDominantLanguageResponse;
+import software.amazon.awssdk.services.comprehend.model.BatchItemError;
+import software.amazon.awssdk.services.comprehend.model.DominantLanguage;
+import software.amazon.awssdk.services.comprehend.model.TooManyRequestsException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Detects the language of many texts at once. Texts answered by the detection cache
+ * or the local detector never leave the process, the rest are deduplicated and sent
+ * to Comprehend's BatchDetectDominantLanguage in chunks of at most 25 documents.
+ * At most {@code max-concurrency} chunks of one batch run at once, so a large batch
+ * queues behind the Comprehend rate limit instead of being rejected by it.
+ */
+@Service
+public class BatchLanguageDetectionService {
+
+    // BatchDetectDominantLanguage accepts at most 25 documents per call
+    static final int COMPREHEND_BATCH_LIMIT = 25;
+    private static final int MAX_TEXT_BYTES = 5000;
+
+    private final ComprehendClient comprehendClient;
+    private final LocalLanguageDetector localLanguageDetector;
+    private final LanguageDetectionCache languageDetectionCache;
+    private final ExecutorService translationExecutor;
+    private final int maxItems;
+    private final int maxConcurrency;
+
+    public BatchLanguageDetectionService(ComprehendClient comprehendClient,
+                                         LocalLanguageDetector localLanguageDetector,
+                                         LanguageDetectionCache languageDetectionCache,
+                                         @Qualifier("translationExecutor") ExecutorService translationExecutor,
+                                         @Value("${translation.detection.batch.max-items:1000}") int maxItems,
+                                         @Value("${translation.detection.batch.max-concurrency:4}") int maxConcurrency) {
+        this.comprehendClient = comprehendClient;
+        this.localLanguageDetector = localLanguageDetector;
+        this.languageDetectionCache = languageDetectionCache;
+        this.translationExecutor = translationExecutor;
+        this.maxItems = maxItems;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Returns one result per input text, in input order. Invalid texts and texts
+     * Comprehend rejects are reported on their own item and do not fail the batch.
+     */
+    public List<LanguageDetectionResult> detectLanguages(BatchDetectionRequest request) {
+        if (request.texts() == null || request.texts().isEmpty()) {
+            throw new LanguageDetectionException("Texts must not be empty", HttpStatus.BAD_REQUEST);
+        }
+        if (request.texts().size() > maxItems) {
+            throw new LanguageDetectionException("Batch exceeds the limit of " + maxItems + " texts", HttpStatus.BAD_REQUEST);
+        }
+
+        List<String> texts = request.texts();
+        LanguageDetectionResult[] results = new LanguageDetectionResult[texts.size()];
+        // identical texts are sent once and the answer is copied to every position
+        Map<String, List<Integer>> pending = new LinkedHashMap<>();
+
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            if (text == null || text.isBlank()) {
+                results[i] = LanguageDetectionResult.failed(i, "Text must not be null or empty");
+                continue;
+            }
+            if (text.getBytes(StandardCharsets.UTF_8).length > MAX_TEXT_BYTES) {
+                results[i] = LanguageDetectionResult.failed(i, "Text exceeds the " + MAX_TEXT_BYTES + "-byte limit");
+                continue;
+            }
+            DetectedLanguage known = languageDetectionCache.get(text)
+                    .or(() -> localLanguageDetector.detect(text))
+                    .orElse(null);
+            if (known != null) {
+                results[i] = LanguageDetectionResult.detected(i, known);
+            } else {
+                pending.computeIfAbsent(text, key -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<String> unique = new ArrayList<>(pending.keySet());
+        List<CompletableFuture<Outcome[]>> chunks = new ArrayList<>();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        for (int from = 0; from < unique.size(); from += COMPREHEND_BATCH_LIMIT) {
+            List<String> chunk = unique.subList(from, Math.min(from + COMPREHEND_BATCH_LIMIT, unique.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    return detectChunk(chunk);
+                } finally {
+                    permits.release();
+                }
+            }, translationExecutor));
+        }
+
+        for (int c = 0; c < chunks.size(); c++) {
+            Outcome[] outcomes = chunks.get(c).join();
+            for (int j = 0; j < outcomes.length; j++) {
+                String text = unique.get(c * COMPREHEND_BATCH_LIMIT + j);
+                Outcome outcome = outcomes[j];
+                for (int index : pending.get(text)) {
+                    results[index] = outcome.language() != null
+                            ? LanguageDetectionResult.detected(index, outcome.language())
+                            : LanguageDetectionResult.failed(index, outcome.errorMessage());
+                }
+            }
+        }
+
+        return List.of(results);
+    }
+
+    private Outcome[] detectChunk(List<String> chunk) {
+        Outcome[] outcomes = new Outcome[chunk.size()];
+        try {
+            BatchDetectDominantLanguageResponse response = comprehendClient.batchDetectDominantLanguage(
+                    BatchDetectDominantLanguageRequest.builder().textList(chunk).build());
+
+            if (response.resultList() != null) {
+                for (BatchDetectDominantLanguageItemResult item : response.resultList()) {
+                    outcomes[item.index()] = item.languages() == null || item.languages().isEmpty()
+                            ? Outcome.failed("No dominant language detected")
+                            : Outcome.detected(dominant(item.languages()));
+                }
+            }
+            if (response.errorList() != null) {
+                for (BatchItemError error : response.errorList()) {
+                    outcomes[error.index()] = Outcome.failed(error.errorMessage());
+                }
+            }
+        } catch (RuntimeException e) {
+            String message = e instanceof TooManyRequestsException || AwsThrottling.isClientThrottled(e) ? "Rate limit exceeded" : e.getMessage();
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] = Outcome.failed(message);
+            }
+            return outcomes;
+        }
+
+        for (int i = 0; i < outcomes.length; i++) {
+            if (outcomes[i] == null) {
+                outcomes[i] = Outcome.failed("No result returned for this text");
+            } else if (outcomes[i].language() != null) {
+                languageDetectionCache.put(chunk.get(i), outcomes[i].language());
+            }
+        }
+        return outcomes;
+    }
+
+    private static DetectedLanguage dominant(List<DominantLanguage> languages) {
+        DominantLanguage best = languages.getFirst();
+        for (DominantLanguage language : languages) {
+            if (language.score() != null && (best.score() == null || language.score() > best.score())) {
+                best = language;
+            }
+        }
+        return new DetectedLanguage(best.languageCode(), best.score() != null ? best.score() : 0f);
+    }
+
+    private record Outcome(DetectedLanguage language, String errorMessage) {
+        static Outcome detected(DetectedLanguage language) {
+            return new Outcome(language, null);
+        }
+
+        static Outcome failed(String errorMessage) {
+            return new Outcome(null, errorMessage);
+        }
+    }
+}
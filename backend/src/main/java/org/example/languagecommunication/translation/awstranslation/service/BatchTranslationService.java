@@ -0,0 +1,396 @@
+package org.example.languagecommunication.translation.awstranslation.service;
+
+import org.example.languagecommunication.common.utils.SecurityUtils;
+import org.example.languagecommunication.exception.TranslationException;
+import org.example.languagecommunication.translation.awstranslation.DTO.BatchTranslationRequest;
+import org.example.languagecommunication.translation.awstranslation.DTO.DocumentTranslationRequest;
+import org.example.languagecommunication.translation.awstranslation.DTO.MultiTranslationRequest;
+import org.example.languagecommunication.translation.awstranslation.DTO.MultiTranslationResponse;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationDTO;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationSegment;
+import org.example.languagecommunication.translation.awstranslation.model.SupportedLanguage;
+import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationLanguage;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationText;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class BatchTranslationService {
+
+    private final AwsTranslationService awsTranslationService;
+    private final TranslationHistoryService translationHistoryService;
+    private final ExecutorService translationExecutor;
+    private final int maxConcurrency;
+    private final int maxItems;
+    private final Duration maxDeadline;
+    private final int maxChunkBytes;
+    private final int maxDocumentBytes;
+    private final int firstSegmentBytes;
+
+    public BatchTranslationService(AwsTranslationService awsTranslationService,
+                                   TranslationHistoryService translationHistoryService,
+                                   @Qualifier("translationExecutor") ExecutorService translationExecutor,
+                                   @Value("${translation.batch.max-concurrency:8}") int maxConcurrency,
+                                   @Value("${translation.batch.max-items:200}") int maxItems,
+                                   @Value("${translation.multi.deadline:5s}") Duration maxDeadline,
+                                   @Value("${translation.document.max-chunk-bytes:10000}") int maxChunkBytes,
+                                   @Value("${translation.document.max-bytes:500000}") int maxDocumentBytes,
+                                   @Value("${translation.stream.first-segment-bytes:200}") int firstSegmentBytes) {
+        this.awsTranslationService = awsTranslationService;
+        this.translationHistoryService = translationHistoryService;
+        this.translationExecutor = translationExecutor;
+        this.maxConcurrency = maxConcurrency;
+        this.maxItems = maxItems;
+        this.maxDeadline = maxDeadline;
+        this.maxChunkBytes = maxChunkBytes;
+        this.maxDocumentBytes = maxDocumentBytes;
+        this.firstSegmentBytes = firstSegmentBytes;
+    }
+
+    /**
+     * Translates every text into every target language. Results keep the request
+     * order (texts first, then target languages) and failed items carry their error.
+     */
+    public List<TranslationDTO> translateBatch(BatchTranslationRequest request) {
+        if (request.texts() == null || request.texts().isEmpty()) {
+            throw new TranslationException("Texts must not be empty", HttpStatus.BAD_REQUEST);
+        }
+        if (request.texts().stream().anyMatch(text -> text == null || text.isBlank())) {
+            throw new TranslationException("Texts must not be blank", HttpStatus.BAD_REQUEST);
+        }
+        if (request.sourceLang() == null || request.targetLangs() == null || request.targetLangs().isEmpty()) {
+            throw new TranslationException("Source and target languages must be provided", HttpStatus.BAD_REQUEST);
+        }
+        if (request.texts().size() * request.targetLangs().size() > maxItems) {
+            throw new TranslationException("Batch exceeds the limit of " + maxItems + " translations", HttpStatus.BAD_REQUEST);
+        }
+
+        List<Translation> items = new ArrayList<>();
+        for (String text : request.texts()) {
+            for (String targetLang : request.targetLangs()) {
+                items.add(newItem(text, request.sourceLang(), targetLang));
+            }
+        }
+
+        List<CompletableFuture<String>> futures = fanOut(items, maxConcurrency, new AtomicBoolean());
+        for (int i = 0; i < items.size(); i++) {
+            complete(items.get(i), futures.get(i));
+        }
+
+        return translationHistoryService.saveAll(items)
+                .stream()
+                .map(TranslationHistoryService::toDTO)
+                .toList();
+    }
+
+    /**
+     * Translates one text into all requested languages at once. Languages that do not
+     * finish before the deadline are cancelled and reported as failed, so the caller
+     * waits for the slowest call but never longer than the deadline.
+     */
+    public MultiTranslationResponse translateToTargets(MultiTranslationRequest request) {
+        if (request.text() == null || request.text().isBlank()) {
+            throw new TranslationException("Text must not be empty", HttpStatus.BAD_REQUEST);
+        }
+        if (request.sourceLang() == null || request.targetLangs() == null || request.targetLangs().isEmpty()) {
+            throw new TranslationException("Source and target languages must be provided", HttpStatus.BAD_REQUEST);
+        }
+
+        List<Translation> items = new ArrayList<>();
+        for (String targetLang : new LinkedHashSet<>(request.targetLangs())) {
+            try {
+                SupportedLanguage.fromLanguageCode(targetLang);
+            } catch (IllegalArgumentException e) {
+                throw new TranslationException(e.getMessage(), HttpStatus.BAD_REQUEST);
+            }
+            items.add(newItem(request.text(), request.sourceLang(), targetLang));
+        }
+
+        long deadlineMs = request.timeoutMs() != null && request.timeoutMs() > 0
+                ? Math.min(request.timeoutMs(), maxDeadline.toMillis())
+                : maxDeadline.toMillis();
+
+        AtomicBoolean abandoned = new AtomicBoolean();
+        List<CompletableFuture<String>> futures = fanOut(items, items.size(), abandoned);
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // per-item outcomes are collected below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        abandoned.set(true);
+
+        List<Translation> finished = new ArrayList<>();
+        List<Translation> timedOut = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            Translation item = items.get(i);
+            if (futures.get(i).isDone()) {
+                complete(item, futures.get(i));
+                finished.add(item);
+            } else {
+                futures.get(i).cancel(true);
+                item.setSuccess(false);
+                item.setErrorMessage("Translation deadline of " + deadlineMs + " ms exceeded");
+                timedOut.add(item);
+            }
+        }
+
+        if (!finished.isEmpty()) {
+            translationHistoryService.saveAll(finished);
+        }
+
+        return new MultiTranslationResponse(
+                request.text(),
+                request.sourceLang(),
+                items.stream().map(TranslationHistoryService::toDTO).toList(),
+                timedOut.isEmpty()
+        );
+    }
+
+    /**
+     * Translates a text of any length up to the document limit. The text is split into
+     * sentence-aligned chunks under the Translate request limit, the chunks are translated
+     * concurrently and joined back in order. Whitespace around each chunk is copied from
+     * the source, so line and paragraph breaks survive.
+     */
+    public TranslationDTO translateDocument(DocumentTranslationRequest request) {
+        validateDocument(request);
+
+        List<Chunk> chunks = TextSegmenter.split(request.text(), Locale.forLanguageTag(request.sourceLang()), maxChunkBytes)
+                .stream()
+                .map(Chunk::of)
+                .toList();
+        List<Translation> items = chunks.stream()
+                .filter(chunk -> !chunk.content().isEmpty())
+                .map(chunk -> newItem(chunk.content(), request.sourceLang(), request.targetLang()))
+                .toList();
+
+        AtomicBoolean abandoned = new AtomicBoolean();
+        List<CompletableFuture<String>> futures = fanOut(items, maxConcurrency, abandoned);
+
+        StringBuilder translated = new StringBuilder(request.text().length());
+        Iterator<CompletableFuture<String>> results = futures.iterator();
+        try {
+            for (Chunk chunk : chunks) {
+                translated.append(chunk.leading());
+                if (!chunk.content().isEmpty()) {
+                    translated.append(results.next().join());
+                }
+                translated.append(chunk.trailing());
+            }
+        } catch (CompletionException | CancellationException e) {
+            abandoned.set(true);
+            futures.forEach(future -> future.cancel(true));
+            String message = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            return TranslationHistoryService.toDTO(
+                    translationHistoryService.saveError(request.text(), request.sourceLang(), request.targetLang(), message));
+        }
+
+        return TranslationHistoryService.toDTO(
+                translationHistoryService.saveSuccess(request.text(), translated.toString(), request.sourceLang(), request.targetLang()));
+    }
+
+    /**
+     * Translates a document like {@link #translateDocument}, but sends every segment to the
+     * emitter as a "segment" event as soon as it and all segments before it are translated,
+     * followed by a "summary" event with the saved history entry. The first segment is
+     * about one sentence long and the following ones double in size, so the first event
+     * arrives after a single short translation while long texts still need few calls.
+     * A failed segment cancels the rest and ends the stream with a failed summary; a
+     * disconnected client cancels the segments that are still pending.
+     */
+    public void translateDocumentStream(DocumentTranslationRequest request, SseEmitter emitter) {
+        validateDocument(request);
+        Long userId = SecurityUtils.getCurrentUserId();
+
+        List<Chunk> chunks = TextSegmenter.splitGrowing(request.text(), Locale.forLanguageTag(request.sourceLang()),
+                        firstSegmentBytes, maxChunkBytes)
+                .stream()
+                .map(Chunk::of)
+                .toList();
+        List<Translation> items = chunks.stream()
+                .filter(chunk -> !chunk.content().isEmpty())
+                .map(chunk -> newItem(chunk.content(), request.sourceLang(), request.targetLang()))
+                .toList();
+
+        AtomicBoolean abandoned = new AtomicBoolean();
+        Iterator<CompletableFuture<String>> translations = fanOut(items, maxConcurrency, abandoned).iterator();
+        List<CompletableFuture<String>> futures = chunks.stream()
+                .map(chunk -> chunk.content().isEmpty() ? CompletableFuture.completedFuture("") : translations.next())
+                .toList();
+
+        SegmentStream stream = new SegmentStream(request, userId, chunks, futures, abandoned, emitter);
+        emitter.onTimeout(stream::abandon);
+        emitter.onError(error -> stream.abandon());
+        futures.forEach(future -> future.whenComplete((translated, error) -> stream.emitReady()));
+    }
+
+    private void validateDocument(DocumentTranslationRequest request) {
+        if (request.text() == null || request.text().isBlank()) {
+            throw new TranslationException("Text must not be empty", HttpStatus.BAD_REQUEST);
+        }
+        if (request.sourceLang() == null || request.targetLang() == null) {
+            throw new TranslationException("Source and target languages must be provided", HttpStatus.BAD_REQUEST);
+        }
+        if (TextSegmenter.utf8Length(request.text()) > maxDocumentBytes) {
+            throw new TranslationException("Document exceeds the limit of " + maxDocumentBytes + " bytes", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private List<CompletableFuture<String>> fanOut(List<Translation> items, int concurrency, AtomicBoolean abandoned) {
+        Semaphore permits = new Semaphore(concurrency);
+        return items.stream()
+                .map(item -> CompletableFuture.supplyAsync(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        if (abandoned.get()) {
+                            throw new CancellationException("Translation abandoned");
+                        }
+                        return awsTranslationService.translate(TranslationText.contentOf(item.getSourceText()),
+                                TranslationLanguage.codeOf(item.getSourceLanguage()), TranslationLanguage.codeOf(item.getTargetLanguage()));
+                    } finally {
+                        permits.release();
+                    }
+                }, translationExecutor))
+                .toList();
+    }
+
+    private static Translation newItem(String text, String sourceLang, String targetLang) {
+        return Translation.builder()
+                .sourceText(TranslationText.of(text))
+                .sourceLanguage(TranslationLanguage.of(sourceLang))
+                .targetLanguage(TranslationLanguage.of(targetLang))
+                .build();
+    }
+
+    private static void complete(Translation item, CompletableFuture<String> future) {
+        try {
+            item.setTranslatedText(TranslationText.of(future.join()));
+            item.setSuccess(true);
+        } catch (CompletionException | CancellationException e) {
+            item.setSuccess(false);
+            item.setErrorMessage(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        }
+    }
+
+    /**
+     * Emits the segments of one streamed document in order. Futures complete on any
+     * thread, the lock makes sure only one of them sends at a time.
+     */
+    private final class SegmentStream {
+
+        private final DocumentTranslationRequest request;
+        private final Long userId;
+        private final List<Chunk> chunks;
+        private final List<CompletableFuture<String>> futures;
+        private final AtomicBoolean abandoned;
+        private final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final StringBuilder translated;
+        private int next;
+        private boolean finished;
+
+        SegmentStream(DocumentTranslationRequest request, Long userId, List<Chunk> chunks,
+                      List<CompletableFuture<String>> futures, AtomicBoolean abandoned, SseEmitter emitter) {
+            this.request = request;
+            this.userId = userId;
+            this.chunks = chunks;
+            this.futures = futures;
+            this.abandoned = abandoned;
+            this.emitter = emitter;
+            this.translated = new StringBuilder(request.text().length());
+        }
+
+        void emitReady() {
+            lock.lock();
+            try {
+                while (!finished && next < chunks.size() && futures.get(next).isDone()) {
+                    Chunk chunk = chunks.get(next);
+                    String segment;
+                    try {
+                        segment = chunk.leading() + futures.get(next).join() + chunk.trailing();
+                    } catch (CompletionException | CancellationException e) {
+                        String message = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                        finish(translationHistoryService.saveError(userId, request.text(), request.sourceLang(), request.targetLang(), message));
+                        return;
+                    }
+                    translated.append(segment);
+                    send(SseEmitter.event()
+                            .id(String.valueOf(next))
+                            .name("segment")
+                            .data(new TranslationSegment(next, chunk.leading() + chunk.content() + chunk.trailing(), segment)));
+                    next++;
+                }
+                if (!finished && next == chunks.size()) {
+                    finish(translationHistoryService.saveSuccess(userId, request.text(), translated.toString(),
+                            request.sourceLang(), request.targetLang()));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void abandon() {
+            lock.lock();
+            try {
+                finished = true;
+                abandoned.set(true);
+                futures.forEach(future -> future.cancel(true));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void finish(Translation translation) {
+            send(SseEmitter.event().name("summary").data(TranslationHistoryService.toDTO(translation)));
+            if (!finished) {
+                finished = true;
+                abandoned.set(true);
+                futures.forEach(future -> future.cancel(true));
+                emitter.complete();
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) {
+            if (finished) {
+                return;
+            }
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // the client went away
+                abandon();
+            }
+        }
+    }
+
+    private record Chunk(String leading, String content, String trailing) {
+        static Chunk of(String text) {
+            int start = 0;
+            while (start < text.length() && Character.isWhitespace(text.charAt(start))) {
+                start++;
+            }
+            int end = text.length();
+            while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+                end--;
+            }
+            return new Chunk(text.substring(0, start), text.substring(start, end), text.substring(end));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.languagecommunication.translation.awstranslation.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.example.languagecommunication.translation.awstranslation.DTO.DetectedLanguage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded in-process cache of language detection results, keyed by the normalized,
+ * lower-cased text. Entries are weighted by the text length like {@link TranslationCache}.
+ * Only answers from Comprehend are stored, so a hit can be trusted without confirmation.
+ */
+@Component
+public class LanguageDetectionCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final Cache<String, DetectedLanguage> cache;
+
+    public LanguageDetectionCache(@Value("${translation.detection.cache.max-weight:5000000}") long maxWeight,
+                                  @Value("${translation.detection.cache.ttl:24h}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((String text, DetectedLanguage language) -> ENTRY_OVERHEAD + 2 * text.length())
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<DetectedLanguage> get(String text) {
+        return Optional.ofNullable(cache.getIfPresent(key(text)));
+    }
+
+    public void put(String text, DetectedLanguage language) {
+        cache.put(key(text), language);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static String key(String text) {
+        return WHITESPACE.matcher(Normalizer.normalize(text.strip(), Normalizer.Form.NFC))
+                .replaceAll(" ")
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,253 @@
+package org.example.languagecommunication.translation.awstranslation.service;
+
+import org.example.languagecommunication.translation.awstranslation.DTO.DetectedLanguage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.Character.UnicodeScript;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Detects the language of easy inputs without calling Amazon Comprehend. Text in a
+ * script that only one supported language uses is answered from the script alone, and
+ * letters that only one language of a shared script uses decide between those languages.
+ * Other text in a shared script is scored against the character trigram profiles built
+ * from language-profiles.properties, and is answered only when one language wins by a clear
+ * margin and enough of the text's trigrams occur in its profile, so that text in a language
+ * without a profile is not forced onto the nearest one. Everything else is left to Comprehend.
+ */
+@Component
+public class LocalLanguageDetector {
+
+    private static final String PROFILES = "language-profiles.properties";
+
+    // share of letters that must be in one script before the script decides anything
+    private static final double MIN_SCRIPT_SHARE = 0.9;
+    private static final int MIN_TRIGRAMS = 12;
+    private static final double MIN_COVERAGE = 0.25;
+    private static final float MAX_CONFIDENCE = 0.99f;
+    private static final float MARKER_CONFIDENCE = 0.95f;
+
+    // Han is missing on purpose, Japanese written in kanji only looks exactly like Chinese
+    private static final Map<UnicodeScript, String> SINGLE_LANGUAGE_SCRIPTS = Map.ofEntries(
+            Map.entry(UnicodeScript.HIRAGANA, "ja"),
+            Map.entry(UnicodeScript.KATAKANA, "ja"),
+            Map.entry(UnicodeScript.HANGUL, "ko"),
+            Map.entry(UnicodeScript.THAI, "th"),
+            Map.entry(UnicodeScript.HEBREW, "he"),
+            Map.entry(UnicodeScript.GREEK, "el"),
+            Map.entry(UnicodeScript.ARMENIAN, "hy"),
+            Map.entry(UnicodeScript.GEORGIAN, "ka"),
+            Map.entry(UnicodeScript.BENGALI, "bn"),
+            Map.entry(UnicodeScript.GUJARATI, "gu"),
+            Map.entry(UnicodeScript.GURMUKHI, "pa"),
+            Map.entry(UnicodeScript.KANNADA, "kn"),
+            Map.entry(UnicodeScript.MALAYALAM, "ml"),
+            Map.entry(UnicodeScript.TAMIL, "ta"),
+            Map.entry(UnicodeScript.TELUGU, "te"),
+            Map.entry(UnicodeScript.SINHALA, "si"),
+            Map.entry(UnicodeScript.ETHIOPIC, "am"),
+            Map.entry(UnicodeScript.MONGOLIAN, "mn")
+    );
+
+    // checked in order, the first language whose letters occur in the text wins
+    private static final List<Marker> MARKERS = List.of(
+            new Marker(UnicodeScript.CYRILLIC, "әғқңұһ", "kk"),
+            new Marker(UnicodeScript.CYRILLIC, "өү", "mn"),
+            new Marker(UnicodeScript.CYRILLIC, "іїєґ", "uk"),
+            new Marker(UnicodeScript.CYRILLIC, "ыэё", "ru"),
+            new Marker(UnicodeScript.CYRILLIC, "ѓќѕ", "mk"),
+            new Marker(UnicodeScript.CYRILLIC, "ђћ", "sr"),
+            new Marker(UnicodeScript.ARABIC, "ټډړښږځڅۍې", "ps"),
+            new Marker(UnicodeScript.ARABIC, "ٹڈڑںے", "ur"),
+            new Marker(UnicodeScript.LATIN, "ə", "az"),
+            new Marker(UnicodeScript.LATIN, "ơưạảấầẩẫậắằẳẵặẹẻẽếềểễệỉịọỏốồổỗộớờởỡợụủứừửữựỳỵỷỹ", "vi"),
+            new Marker(UnicodeScript.LATIN, "þð", "is"),
+            new Marker(UnicodeScript.LATIN, "ŵŷ", "cy"),
+            new Marker(UnicodeScript.LATIN, "ħġċ", "mt")
+    );
+
+    private final Map<UnicodeScript, List<Profile>> profiles;
+    private final int vocabularySize;
+    private final double minMargin;
+
+    /**
+     * @param minMargin how much higher the average log-likelihood per trigram of the best
+     *                  language must be than that of the runner-up
+     */
+    public LocalLanguageDetector(@Value("${translation.detection.local.min-margin:0.05}") double minMargin) {
+        this.minMargin = minMargin;
+        this.profiles = new EnumMap<>(UnicodeScript.class);
+
+        Set<String> vocabulary = new HashSet<>();
+        loadSamples().forEach((language, sample) -> {
+            Map<String, Integer> counts = new HashMap<>();
+            trigrams(sample).forEach(trigram -> counts.merge(trigram, 1, Integer::sum));
+            vocabulary.addAll(counts.keySet());
+            profiles.computeIfAbsent(dominantScript(sample).script(), script -> new ArrayList<>())
+                    .add(new Profile(language, counts, counts.values().stream().mapToInt(Integer::intValue).sum()));
+        });
+        this.vocabularySize = vocabulary.size() + 1;
+    }
+
+    public Optional<DetectedLanguage> detect(String text) {
+        ScriptShare dominant = dominantScript(text);
+        if (dominant == null) {
+            return Optional.empty();
+        }
+
+        String language = SINGLE_LANGUAGE_SCRIPTS.get(dominant.script());
+        if (language != null) {
+            return Optional.of(new DetectedLanguage(language, (float) Math.min(dominant.share(), MAX_CONFIDENCE)));
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (Marker marker : MARKERS) {
+            if (marker.script() == dominant.script() && lower.codePoints().anyMatch(marker::contains)) {
+                return Optional.of(new DetectedLanguage(marker.language(), MARKER_CONFIDENCE));
+            }
+        }
+
+        List<Profile> candidates = profiles.get(dominant.script());
+        return candidates == null ? Optional.empty() : score(lower, candidates);
+    }
+
+    private Optional<DetectedLanguage> score(String text, List<Profile> candidates) {
+        List<String> trigrams = trigrams(text);
+        if (trigrams.size() < MIN_TRIGRAMS) {
+            return Optional.empty();
+        }
+
+        double[] logLikelihoods = new double[candidates.size()];
+        int best = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            Profile profile = candidates.get(i);
+            double sum = 0;
+            for (String trigram : trigrams) {
+                sum += Math.log((profile.counts().getOrDefault(trigram, 0) + 1.0) / (profile.total() + vocabularySize));
+            }
+            logLikelihoods[i] = sum / trigrams.size();
+            if (logLikelihoods[i] > logLikelihoods[best]) {
+                best = i;
+            }
+        }
+
+        // posterior of the best language over the whole text, and its lead per trigram
+        double normalizer = 0;
+        double runnerUp = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < logLikelihoods.length; i++) {
+            normalizer += Math.exp(trigrams.size() * (logLikelihoods[i] - logLikelihoods[best]));
+            if (i != best) {
+                runnerUp = Math.max(runnerUp, logLikelihoods[i]);
+            }
+        }
+        if (logLikelihoods[best] - runnerUp < minMargin) {
+            return Optional.empty();
+        }
+
+        Profile winner = candidates.get(best);
+        long covered = trigrams.stream().filter(winner.counts()::containsKey).count();
+        if ((double) covered / trigrams.size() < MIN_COVERAGE) {
+            return Optional.empty();
+        }
+        return Optional.of(new DetectedLanguage(winner.language(), (float) Math.min(1 / normalizer, MAX_CONFIDENCE)));
+    }
+
+    /**
+     * Script of most letters of the text. Kana mixed with Han is reported as Hiragana,
+     * so that Japanese text is not mistaken for Chinese.
+     */
+    private static ScriptShare dominantScript(String text) {
+        Map<UnicodeScript, Integer> letters = new EnumMap<>(UnicodeScript.class);
+        int total = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetter(codePoint)) {
+                letters.merge(UnicodeScript.of(codePoint), 1, Integer::sum);
+                total++;
+            }
+        }
+        if (total == 0) {
+            return null;
+        }
+
+        int kana = letters.getOrDefault(UnicodeScript.HIRAGANA, 0) + letters.getOrDefault(UnicodeScript.KATAKANA, 0);
+        int han = letters.getOrDefault(UnicodeScript.HAN, 0);
+        if (kana > 0 && kana + han >= MIN_SCRIPT_SHARE * total) {
+            return new ScriptShare(UnicodeScript.HIRAGANA, (double) (kana + han) / total);
+        }
+
+        Map.Entry<UnicodeScript, Integer> top = letters.entrySet()
+                .stream()
+                .max(Map.Entry.comparingByValue())
+                .orElseThrow();
+        double share = (double) top.getValue() / total;
+        return share >= MIN_SCRIPT_SHARE ? new ScriptShare(top.getKey(), share) : null;
+    }
+
+    private static List<String> trigrams(String text) {
+        List<String> trigrams = new ArrayList<>();
+        StringBuilder word = new StringBuilder(" ");
+        text.toLowerCase(Locale.ROOT).codePoints().forEach(codePoint -> {
+            if (Character.isLetter(codePoint) || Character.getType(codePoint) == Character.NON_SPACING_MARK
+                    || Character.getType(codePoint) == Character.COMBINING_SPACING_MARK) {
+                word.appendCodePoint(codePoint);
+            } else {
+                addWord(word, trigrams);
+            }
+        });
+        addWord(word, trigrams);
+        return trigrams;
+    }
+
+    private static void addWord(StringBuilder word, List<String> trigrams) {
+        if (word.length() > 1) {
+            word.append(' ');
+            int[] codePoints = word.codePoints().toArray();
+            for (int i = 0; i + 3 <= codePoints.length; i++) {
+                trigrams.add(new String(codePoints, i, 3));
+            }
+        }
+        word.setLength(1);
+    }
+
+    private static Map<String, String> loadSamples() {
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(new ClassPathResource(PROFILES).getInputStream(), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load " + PROFILES, e);
+        }
+        Map<String, String> samples = new HashMap<>();
+        properties.stringPropertyNames().forEach(language -> samples.put(language, properties.getProperty(language)));
+        return samples;
+    }
+
+    private record ScriptShare(UnicodeScript script, double share) {
+    }
+
+    private record Marker(UnicodeScript script, String letters, String language) {
+        boolean contains(int codePoint) {
+            return letters.indexOf(codePoint) >= 0;
+        }
+    }
+
+    private record Profile(String language, Map<String, Integer> counts, int total) {
+    }
+}
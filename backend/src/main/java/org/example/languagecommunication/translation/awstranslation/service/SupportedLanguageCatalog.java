@@ -0,0 +1,31 @@
+package org.example.languagecommunication.translation.awstranslation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.languagecommunication.common.utils.PrecomputedResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * The supported languages list serialized once at startup. The list only changes
+ * with a deployment, so clients may reuse it for an hour and revalidate by ETag.
+ */
+@Component
+public class SupportedLanguageCatalog {
+
+    private final PrecomputedResponse response;
+
+    public SupportedLanguageCatalog(AwsTranslationService awsTranslationService, ObjectMapper objectMapper) throws JsonProcessingException {
+        this.response = PrecomputedResponse.of(
+                objectMapper.writeValueAsBytes(awsTranslationService.getSupportedLanguages()),
+                MediaType.APPLICATION_JSON,
+                CacheControl.maxAge(Duration.ofHours(1)).cachePublic());
+    }
+
+    public PrecomputedResponse getResponse() {
+        return response;
+    }
+}
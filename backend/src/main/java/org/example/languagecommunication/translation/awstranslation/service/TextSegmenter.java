@@ -0,0 +1,117 @@
+package org.example.languagecommunication.translation.awstranslation.service;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into chunks of at most {@code maxBytes} UTF-8 bytes. Chunks end on sentence
+ * boundaries where possible, then on word boundaries, and concatenating them gives back
+ * the original text, whitespace included.
+ */
+public final class TextSegmenter {
+
+    private TextSegmenter() {
+    }
+
+    public static List<String> split(String text, Locale locale, int maxBytes) {
+        return pack(pieces(text, locale, maxBytes), maxBytes, maxBytes);
+    }
+
+    /**
+     * Like {@link #split}, but the first chunk holds about {@code firstBytes} and every
+     * following chunk may be twice as large as the one before, up to {@code maxBytes}.
+     * A sentence longer than the current budget still forms one chunk of its own.
+     */
+    public static List<String> splitGrowing(String text, Locale locale, int firstBytes, int maxBytes) {
+        return pack(pieces(text, locale, maxBytes), Math.min(firstBytes, maxBytes), maxBytes);
+    }
+
+    private static List<String> pieces(String text, Locale locale, int maxBytes) {
+        List<String> pieces = new ArrayList<>();
+        for (String sentence : boundaries(text, BreakIterator.getSentenceInstance(locale))) {
+            if (utf8Length(sentence) <= maxBytes) {
+                pieces.add(sentence);
+                continue;
+            }
+            for (String word : boundaries(sentence, BreakIterator.getWordInstance(locale))) {
+                if (utf8Length(word) <= maxBytes) {
+                    pieces.add(word);
+                } else {
+                    pieces.addAll(splitCodePoints(word, maxBytes));
+                }
+            }
+        }
+        return pieces;
+    }
+
+    public static int utf8Length(CharSequence text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private static List<String> boundaries(String text, BreakIterator iterator) {
+        iterator.setText(text);
+        List<String> parts = new ArrayList<>();
+        int start = iterator.first();
+        for (int end = iterator.next(); end != BreakIterator.DONE; start = end, end = iterator.next()) {
+            parts.add(text.substring(start, end));
+        }
+        return parts;
+    }
+
+    private static List<String> splitCodePoints(String text, int maxBytes) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        int bytes = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            int size = utf8Length(Character.toString(codePoint));
+            if (bytes + size > maxBytes) {
+                parts.add(text.substring(start, i));
+                start = i;
+                bytes = 0;
+            }
+            bytes += size;
+            i += Character.charCount(codePoint);
+        }
+        parts.add(text.substring(start));
+        return parts;
+    }
+
+    private static List<String> pack(List<String> pieces, int firstBytes, int maxBytes) {
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int currentBytes = 0;
+        int budget = firstBytes;
+        for (String piece : pieces) {
+            int bytes = utf8Length(piece);
+            if (currentBytes + bytes > budget && !current.isEmpty()) {
+                chunks.add(current.toString());
+                current.setLength(0);
+                currentBytes = 0;
+                budget = (int) Math.min(budget * 2L, maxBytes);
+            }
+            current.append(piece);
+            currentBytes += bytes;
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current.toString());
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.languagecommunication.translation.awstranslation.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded in-process cache of successful AWS Translate results.
+ * Entries are weighted by their character count, expire after a fixed TTL
+ * and are evicted with Caffeine's W-TinyLFU policy.
+ */
+@Component
+public class TranslationCache {
+
+    // line breaks are kept, a text must not be served with another text's paragraph layout
+    private static final Pattern BLANKS = Pattern.compile("[ \\t]+");
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final Cache<Key, String> cache;
+
+    public TranslationCache(@Value("${translation.cache.max-weight:10000000}") long maxWeight,
+                            @Value("${translation.cache.ttl:24h}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, String value) -> ENTRY_OVERHEAD + 2 * (key.text().length() + value.length()))
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<String> get(String text, String sourceLang, String targetLang) {
+        return Optional.ofNullable(cache.getIfPresent(Key.of(text, sourceLang, targetLang)));
+    }
+
+    public void put(String text, String sourceLang, String targetLang, String translatedText) {
+        if (translatedText == null) {
+            return;
+        }
+        cache.put(Key.of(text, sourceLang, targetLang), translatedText);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    record Key(String text, String sourceLang, String targetLang) {
+        static Key of(String text, String sourceLang, String targetLang) {
+            return new Key(normalize(text), sourceLang.toLowerCase(Locale.ROOT), targetLang.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * NFC form without surrounding whitespace and with runs of spaces and tabs collapsed.
+     */
+    static String normalize(String text) {
+        return BLANKS.matcher(Normalizer.normalize(text.strip(), Normalizer.Form.NFC)).replaceAll(" ");
+    }
+}
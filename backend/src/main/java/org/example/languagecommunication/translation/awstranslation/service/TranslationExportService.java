@@ -0,0 +1,106 @@
+package org.example.languagecommunication.translation.awstranslation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.languagecommunication.common.utils.SecurityUtils;
+import org.example.languagecommunication.translation.awstranslation.model.ExportFormat;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationView;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a user's whole translation history row by row, so memory use does not
+ * depend on the size of the history.
+ */
+@Service
+public class TranslationExportService {
+
+    private static final String CSV_HEADER = "id,timestamp,sourceLanguage,targetLanguage,success,sourceText,translatedText,errorMessage";
+
+    private final TranslationRepository translationRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public TranslationExportService(TranslationRepository translationRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper) {
+        this.translationRepository = translationRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Prepares the export of the current user's history. The user is resolved on the
+     * calling thread, the rows are read when the returned body is written.
+     */
+    public StreamingResponseBody export(ExportFormat format, boolean gzip) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        return outputStream -> {
+            OutputStream out = gzip ? new GZIPOutputStream(outputStream, 8192) : outputStream;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+            write(userId, format, writer);
+            writer.flush();
+            if (out instanceof GZIPOutputStream gzipOut) {
+                gzipOut.finish();
+            }
+        };
+    }
+
+    private void write(Long userId, ExportFormat format, Writer writer) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<TranslationView> rows = translationRepository.streamByUserId(userId)) {
+                if (format == ExportFormat.CSV) {
+                    writer.write(CSV_HEADER);
+                    writer.write('\n');
+                }
+                for (TranslationView row : (Iterable<TranslationView>) rows::iterator) {
+                    if (format == ExportFormat.CSV) {
+                        writeCsv(row, writer);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(TranslationHistoryService.toDTO(row)));
+                        writer.write('\n');
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void writeCsv(TranslationView row, Writer writer) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getTimestamp()));
+        writer.write(',');
+        writer.write(csv(row.getSourceLanguage()));
+        writer.write(',');
+        writer.write(csv(row.getTargetLanguage()));
+        writer.write(',');
+        writer.write(String.valueOf(row.isSuccess()));
+        writer.write(',');
+        writer.write(csv(row.getSourceText()));
+        writer.write(',');
+        writer.write(csv(row.getTranslatedText()));
+        writer.write(',');
+        writer.write(csv(row.getErrorMessage()));
+        writer.write('\n');
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
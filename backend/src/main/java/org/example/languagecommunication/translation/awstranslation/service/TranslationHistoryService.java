@@ -4,76 +4,191 @@ import org.example.languagecommunication.auth.model.User;
 import org.example.languagecommunication.auth.repository.UserRepository;
 import org.example.languagecommunication.common.utils.SecurityUtils;
 import org.example.languagecommunication.exception.TranslationException;
+import org.example.languagecommunication.translation.awstranslation.model.MatchType;
 import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationLanguage;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationText;
 import org.example.languagecommunication.translation.awstranslation.DTO.TranslationDTO;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationHistoryQuery;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationPage;
 import org.example.languagecommunication.translation.awstranslation.repository.TranslationRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationStatsRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
 
 @Service
 public class TranslationHistoryService {
 
+    // position before the newest possible row, used when no cursor is given
+    private static final LocalDateTime FIRST_PAGE_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     private final TranslationRepository translationRepository;
     private final UserRepository userRepository;
-
-    public TranslationHistoryService(TranslationRepository translationRepository, UserRepository userRepository) {
+    private final TranslationHistoryWriter translationHistoryWriter;
+    private final TranslationStatsRepository translationStatsRepository;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public TranslationHistoryService(TranslationRepository translationRepository,
+                                     UserRepository userRepository,
+                                     TranslationHistoryWriter translationHistoryWriter,
+                                     TranslationStatsRepository translationStatsRepository,
+                                     @Value("${translation.history.page-size:20}") int defaultPageSize,
+                                     @Value("${translation.history.max-page-size:100}") int maxPageSize) {
         this.translationRepository = translationRepository;
         this.userRepository = userRepository;
+        this.translationHistoryWriter = translationHistoryWriter;
+        this.translationStatsRepository = translationStatsRepository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     public Translation saveSuccess(String sourceText, String translatedText, String sourceLang, String targetLang) {
-        Long userId = SecurityUtils.getCurrentUserId();
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return saveSuccess(SecurityUtils.getCurrentUserId(), sourceText, translatedText, sourceLang, targetLang);
+    }
+
+    public Translation saveSuccess(String sourceText, String translatedText, String sourceLang, String targetLang, MatchType matchType) {
+        return saveSuccess(SecurityUtils.getCurrentUserId(), sourceText, translatedText, sourceLang, targetLang, matchType);
+    }
+
+    public Translation saveSuccess(Long userId, String sourceText, String translatedText, String sourceLang, String targetLang) {
+        return saveSuccess(userId, sourceText, translatedText, sourceLang, targetLang, null);
+    }
 
+    public Translation saveSuccess(Long userId, String sourceText, String translatedText, String sourceLang, String targetLang,
+                                   MatchType matchType) {
         Translation translation = new Translation();
-        translation.setSourceText(sourceText);
-        translation.setTranslatedText(translatedText);
-        translation.setSourceLanguage(sourceLang);
-        translation.setTargetLanguage(targetLang);
+        translation.setSourceText(TranslationText.of(sourceText));
+        translation.setTranslatedText(TranslationText.of(translatedText));
+        translation.setSourceLanguage(TranslationLanguage.of(sourceLang));
+        translation.setTargetLanguage(TranslationLanguage.of(targetLang));
         translation.setTimestamp(LocalDateTime.now());
         translation.setSuccess(true);
-        translation.setUser(user);
+        translation.setMatchType(matchType);
+        translation.setUser(userRepository.getReferenceById(userId));
 
-        return translationRepository.save(translation);
+        translationHistoryWriter.write(translation);
+        return translation;
     }
 
     public Translation saveError(String sourceText, String sourceLang, String targetLang, String errorMessage) {
+        return saveError(SecurityUtils.getCurrentUserId(), sourceText, sourceLang, targetLang, errorMessage);
+    }
+
+    public Translation saveError(Long userId, String sourceText, String sourceLang, String targetLang, String errorMessage) {
         Translation translation = new Translation();
-        translation.setSourceText(sourceText);
-        translation.setSourceLanguage(sourceLang);
-        translation.setTargetLanguage(targetLang);
+        translation.setSourceText(TranslationText.of(sourceText));
+        translation.setSourceLanguage(TranslationLanguage.of(sourceLang));
+        translation.setTargetLanguage(TranslationLanguage.of(targetLang));
         translation.setTimestamp(LocalDateTime.now());
         translation.setSuccess(false);
         translation.setErrorMessage(errorMessage);
+        translation.setUser(userRepository.getReferenceById(userId));
+
+        translationHistoryWriter.write(translation);
+        return translation;
+    }
 
+
+    public List<Translation> saveAll(List<Translation> translations) {
+        User user = userRepository.getReferenceById(SecurityUtils.getCurrentUserId());
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Translation translation : translations) {
+            translation.setTimestamp(now);
+            translation.setUser(user);
+            translationHistoryWriter.write(translation);
+        }
+
+        return translations;
+    }
+
+    public static TranslationDTO toDTO(Translation t) {
+        return new TranslationDTO(
+                t.getId(),
+                TranslationText.contentOf(t.getSourceText()),
+                TranslationText.contentOf(t.getTranslatedText()),
+                TranslationLanguage.codeOf(t.getSourceLanguage()),
+                TranslationLanguage.codeOf(t.getTargetLanguage()),
+                t.isSuccess(),
+                t.getErrorMessage(),
+                t.getTimestamp(),
+                t.getMatchType(),
+                null
+        );
+    }
+
+    public static TranslationDTO toDTO(TranslationView t) {
+        return new TranslationDTO(
+                t.getId(),
+                t.getSourceText(),
+                t.getTranslatedText(),
+                t.getSourceLanguage(),
+                t.getTargetLanguage(),
+                t.isSuccess(),
+                t.getErrorMessage(),
+                t.getTimestamp(),
+                t.getMatchType(),
+                null
+        );
+    }
+
+    /**
+     * Returns one page of the current user's history, newest first. The next page
+     * is requested with the returned cursor, which is null on the last page.
+     */
+    public TranslationPage getTranslationPage(TranslationHistoryQuery query) {
         Long userId = SecurityUtils.getCurrentUserId();
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        int limit = query.limit() == null ? defaultPageSize : Math.clamp(query.limit(), 1, maxPageSize);
 
-        translation.setUser(user);
+        Cursor cursor = query.cursor() == null || query.cursor().isBlank()
+                ? new Cursor(FIRST_PAGE_TIMESTAMP, Long.MAX_VALUE)
+                : Cursor.decode(query.cursor());
 
-        return translationRepository.save(translation);
+        List<TranslationView> rows = translationRepository.findPage(
+                userId, cursor.timestamp(), cursor.id(),
+                query.sourceLang(), query.targetLang(), query.success(), query.from(), query.to(),
+                Limit.of(limit + 1));
+
+        boolean hasMore = rows.size() > limit;
+        List<TranslationView> page = hasMore ? rows.subList(0, limit) : rows;
+
+        return new TranslationPage(
+                page.stream().map(TranslationHistoryService::toDTO).toList(),
+                hasMore ? new Cursor(page.getLast().getTimestamp(), page.getLast().getId()).encode() : null
+        );
     }
 
+    private record Cursor(LocalDateTime timestamp, long id) {
+        String encode() {
+            String position = timestamp + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                return new Cursor(LocalDateTime.parse(position[0]), Long.parseLong(position[1]));
+            } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+                throw new TranslationException("Invalid cursor", HttpStatus.BAD_REQUEST);
+            }
+        }
+    }
 
     public List<TranslationDTO> getAllTranslations() {
         Long userId = SecurityUtils.getCurrentUserId();
         return translationRepository.findByUserId(userId)
                 .stream()
-                .map(t -> new TranslationDTO(
-                        t.getId(),
-                        t.getSourceText(),
-                        t.getTranslatedText(),
-                        t.getSourceLanguage(),
-                        t.getTargetLanguage(),
-                        t.isSuccess(),
-                        t.getErrorMessage(),
-                        t.getTimestamp()
-                ))
+                .map(TranslationHistoryService::toDTO)
                 .toList();
     }
 
@@ -82,16 +197,7 @@ public class TranslationHistoryService {
         Long userId = SecurityUtils.getCurrentUserId();
         return translationRepository.findByUserIdAndSuccessTrue(userId)
                 .stream()
-                .map(t -> new TranslationDTO(
-                        t.getId(),
-                        t.getSourceText(),
-                        t.getTranslatedText(),
-                        t.getSourceLanguage(),
-                        t.getTargetLanguage(),
-                        t.isSuccess(),
-                        t.getErrorMessage(),
-                        t.getTimestamp()
-                ))
+                .map(TranslationHistoryService::toDTO)
                 .toList();
     }
 
@@ -105,7 +211,7 @@ public class TranslationHistoryService {
         }
 
         translationRepository.deleteById(id);
-
+        translationStatsRepository.decrement(translation);
     }
 
 }
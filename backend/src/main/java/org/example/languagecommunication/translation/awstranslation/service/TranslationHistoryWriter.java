@@ -0,0 +1,403 @@
+package org.example.languagecommunication.translation.awstranslation.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.languagecommunication.translation.awstranslation.model.MatchType;
+import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationText;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationSearchRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationStatsRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationTextRepository;
+import org.hibernate.StatelessSession;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind pipeline for translation history. Rows get their id up front from
+ * the entity's sequence, are queued in memory and inserted by a background thread
+ * in JDBC batches once the batch is full or the flush interval has passed.
+ * When the queue stays full the caller inserts its own row once the worker is done
+ * with its batch, and the queue is drained before the application context shuts down.
+ * Every inserted batch is also added to the daily statistics counters.
+ * <p>
+ * Texts and language codes are stored once in lookup tables and rows reference them
+ * by id. A translation identical to one the same user made through this writer within
+ * the repeat window and on the same day does not get a row of its own: it gets the id
+ * of that row, whose timestamp is moved forward and whose repeat count is incremented.
+ * A row never spans midnight, so all of its repeats are counted on the day of its
+ * timestamp. On PostgreSQL every inserted row also gets its search document.
+ */
+@Component
+public class TranslationHistoryWriter implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslationHistoryWriter.class);
+
+    private static final String INSERT_COLUMNS = "INSERT INTO translations " +
+            "(id, source_text_id, translated_text_id, source_language_id, target_language_id, timestamp, success, error_message, " +
+            "match_type, user_id, repeat_count";
+
+    private static final String INSERT_SQL = INSERT_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String POSTGRES_INSERT_SQL = INSERT_COLUMNS + ", search_vector) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, " + TranslationSearchRepository.SEARCH_VECTOR + ")";
+
+    // the timestamp condition prunes the partitions older than the repeat window
+    private static final String REPEAT_SQL =
+            "UPDATE translations SET timestamp = ?, repeat_count = repeat_count + ? WHERE id = ? AND timestamp >= ?";
+
+    // Existing rows were created by an identity column, so the sequence has to start above them.
+    private static final String ALIGN_SEQUENCE_SQL = "SELECT setval('translations_seq', " +
+            "GREATEST((SELECT COALESCE(MAX(id), 0) FROM translations) + 50, (SELECT last_value FROM translations_seq)))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SessionFactoryImplementor sessionFactory;
+    private final TranslationStatsRepository translationStatsRepository;
+    private final TranslationTextRepository translationTextRepository;
+    private final TranslationSearchRepository translationSearchRepository;
+    private final boolean postgres;
+    private final BlockingQueue<Translation> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final Duration repeatWindow;
+    private final ReentrantLock insertLock = new ReentrantLock();
+    // latest row of every translation written within the repeat window
+    private final Cache<RepeatKey, RecentRow> recentRows;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public TranslationHistoryWriter(JdbcTemplate jdbcTemplate,
+                                    EntityManagerFactory entityManagerFactory,
+                                    TranslationStatsRepository translationStatsRepository,
+                                    TranslationTextRepository translationTextRepository,
+                                    TranslationSearchRepository translationSearchRepository,
+                                    @Value("${translation.history.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${translation.history.batch-size:100}") int batchSize,
+                                    @Value("${translation.history.flush-interval:200ms}") Duration flushInterval,
+                                    @Value("${translation.history.offer-timeout:50ms}") Duration offerTimeout,
+                                    @Value("${translation.history.repeat-window:10m}") Duration repeatWindow,
+                                    @Value("${translation.history.repeat-max-rows:100000}") long repeatMaxRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.translationStatsRepository = translationStatsRepository;
+        this.translationTextRepository = translationTextRepository;
+        this.translationSearchRepository = translationSearchRepository;
+        this.postgres = sessionFactory.getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+        this.repeatWindow = repeatWindow;
+        this.recentRows = Caffeine.newBuilder()
+                .maximumSize(repeatMaxRows)
+                .expireAfterWrite(repeatWindow)
+                .build();
+    }
+
+    /**
+     * Assigns an id to the translation and schedules its insert. A repeat gets the id
+     * of the row it is folded into. The translation must reference its user, a lazy
+     * reference is enough.
+     */
+    public void write(Translation translation) {
+        if (translation.getId() == null) {
+            translation.setId(repeatWindow.isPositive() ? rowIdFor(translation) : nextId());
+        }
+
+        try {
+            if (running && queue.offer(translation, offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        insert(List.of(translation));
+    }
+
+    /**
+     * Id of the user's latest identical translation while it is inside the repeat window,
+     * otherwise a new one.
+     */
+    private Long rowIdFor(Translation translation) {
+        LocalDateTime since = foldSince(translation.getTimestamp());
+        return recentRows.asMap().compute(RepeatKey.of(translation), (key, recent) ->
+                new RecentRow(recent != null && !recent.timestamp().isBefore(since) ? recent.id() : nextId(),
+                        translation.getTimestamp())).id();
+    }
+
+    /**
+     * Earliest timestamp of a row that a repeat at {@code timestamp} may fold into: inside
+     * the repeat window, but not before the start of the day, because deleting the row
+     * takes its whole repeat count off the day of its timestamp.
+     */
+    private LocalDateTime foldSince(LocalDateTime timestamp) {
+        LocalDateTime windowStart = timestamp.minus(repeatWindow);
+        LocalDateTime dayStart = timestamp.toLocalDate().atStartOfDay();
+        return windowStart.isAfter(dayStart) ? windowStart : dayStart;
+    }
+
+    private Long nextId() {
+        IdentifierGenerator generator = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(Translation.class)
+                .getGenerator();
+
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return (Long) generator.generate((SharedSessionContractImplementor) session, null);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (translationTextRepository.isInlineMigrationPending()) {
+            logger.error("The translations table still stores its texts inline, history cannot be written until the {} migration has run",
+                    TranslationSchemaMigration.LOOKUP_TABLES);
+        }
+        translationSearchRepository.createSearchColumn();
+        if (postgres) {
+            jdbcTemplate.queryForObject(ALIGN_SEQUENCE_SQL, Long.class);
+        }
+        int backfilled = translationStatsRepository.backfillIfEmpty();
+        if (backfilled > 0) {
+            logger.info("Built {} translation statistics counters from existing history", backfilled);
+        }
+
+        running = true;
+        worker = Thread.ofPlatform()
+                .name("translation-history-writer")
+                .daemon(true)
+                .start(this::drainLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker == null) {
+            return;
+        }
+        try {
+            worker.join(flushInterval.multipliedBy(10).toMillis() + 5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Translation> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            insert(remaining);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drainLoop() {
+        List<Translation> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Translation first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Translation next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // treat an interrupt as shutdown, the loop still drains what is queued
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Inserts on the worker and on callers whose offer timed out run one at a time: a
+     * repeat shares its row id with an earlier translation, and two concurrent inserts
+     * of that id would both miss the row in REPEAT_SQL and one would lose on the key.
+     */
+    private void insert(List<Translation> batch) {
+        insertLock.lock();
+        try {
+            List<Translation> rows;
+            try {
+                translationTextRepository.resolve(batch);
+                rows = repeatWindow.isPositive() ? collapseRepeats(batch) : batch;
+            } catch (RuntimeException e) {
+                logger.error("Failed to save {} translations to history", batch.size(), e);
+                return;
+            }
+            insertRows(rows);
+        } finally {
+            insertLock.unlock();
+        }
+    }
+
+    /**
+     * Merges the translations of the batch that share a row, then adds them to rows that
+     * are stored already. Returns the rows that still need an insert.
+     */
+    private List<Translation> collapseRepeats(List<Translation> batch) {
+        Map<Long, Translation> latest = new LinkedHashMap<>();
+        for (Translation translation : batch) {
+            latest.merge(translation.getId(), translation, (earlier, later) -> {
+                later.setRepeatCount(earlier.getRepeatCount() + later.getRepeatCount());
+                return later;
+            });
+        }
+        List<Translation> rows = new ArrayList<>(latest.values());
+
+        int[][] counts = jdbcTemplate.batchUpdate(REPEAT_SQL, rows, rows.size(), this::bindRepeat);
+        List<Translation> repeated = new ArrayList<>();
+        List<Translation> pending = new ArrayList<>();
+        int index = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                (count > 0 ? repeated : pending).add(rows.get(index++));
+            }
+        }
+        pending.addAll(rows.subList(index, rows.size()));
+
+        count(repeated);
+        return pending;
+    }
+
+    private void insertRows(List<Translation> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            if (postgres) {
+                jdbcTemplate.batchUpdate(POSTGRES_INSERT_SQL, rows, rows.size(), TranslationHistoryWriter::bindWithSearchVector);
+            } else {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), TranslationHistoryWriter::bind);
+            }
+        } catch (DataAccessException e) {
+            if (rows.size() == 1) {
+                Translation translation = rows.getFirst();
+                // the orphan cleanup may have deleted a text between resolving and inserting it
+                if (e instanceof DataIntegrityViolationException && resolveAgain(translation)) {
+                    insertRows(rows);
+                    return;
+                }
+                logger.error("Failed to save translation {} to history", translation.getId(), e);
+                return;
+            }
+            // retry row by row so one bad row does not drop the whole batch
+            for (Translation translation : rows) {
+                insertRows(List.of(translation));
+            }
+            return;
+        } catch (RuntimeException e) {
+            logger.error("Failed to save {} translations to history", rows.size(), e);
+            return;
+        }
+
+        count(rows);
+    }
+
+    private boolean resolveAgain(Translation translation) {
+        try {
+            return translationTextRepository.resolveAgain(translation);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private void count(List<Translation> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            translationStatsRepository.increment(rows);
+        } catch (RuntimeException e) {
+            logger.error("Failed to update statistics for {} translations", rows.size(), e);
+        }
+    }
+
+    private void bindRepeat(PreparedStatement ps, Translation translation) throws SQLException {
+        ps.setTimestamp(1, Timestamp.valueOf(translation.getTimestamp()));
+        ps.setInt(2, translation.getRepeatCount());
+        ps.setLong(3, translation.getId());
+        ps.setTimestamp(4, Timestamp.valueOf(foldSince(translation.getTimestamp())));
+    }
+
+    private static void bind(PreparedStatement ps, Translation translation) throws SQLException {
+        ps.setLong(1, translation.getId());
+        ps.setLong(2, translation.getSourceText().getId());
+        ps.setObject(3, idOf(translation.getTranslatedText()), Types.BIGINT);
+        ps.setShort(4, translation.getSourceLanguage().getId());
+        ps.setShort(5, translation.getTargetLanguage().getId());
+        ps.setTimestamp(6, Timestamp.valueOf(translation.getTimestamp()));
+        ps.setBoolean(7, translation.isSuccess());
+        ps.setString(8, translation.getErrorMessage());
+        ps.setString(9, translation.getMatchType() != null ? translation.getMatchType().name() : null);
+        ps.setLong(10, translation.getUser().getId());
+        ps.setInt(11, translation.getRepeatCount());
+    }
+
+    private static void bindWithSearchVector(PreparedStatement ps, Translation translation) throws SQLException {
+        bind(ps, translation);
+        ps.setString(12, translation.getSourceLanguage().getCode());
+        ps.setString(13, translation.getSourceText().getContent());
+        ps.setString(14, translation.getTargetLanguage().getCode());
+        ps.setString(15, TranslationText.contentOf(translation.getTranslatedText()));
+    }
+
+    private static Long idOf(TranslationText text) {
+        return text != null ? text.getId() : null;
+    }
+
+    private record RepeatKey(Long userId, String sourceText, String translatedText, String sourceLanguage,
+                             String targetLanguage, boolean success, String errorMessage, MatchType matchType) {
+        static RepeatKey of(Translation translation) {
+            return new RepeatKey(translation.getUser().getId(), translation.getSourceText().getContent(),
+                    TranslationText.contentOf(translation.getTranslatedText()), translation.getSourceLanguage().getCode(),
+                    translation.getTargetLanguage().getCode(), translation.isSuccess(), translation.getErrorMessage(),
+                    translation.getMatchType());
+        }
+    }
+
+    private record RecentRow(Long id, LocalDateTime timestamp) {
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.languagecommunication.translation.awstranslation.service;
+
+import org.example.languagecommunication.common.utils.SecurityUtils;
+import org.example.languagecommunication.translation.awstranslation.model.MatchType;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationMemoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Translation memory over the successful rows of the translation history.
+ * Exact matches are shared between users. Fuzzy matches only come from the
+ * current user's own history, because a near-identical text of another user
+ * would leak its contents. A fuzzy match is accepted when its edit-distance
+ * similarity reaches the threshold and it contains the same numbers, since a
+ * changed number is a small edit that still changes the meaning.
+ */
+@Service
+public class TranslationMemory {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslationMemory.class);
+
+    private static final Pattern NON_DIGITS = Pattern.compile("\\D+");
+
+    private final TranslationMemoryRepository translationMemoryRepository;
+    private final boolean enabled;
+    private final double fuzzyThreshold;
+    private final int fuzzyMaxLength;
+    private final int fuzzyCandidates;
+
+    public TranslationMemory(TranslationMemoryRepository translationMemoryRepository,
+                             @Value("${translation.memory.enabled:true}") boolean enabled,
+                             @Value("${translation.memory.fuzzy-threshold:0.9}") double fuzzyThreshold,
+                             @Value("${translation.memory.fuzzy-max-length:500}") int fuzzyMaxLength,
+                             @Value("${translation.memory.fuzzy-candidates:10}") int fuzzyCandidates) {
+        this.translationMemoryRepository = translationMemoryRepository;
+        this.enabled = enabled;
+        this.fuzzyThreshold = fuzzyThreshold;
+        this.fuzzyMaxLength = fuzzyMaxLength;
+        this.fuzzyCandidates = fuzzyCandidates;
+    }
+
+    public Optional<Match> findExact(String text, String sourceLang, String targetLang) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            return translationMemoryRepository.findExact(text, sourceLang, targetLang)
+                    .map(translated -> new Match(translated, MatchType.EXACT));
+        } catch (DataAccessException e) {
+            logger.warn("Translation memory lookup failed, falling back to AWS", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Best fuzzy match for the text in the current user's history.
+     */
+    public Optional<Match> findFuzzy(String text, String sourceLang, String targetLang) {
+        if (!enabled || fuzzyThreshold <= 0 || fuzzyThreshold >= 1) {
+            return Optional.empty();
+        }
+        String normalized = normalize(text);
+        if (normalized.isEmpty() || normalized.length() > fuzzyMaxLength) {
+            return Optional.empty();
+        }
+
+        // an edit-distance similarity of t needs the shorter text to be at least t times the longer one
+        int minLength = (int) Math.floor(normalized.length() * fuzzyThreshold);
+        int maxLength = (int) Math.ceil(normalized.length() / fuzzyThreshold);
+
+        try {
+            String digits = NON_DIGITS.matcher(normalized).replaceAll("");
+            String best = null;
+            double bestScore = fuzzyThreshold;
+            for (TranslationMemoryRepository.Candidate candidate : translationMemoryRepository.findFuzzyCandidates(
+                    SecurityUtils.getCurrentUserId(), text, sourceLang, targetLang, minLength, maxLength, fuzzyCandidates)) {
+                String candidateText = normalize(candidate.sourceText());
+                if (!NON_DIGITS.matcher(candidateText).replaceAll("").equals(digits)) {
+                    continue;
+                }
+                double score = similarity(normalized, candidateText);
+                if (score >= bestScore) {
+                    best = candidate.translatedText();
+                    bestScore = score;
+                }
+            }
+            return Optional.ofNullable(best).map(translated -> new Match(translated, MatchType.FUZZY));
+        } catch (DataAccessException e) {
+            logger.warn("Translation memory lookup failed, falling back to AWS", e);
+            return Optional.empty();
+        }
+    }
+
+    static String normalize(String text) {
+        return TranslationCache.normalize(text).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Levenshtein similarity, 1 minus the edit distance divided by the longer length.
+     */
+    static double similarity(String a, String b) {
+        if (a.equals(b)) {
+            return 1.0;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return 1.0 - (double) previous[b.length()] / Math.max(a.length(), b.length());
+    }
+
+    public record Match(String translatedText, MatchType matchType) {
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.languagecommunication.translation.awstranslation.service;
+
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationPartitionRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationPartitionRepository.Partition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the PostgreSQL translations table partitioned by month. A plain table is
+ * converted once by the {@value TranslationSchemaMigration#PARTITIONS} migration, never at
+ * startup. A daily job on the maintenance scheduler creates the partitions for the
+ * coming months and, when a retention is configured, drops partitions whose whole range
+ * is older than the retention.
+ */
+@Component
+public class TranslationPartitionManager implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslationPartitionManager.class);
+
+    private final TranslationPartitionRepository translationPartitionRepository;
+    private final TaskScheduler maintenanceScheduler;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final String maintenanceCron;
+
+    public TranslationPartitionManager(TranslationPartitionRepository translationPartitionRepository,
+                                       @Qualifier("maintenanceScheduler") TaskScheduler maintenanceScheduler,
+                                       @Value("${translation.partitions.enabled:true}") boolean enabled,
+                                       @Value("${translation.partitions.months-ahead:3}") int monthsAhead,
+                                       @Value("${translation.partitions.retention-months:0}") int retentionMonths,
+                                       @Value("${translation.partitions.maintenance-cron:0 15 3 * * *}") String maintenanceCron) {
+        this.translationPartitionRepository = translationPartitionRepository;
+        this.maintenanceScheduler = maintenanceScheduler;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.maintenanceCron = maintenanceCron;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled || !translationPartitionRepository.isPostgres()) {
+            return;
+        }
+        if (!translationPartitionRepository.isPartitioned()) {
+            logger.warn("The translations table is not partitioned, run the {} migration to convert it",
+                    TranslationSchemaMigration.PARTITIONS);
+        }
+        // same index as declared on the Translation entity, attached to the existing partitions
+        translationPartitionRepository.createIndex("idx_translations_user_timestamp_id", "(user_id, timestamp, id)");
+        maintainPartitions();
+        maintenanceScheduler.schedule(this::maintainPartitions, new CronTrigger(maintenanceCron));
+    }
+
+    /**
+     * Converts a plain table and creates the partitions of the coming months right away,
+     * before rows of those months land in the default partition. Holds an exclusive lock
+     * on the table while it checks the existing rows against the legacy partition bound.
+     */
+    public void convertToPartitioned() {
+        if (!enabled || !translationPartitionRepository.isPostgres() || translationPartitionRepository.isPartitioned()) {
+            return;
+        }
+        logger.info("Converting the translations table to monthly partitions");
+        translationPartitionRepository.convertToPartitioned();
+        maintainPartitions();
+    }
+
+    public void maintainPartitions() {
+        if (!enabled || !translationPartitionRepository.isPartitioned()) {
+            return;
+        }
+
+        List<Partition> partitions = translationPartitionRepository.findPartitions();
+        for (YearMonth month : missingMonths(partitions, YearMonth.now(), monthsAhead)) {
+            try {
+                translationPartitionRepository.createMonthPartition(month);
+            } catch (DataAccessException e) {
+                // fails when the default partition already holds rows of that month
+                logger.error("Failed to create translations partition for {}", month, e);
+            }
+        }
+
+        if (retentionMonths > 0) {
+            LocalDateTime cutoff = YearMonth.now().minusMonths(retentionMonths).atDay(1).atStartOfDay();
+            for (String partition : expiredPartitions(partitions, cutoff)) {
+                logger.info("Dropping translations partition {} older than {}", partition, cutoff);
+                translationPartitionRepository.dropPartition(partition);
+            }
+        }
+    }
+
+    /**
+     * Months from {@code current} to {@code monthsAhead} months later that no range
+     * partition covers yet.
+     */
+    public static List<YearMonth> missingMonths(List<Partition> partitions, YearMonth current, int monthsAhead) {
+        List<YearMonth> missing = new ArrayList<>();
+        for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            LocalDateTime start = month.atDay(1).atStartOfDay();
+            if (partitions.stream().noneMatch(partition -> partition.covers(start))) {
+                missing.add(month);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Range partitions that end at or before the cutoff, so every row in them is older.
+     */
+    public static List<String> expiredPartitions(List<Partition> partitions, LocalDateTime cutoff) {
+        return partitions.stream()
+                .filter(partition -> !partition.isDefault() && partition.to() != null && !partition.to().isAfter(cutoff))
+                .map(Partition::name)
+                .toList();
+    }
+}
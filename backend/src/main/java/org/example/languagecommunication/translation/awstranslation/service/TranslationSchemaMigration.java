@@ -0,0 +1,76 @@
+package org.example.languagecommunication.translation.awstranslation.service;
+
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationSearchRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationTextRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * One-off migrations of the translations table that rewrite or lock the whole table.
+ * They are never run by the instances serving traffic, an operator runs them once per
+ * database before rolling out the release that needs them:
+ * <pre>
+ * java -jar app.jar --spring.main.web-application-type=none --translation.migration.steps=lookup-tables,partitions
+ * </pre>
+ * The steps run in the given order and the application shuts down afterwards.
+ * <ul>
+ *     <li>{@value #LOOKUP_TABLES}: moves the texts and language codes of a table created
+ *     before the lookup tables into them and builds the missing search documents.</li>
+ *     <li>{@value #PARTITIONS}: converts a plain table to monthly partitions.</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty("translation.migration.steps")
+public class TranslationSchemaMigration implements ApplicationRunner {
+
+    public static final String LOOKUP_TABLES = "lookup-tables";
+    public static final String PARTITIONS = "partitions";
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslationSchemaMigration.class);
+
+    private final TranslationTextRepository translationTextRepository;
+    private final TranslationSearchRepository translationSearchRepository;
+    private final TranslationPartitionManager translationPartitionManager;
+    private final ConfigurableApplicationContext applicationContext;
+    private final List<String> steps;
+
+    public TranslationSchemaMigration(TranslationTextRepository translationTextRepository,
+                                      TranslationSearchRepository translationSearchRepository,
+                                      TranslationPartitionManager translationPartitionManager,
+                                      ConfigurableApplicationContext applicationContext,
+                                      @Value("${translation.migration.steps}") List<String> steps) {
+        this.translationTextRepository = translationTextRepository;
+        this.translationSearchRepository = translationSearchRepository;
+        this.translationPartitionManager = translationPartitionManager;
+        this.applicationContext = applicationContext;
+        this.steps = steps;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String step : steps) {
+            switch (step.trim()) {
+                case LOOKUP_TABLES -> migrateLookupTables();
+                case PARTITIONS -> translationPartitionManager.convertToPartitioned();
+                default -> throw new IllegalArgumentException("Unknown translation migration step: " + step);
+            }
+        }
+        logger.info("Translation migrations {} finished, shutting down", steps);
+        applicationContext.close();
+    }
+
+    private void migrateLookupTables() {
+        int migrated = translationTextRepository.migrateInlineColumns();
+        logger.info("Moved texts and language codes of {} translations to the lookup tables", migrated);
+        int filled = translationSearchRepository.fillSearchColumn();
+        logger.info("Built search documents of {} translations", filled);
+    }
+}
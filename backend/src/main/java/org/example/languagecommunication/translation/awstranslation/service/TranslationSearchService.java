@@ -0,0 +1,50 @@
+package org.example.languagecommunication.translation.awstranslation.service;
+
+import org.example.languagecommunication.common.utils.SecurityUtils;
+import org.example.languagecommunication.exception.TranslationException;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationSearchHit;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationSearchResult;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationSearchRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class TranslationSearchService {
+
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private final TranslationSearchRepository translationSearchRepository;
+    private final int maxPageSize;
+
+    public TranslationSearchService(TranslationSearchRepository translationSearchRepository,
+                                    @Value("${translation.history.max-page-size:100}") int maxPageSize) {
+        this.translationSearchRepository = translationSearchRepository;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Searches the current user's history in both the source and the translated text,
+     * best matches first.
+     */
+    public TranslationSearchResult search(String query, String lang, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new TranslationException("Search query must not be empty", HttpStatus.BAD_REQUEST);
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new TranslationException("Search query exceeds " + MAX_QUERY_LENGTH + " characters", HttpStatus.BAD_REQUEST);
+        }
+        if (page < 0) {
+            throw new TranslationException("Page must not be negative", HttpStatus.BAD_REQUEST);
+        }
+
+        int pageSize = Math.clamp(size, 1, maxPageSize);
+        List<TranslationSearchHit> hits = translationSearchRepository.search(
+                SecurityUtils.getCurrentUserId(), query.strip(), lang, pageSize + 1, page * pageSize);
+
+        boolean hasMore = hits.size() > pageSize;
+        return new TranslationSearchResult(hasMore ? hits.subList(0, pageSize) : hits, page, pageSize, hasMore);
+    }
+}
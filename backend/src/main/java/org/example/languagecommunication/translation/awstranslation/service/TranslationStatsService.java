@@ -0,0 +1,62 @@
+package org.example.languagecommunication.translation.awstranslation.service;
+
+import org.example.languagecommunication.common.utils.SecurityUtils;
+import org.example.languagecommunication.exception.TranslationException;
+import org.example.languagecommunication.translation.awstranslation.DTO.DailyActivity;
+import org.example.languagecommunication.translation.awstranslation.DTO.LanguagePairActivity;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationStats;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationStatsRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Activity statistics of the current user, read from the daily counters.
+ */
+@Service
+public class TranslationStatsService {
+
+    private final TranslationStatsRepository translationStatsRepository;
+    private final int defaultDays;
+    private final int maxDays;
+    private final int maxTopPairs;
+
+    public TranslationStatsService(TranslationStatsRepository translationStatsRepository,
+                                   @Value("${translation.stats.default-days:30}") int defaultDays,
+                                   @Value("${translation.stats.max-days:366}") int maxDays,
+                                   @Value("${translation.stats.max-top-pairs:20}") int maxTopPairs) {
+        this.translationStatsRepository = translationStatsRepository;
+        this.defaultDays = defaultDays;
+        this.maxDays = maxDays;
+        this.maxTopPairs = maxTopPairs;
+    }
+
+    /**
+     * Returns per-day counts and the most used language pairs between the two dates,
+     * both inclusive. Without dates the last {@code defaultDays} days up to today are used.
+     */
+    public TranslationStats getStats(LocalDate from, LocalDate to, Integer top) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(defaultDays - 1L);
+        if (start.isAfter(end)) {
+            throw new TranslationException("from must not be after to", HttpStatus.BAD_REQUEST);
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= maxDays) {
+            throw new TranslationException("Date range exceeds the limit of " + maxDays + " days", HttpStatus.BAD_REQUEST);
+        }
+        int limit = top == null ? 5 : Math.clamp(top, 1, maxTopPairs);
+
+        Long userId = SecurityUtils.getCurrentUserId();
+        List<DailyActivity> days = translationStatsRepository.findDaily(userId, start, end);
+        List<LanguagePairActivity> topPairs = translationStatsRepository.findTopPairs(userId, start, end, limit);
+
+        long total = days.stream().mapToLong(DailyActivity::total).sum();
+        long successful = days.stream().mapToLong(DailyActivity::successful).sum();
+        return new TranslationStats(start, end, total, successful,
+                total == 0 ? 0 : (double) successful / total, days, topPairs);
+    }
+}
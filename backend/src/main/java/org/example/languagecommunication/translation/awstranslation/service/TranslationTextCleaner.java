@@ -0,0 +1,52 @@
+package org.example.languagecommunication.translation.awstranslation.service;
+
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationTextRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes the stored texts that no history row references any more, once a day on the
+ * maintenance scheduler. Deleted translations and dropped partitions leave such texts
+ * behind, and they must not outlive the history they belonged to.
+ */
+@Component
+public class TranslationTextCleaner implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslationTextCleaner.class);
+
+    private final TranslationTextRepository translationTextRepository;
+    private final TaskScheduler maintenanceScheduler;
+    private final String cleanupCron;
+
+    public TranslationTextCleaner(TranslationTextRepository translationTextRepository,
+                                  @Qualifier("maintenanceScheduler") TaskScheduler maintenanceScheduler,
+                                  @Value("${translation.texts.cleanup-cron:0 45 3 * * *}") String cleanupCron) {
+        this.translationTextRepository = translationTextRepository;
+        this.maintenanceScheduler = maintenanceScheduler;
+        this.cleanupCron = cleanupCron;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        maintenanceScheduler.schedule(this::deleteOrphanTexts, new CronTrigger(cleanupCron));
+    }
+
+    public void deleteOrphanTexts() {
+        try {
+            int deleted = translationTextRepository.deleteOrphanTexts();
+            if (deleted > 0) {
+                logger.info("Deleted {} texts no translation references", deleted);
+            }
+        } catch (DataAccessException e) {
+            // a concurrent insert referenced one of the texts, the next run deletes the rest
+            logger.warn("Failed to delete unreferenced translation texts", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.languagecommunication.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BufferPoolTest {
+
+    @Test
+    public void acquire_shouldReuseReleasedBuffers() {
+        BufferPool pool = new BufferPool(1024, 2);
+
+        byte[] buffer = pool.acquire();
+        pool.release(buffer);
+
+        assertSame(buffer, pool.acquire());
+        assertEquals(1024, pool.acquire().length);
+    }
+
+    @Test
+    public void release_shouldDropBuffersBeyondCapacityAndForeignSizes() {
+        BufferPool pool = new BufferPool(1024, 2);
+
+        pool.release(new byte[1024]);
+        pool.release(new byte[1024]);
+        pool.release(new byte[1024]);
+        pool.release(new byte[10]);
+
+        assertEquals(2, pool.pooled());
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.languagecommunication.common.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RangeFileSenderTest {
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private final byte[] content = new byte[1000];
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/text-to-speech");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        file = Files.write(directory.resolve("audio.mp3"), content);
+    }
+
+    private void send() throws Exception {
+        RangeFileSender.send(file, content.length, MediaType.valueOf("audio/mpeg"), "abc", request, response);
+    }
+
+    @Test
+    public void send_shouldWriteWholeFileWithEtag() throws Exception {
+        send();
+
+        assertEquals(200, response.getStatus());
+        assertEquals("\"abc\"", response.getHeader("ETag"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals(1000, response.getContentLengthLong());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void send_shouldWriteSingleRange() throws Exception {
+        request.addHeader("Range", "bytes=100-199");
+
+        send();
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 100-199/1000", response.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), response.getContentAsByteArray());
+    }
+
+    @Test
+    public void send_shouldRejectUnsatisfiableRange() throws Exception {
+        request.addHeader("Range", "bytes=2000-");
+
+        send();
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */1000", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    public void send_shouldIgnoreRangeWhenIfRangeDoesNotMatch() throws Exception {
+        request.addHeader("Range", "bytes=100-199");
+        request.addHeader("If-Range", "\"other\"");
+
+        send();
+
+        assertEquals(200, response.getStatus());
+        assertEquals(1000, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void send_shouldAnswerNotModifiedForMatchingEtag() throws Exception {
+        request.addHeader("If-None-Match", "\"xyz\", \"abc\"");
+
+        send();
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void send_shouldHandOverToSendfileWhenSupported() throws Exception {
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=-100");
+
+        send();
+
+        assertEquals(206, response.getStatus());
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(900L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(1000L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void send_shouldFailBeforeSettingHeadersWhenFileIsGone() throws Exception {
+        Files.delete(file);
+
+        assertThrows(NoSuchFileException.class, this::send);
+
+        assertFalse(response.isCommitted());
+        assertNull(response.getHeader("ETag"));
+        assertNull(response.getContentType());
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.languagecommunication.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+
+    @Test
+    public void execute_shouldShareOneCallBetweenConcurrentCallers() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 20; i++) {
+                results.add(executor.submit(() -> flights.execute("hello", () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return "cześć";
+                })));
+            }
+            while (calls.get() == 0) {
+                Thread.onSpinWait();
+            }
+            // give the other callers time to join the flight
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("cześć", result.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1, calls.get());
+        assertEquals(0, flights.inFlight());
+    }
+
+    @Test
+    public void execute_shouldRethrowTheSameExceptionAndNotRememberIt() {
+        IllegalStateException failure = new IllegalStateException("Throttled");
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> flights.execute("hello", () -> {
+            throw failure;
+        })));
+        assertEquals("cześć", flights.execute("hello", () -> "cześć"));
+    }
+
+    @Test
+    public void executeAsync_shouldKeepCallRunningWhenOneCallerCancels() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flights.executeAsync("hello", () -> upstream);
+        CompletableFuture<String> second = flights.executeAsync("hello", () -> fail("second call started"));
+        first.cancel(true);
+        upstream.complete("cześć");
+
+        assertTrue(first.isCancelled());
+        assertFalse(upstream.isCancelled());
+        assertEquals("cześć", second.join());
+    }
+
+    @Test
+    public void executeAsync_shouldCancelCallWhenEveryCallerLeft() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flights.executeAsync("hello", () -> upstream);
+        CompletableFuture<String> second = flights.executeAsync("hello", () -> upstream);
+        first.cancel(true);
+        second.cancel(true);
+
+        assertTrue(upstream.isCancelled());
+        assertEquals(0, flights.inFlight());
+        assertEquals("cześć", flights.executeAsync("hello", () -> CompletableFuture.completedFuture("cześć")).join());
+    }
+
+    @Test
+    public void execute_shouldInterruptBlockingCallWhenItsOnlyCallerIsInterrupted() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        Thread caller = Thread.ofVirtual().start(() -> assertThrows(CancellationException.class,
+                () -> flights.execute("hello", () -> {
+                    started.countDown();
+                    try {
+                        new CountDownLatch(1).await();
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return "cześć";
+                })));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        caller.interrupt();
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        caller.join();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
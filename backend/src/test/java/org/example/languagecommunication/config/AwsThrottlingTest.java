@@ -0,0 +1,138 @@
+package org.example.languagecommunication.config;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.retries.api.AcquireInitialTokenRequest;
+import software.amazon.awssdk.retries.api.RecordSuccessRequest;
+import software.amazon.awssdk.retries.api.RefreshRetryTokenRequest;
+import software.amazon.awssdk.retries.api.RefreshRetryTokenResponse;
+import software.amazon.awssdk.retries.api.RetryStrategy;
+import software.amazon.awssdk.retries.api.RetryToken;
+import software.amazon.awssdk.retries.api.TokenAcquisitionFailedException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AwsThrottlingTest {
+
+    private final AwsThrottling awsThrottling = new AwsThrottling(2, 10, 8, 1, 5, Duration.ZERO,
+            4, Duration.ofMillis(100), Duration.ofMillis(500), Duration.ofSeconds(5), 500);
+
+    @Test
+    public void overrideConfiguration_shouldShareLimitBetweenClientsOfOneServiceAndRegion() {
+        ClientOverrideConfiguration sync = awsThrottling.overrideConfiguration("translate", Region.EU_CENTRAL_1);
+        ClientOverrideConfiguration async = awsThrottling.asyncOverrideConfiguration("translate", Region.EU_CENTRAL_1);
+        awsThrottling.overrideConfiguration("polly", Region.EU_CENTRAL_1);
+
+        ExecutionInterceptor syncLimiter = sync.executionInterceptors().getFirst();
+        ExecutionInterceptor asyncLimiter = async.executionInterceptors().getFirst();
+        syncLimiter.beforeTransmission(null, null);
+        asyncLimiter.beforeTransmission(null, new ExecutionAttributes());
+        assertThrows(AwsThrottling.ClientThrottledException.class, () -> syncLimiter.beforeTransmission(null, null));
+
+        List<AwsThrottling.Stats> stats = awsThrottling.stats();
+        assertEquals(List.of("polly/eu-central-1", "translate/eu-central-1"), stats.stream().map(AwsThrottling.Stats::client).toList());
+        assertEquals(2, stats.get(1).acquired());
+        assertEquals(1, stats.get(1).rejected());
+    }
+
+    @Test
+    public void asyncOverrideConfiguration_shouldDeferAttemptUntilTokenIsDueWithoutBlocking() {
+        AwsThrottling throttling = new AwsThrottling(2, 10, 8, 1, 5, Duration.ofSeconds(2),
+                4, Duration.ofMillis(100), Duration.ofMillis(500), Duration.ofSeconds(5), 500);
+        ClientOverrideConfiguration async = throttling.asyncOverrideConfiguration("translate", Region.EU_CENTRAL_1);
+        ExecutionInterceptor limiter = async.executionInterceptors().getFirst();
+        RetryStrategy retryStrategy = async.retryStrategy().orElseThrow();
+        RetryToken token = initialToken(retryStrategy);
+        limiter.beforeTransmission(null, new ExecutionAttributes());
+        limiter.beforeTransmission(null, new ExecutionAttributes());
+
+        ExecutionAttributes attributes = new ExecutionAttributes();
+        long start = System.nanoTime();
+        SdkClientException deferred = assertThrows(SdkClientException.class, () -> limiter.beforeTransmission(null, attributes));
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(200).toNanos());
+
+        RefreshRetryTokenResponse retry = retryStrategy.refreshRetryToken(refresh(token, deferred));
+        Duration delay = retry.delay();
+        assertTrue(delay.compareTo(Duration.ZERO) > 0 && delay.compareTo(Duration.ofMillis(500)) <= 0);
+
+        // the retried attempt uses the reserved token
+        limiter.beforeTransmission(null, attributes);
+        AwsThrottling.Stats stats = throttling.stats().getFirst();
+        assertEquals(3, stats.acquired());
+        assertEquals(1, stats.deferred());
+        assertEquals(0, stats.retries());
+    }
+
+    @Test
+    public void asyncOverrideConfiguration_shouldNotCountDeferralsAsAttempts() {
+        AwsThrottling throttling = new AwsThrottling(2, 10, 8, 1, 5, Duration.ofSeconds(2),
+                4, Duration.ofMillis(100), Duration.ofMillis(500), Duration.ofSeconds(5), 500);
+        ClientOverrideConfiguration async = throttling.asyncOverrideConfiguration("translate", Region.EU_CENTRAL_1);
+        ExecutionInterceptor limiter = async.executionInterceptors().getFirst();
+        RetryStrategy retryStrategy = async.retryStrategy().orElseThrow();
+        limiter.beforeTransmission(null, new ExecutionAttributes());
+        limiter.beforeTransmission(null, new ExecutionAttributes());
+        SdkClientException deferred = assertThrows(SdkClientException.class, () -> limiter.beforeTransmission(null, new ExecutionAttributes()));
+        AwsServiceException throttled = AwsServiceException.builder().message("Rate exceeded").statusCode(429).build();
+        SdkClientException clientThrottled = SdkClientException.create("failed", new AwsThrottling.ClientThrottledException("translate/eu-central-1"));
+        RetryToken token = initialToken(retryStrategy);
+
+        assertEquals(4, retryStrategy.maxAttempts());
+        for (int attempt = 1; attempt < 4; attempt++) {
+            assertSame(token, retryStrategy.refreshRetryToken(refresh(token, deferred)).token());
+            token = retryStrategy.refreshRetryToken(refresh(token, throttled)).token();
+        }
+        RetryToken lastAttempt = token;
+        assertThrows(TokenAcquisitionFailedException.class, () -> retryStrategy.refreshRetryToken(refresh(lastAttempt, throttled)));
+        assertThrows(TokenAcquisitionFailedException.class, () -> retryStrategy.refreshRetryToken(refresh(initialToken(retryStrategy), clientThrottled)));
+        assertEquals(3, throttling.stats().getFirst().retries());
+    }
+
+    @Test
+    public void overrideConfiguration_shouldStopRetryingWhenBudgetIsExhausted() {
+        AwsThrottling throttling = new AwsThrottling(2, 10, 8, 1, 5, Duration.ZERO,
+                4, Duration.ofMillis(100), Duration.ofMillis(500), Duration.ofSeconds(5), 10);
+        RetryStrategy retryStrategy = throttling.overrideConfiguration("translate", Region.EU_CENTRAL_1).retryStrategy().orElseThrow();
+        AwsServiceException unavailable = AwsServiceException.builder().message("Service unavailable").statusCode(503).build();
+
+        RetryToken first = retryStrategy.refreshRetryToken(refresh(initialToken(retryStrategy), unavailable)).token();
+        retryStrategy.refreshRetryToken(refresh(initialToken(retryStrategy), unavailable));
+        assertThrows(TokenAcquisitionFailedException.class, () -> retryStrategy.refreshRetryToken(refresh(initialToken(retryStrategy), unavailable)));
+
+        // a successful retry pays its cost back
+        retryStrategy.recordSuccess(RecordSuccessRequest.create(first));
+        retryStrategy.refreshRetryToken(refresh(initialToken(retryStrategy), unavailable));
+        AwsThrottling.Stats stats = throttling.stats().getFirst();
+        assertEquals(3, stats.retries());
+        assertEquals(1, stats.retryBudgetExhausted());
+    }
+
+    private static RetryToken initialToken(RetryStrategy retryStrategy) {
+        return retryStrategy.acquireInitialToken(AcquireInitialTokenRequest.create("translate")).token();
+    }
+
+    private static RefreshRetryTokenRequest refresh(RetryToken token, Throwable failure) {
+        return RefreshRetryTokenRequest.builder().token(token).failure(failure).build();
+    }
+
+    @Test
+    public void overrideConfiguration_shouldRejectUnknownService() {
+        assertThrows(IllegalArgumentException.class, () -> awsThrottling.overrideConfiguration("s3", Region.EU_CENTRAL_1));
+    }
+
+    @Test
+    public void isClientThrottled_shouldFindWrappedCause() {
+        SdkClientException wrapped = SdkClientException.create("failed", new AwsThrottling.ClientThrottledException("translate/eu-central-1"));
+
+        assertTrue(AwsThrottling.isClientThrottled(wrapped));
+        assertFalse(AwsThrottling.isClientThrottled(SdkClientException.create("Unable to connect")));
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.languagecommunication.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private void advance(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    public void reserve_shouldServeBurstThenSpreadCallsAtTheRate() {
+        TokenBucket bucket = new TokenBucket(10, now::get);
+        long maxWait = Duration.ofSeconds(1).toNanos();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, bucket.reserve(maxWait));
+        }
+        assertEquals(Duration.ofMillis(100).toNanos(), bucket.reserve(maxWait));
+        assertEquals(Duration.ofMillis(200).toNanos(), bucket.reserve(maxWait));
+
+        advance(200);
+        assertEquals(Duration.ofMillis(100).toNanos(), bucket.reserve(maxWait));
+        assertEquals(13, bucket.acquired());
+        assertEquals(Duration.ofMillis(400), bucket.waited());
+    }
+
+    @Test
+    public void reserve_shouldRejectWithoutTakingATokenWhenWaitIsTooLong() {
+        TokenBucket bucket = new TokenBucket(1, now::get);
+
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(-1, bucket.reserve(Duration.ofMillis(500).toNanos()));
+        assertEquals(1, bucket.rejected());
+
+        advance(1000);
+        assertEquals(0, bucket.reserve(0));
+    }
+
+    @Test
+    public void onThrottled_shouldHalveRateOncePerSecondAndDropBurst() {
+        TokenBucket bucket = new TokenBucket(10, now::get);
+
+        bucket.onThrottled();
+        bucket.onThrottled();
+
+        assertEquals(5, bucket.rate(), 1e-9);
+        assertEquals(2, bucket.throttled());
+        assertEquals(Duration.ofMillis(200).toNanos(), bucket.reserve(Long.MAX_VALUE));
+
+        advance(1000);
+        bucket.onThrottled();
+        assertEquals(2.5, bucket.rate(), 1e-9);
+    }
+
+    @Test
+    public void onThrottled_shouldNotGoBelowMinimumRate() {
+        TokenBucket bucket = new TokenBucket(10, now::get);
+
+        for (int i = 0; i < 10; i++) {
+            bucket.onThrottled();
+            advance(1000);
+        }
+
+        assertEquals(1, bucket.rate(), 1e-9);
+    }
+
+    @Test
+    public void onSuccess_shouldRecoverRateUpToTheConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(10, now::get);
+        bucket.onThrottled();
+
+        for (int i = 0; i < 10; i++) {
+            bucket.onSuccess();
+        }
+        assertEquals(6, bucket.rate(), 1e-9);
+
+        for (int i = 0; i < 100; i++) {
+            bucket.onSuccess();
+        }
+        assertEquals(10, bucket.rate(), 1e-9);
+    }
+}
@@ -10,6 +10,7 @@ import org.example.languagecommunication.flashcard.models.Flashcard;
 import org.example.languagecommunication.flashcard.models.FlashcardFolder;
 import org.example.languagecommunication.flashcard.repositories.FlashcardFolderRepository;
 import org.example.languagecommunication.flashcard.repositories.FlashcardRepository;
+import org.example.languagecommunication.textspeech.SpeechPresynthesizer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -36,6 +37,9 @@ class FlashcardFolderServiceTest {
     @Mock
     private FlashcardRepository flashcardRepository;
 
+    @Mock
+    private SpeechPresynthesizer speechPresynthesizer;
+
     @InjectMocks
     private FlashcardFolderService flashcardFolderService;
 
@@ -179,6 +183,7 @@ class FlashcardFolderServiceTest {
         }
 
         verify(flashcardFolderRepository).findById(originalFolderId);
+        verify(speechPresynthesizer).submit(importingUserId, List.of("Front 1", "Back 1", "Front 2", "Back 2"));
     }
 
     @Test
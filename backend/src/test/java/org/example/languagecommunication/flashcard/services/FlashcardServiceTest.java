@@ -4,6 +4,7 @@ import jakarta.persistence.EntityNotFoundException;
 import org.example.languagecommunication.flashcard.models.Flashcard;
 import org.example.languagecommunication.flashcard.models.FlashcardStatus;
 import org.example.languagecommunication.flashcard.repositories.FlashcardRepository;
+import org.example.languagecommunication.textspeech.SpeechPresynthesizer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,6 +26,9 @@ class FlashcardServiceTest {
     @Mock
     private FlashcardRepository flashcardRepository;
 
+    @Mock
+    private SpeechPresynthesizer speechPresynthesizer;
+
     @InjectMocks
     private FlashcardService flashcardService;
 
@@ -44,6 +48,7 @@ class FlashcardServiceTest {
 
         assertEquals(flashcard, result);
         verify(flashcardRepository).save(flashcard);
+        verify(speechPresynthesizer).submit(1L, List.of("Front Content", "Back Content"));
     }
 
     @Test
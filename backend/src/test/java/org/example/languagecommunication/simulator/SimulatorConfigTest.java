@@ -0,0 +1,207 @@
+package org.example.languagecommunication.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import org.springframework.mock.env.MockEnvironment;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.transcribestreaming.TranscribeStreamingAsyncClient;
+import software.amazon.awssdk.services.polly.model.SynthesizeSpeechRequest;
+import software.amazon.awssdk.services.polly.model.SynthesizeSpeechResponse;
+import software.amazon.awssdk.services.transcribestreaming.model.AudioEvent;
+import software.amazon.awssdk.services.transcribestreaming.model.AudioStream;
+import software.amazon.awssdk.services.transcribestreaming.model.Result;
+import software.amazon.awssdk.services.transcribestreaming.model.StartStreamTranscriptionRequest;
+import software.amazon.awssdk.services.transcribestreaming.model.StartStreamTranscriptionResponseHandler;
+import software.amazon.awssdk.services.transcribestreaming.model.TranscriptEvent;
+import software.amazon.awssdk.services.transcribestreaming.model.TranscriptResultStream;
+import software.amazon.awssdk.services.translate.TranslateClient;
+import software.amazon.awssdk.services.translate.model.TooManyRequestsException;
+import software.amazon.awssdk.services.translate.model.TranslateTextRequest;
+import software.amazon.awssdk.services.translate.model.TranslateTextResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulatorConfigTest {
+
+    private static SimulatorConfig simulator(String... properties) {
+        MockEnvironment environment = new MockEnvironment();
+        for (int i = 0; i < properties.length; i += 2) {
+            environment.setProperty(properties[i], properties[i + 1]);
+        }
+        return new SimulatorConfig(environment);
+    }
+
+    @Test
+    public void latencyDistribution_shouldParseAllKinds() {
+        Random random = new Random(1);
+
+        assertEquals(Duration.ofMillis(50), LatencyDistribution.parse("fixed:50ms").sample(random));
+        for (int i = 0; i < 100; i++) {
+            Duration uniform = LatencyDistribution.parse("uniform:20ms:200ms").sample(random);
+            assertTrue(uniform.compareTo(Duration.ofMillis(20)) >= 0 && uniform.compareTo(Duration.ofMillis(200)) <= 0);
+        }
+
+        LatencyDistribution logNormal = LatencyDistribution.parse("lognormal:100ms:1s");
+        List<Duration> samples = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            samples.add(logNormal.sample(random));
+        }
+        Collections.sort(samples);
+        assertEquals(100, samples.get(5_000).toMillis(), 10);
+        assertEquals(1000, samples.get(9_900).toMillis(), 150);
+
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("uniform:200ms:20ms"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("gaussian:1s"));
+    }
+
+    @Test
+    public void translateClient_shouldAnswerDeterministically() {
+        TranslateClient client = simulator().translateClient();
+        TranslateTextRequest request = TranslateTextRequest.builder()
+                .text("Dzień dobry")
+                .sourceLanguageCode("auto")
+                .targetLanguageCode("en")
+                .build();
+
+        TranslateTextResponse response = client.translateText(request);
+
+        assertEquals("[en] Dzień dobry", response.translatedText());
+        assertEquals("pl", response.sourceLanguageCode());
+        assertEquals(response.translatedText(), client.translateText(request).translatedText());
+    }
+
+    @Test
+    public void translateClient_shouldThrowModeledThrottlingException() {
+        TranslateClient client = simulator("simulator.translate.throttle-rate", "1.0").translateClient();
+        TranslateTextRequest request = TranslateTextRequest.builder().text("Hello").sourceLanguageCode("en").targetLanguageCode("pl").build();
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class, () -> client.translateText(request));
+        assertEquals(429, e.statusCode());
+    }
+
+    @Test
+    public void simulatedService_shouldReplayTheSameFaultsForTheSameSeed() {
+        List<Boolean> first = faults(7);
+        List<Boolean> second = faults(7);
+
+        assertEquals(first, second);
+        assertTrue(first.contains(true) && first.contains(false));
+        assertNotEquals(first, faults(8));
+    }
+
+    private static List<Boolean> faults(long seed) {
+        SimulatedService service = new SimulatedService("translate", LatencyDistribution.parse("fixed:0ms"), 0.3, 0.2, seed,
+                IllegalStateException::new, IllegalStateException::new);
+        List<Boolean> faults = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            faults.add(service.nextFault() != null);
+        }
+        return faults;
+    }
+
+    @Test
+    public void pollyClient_shouldReturnMp3FramesForTheText() throws Exception {
+        SynthesizeSpeechRequest request = SynthesizeSpeechRequest.builder().text("Cześć").voiceId("Ewa").outputFormat("mp3").build();
+
+        try (ResponseInputStream<SynthesizeSpeechResponse> audio = simulator().pollyClient().synthesizeSpeech(request)) {
+            byte[] bytes = audio.readAllBytes();
+
+            assertEquals(10 * 417, bytes.length);
+            assertEquals((byte) 0xFF, bytes[0]);
+            assertEquals((byte) 0xFB, bytes[1]);
+            assertEquals((byte) 0xFF, bytes[417]);
+            assertEquals("audio/mpeg", audio.response().contentType());
+        }
+    }
+
+    @Test
+    public void transcribeClient_shouldStreamPartialAndFinalResultsInOrder() throws Exception {
+        List<Result> results = Collections.synchronizedList(new ArrayList<>());
+        StartStreamTranscriptionRequest request = StartStreamTranscriptionRequest.builder()
+                .languageCode("pl-PL")
+                .mediaSampleRateHertz(16000)
+                .build();
+        StartStreamTranscriptionResponseHandler handler = StartStreamTranscriptionResponseHandler.builder()
+                .subscriber(event -> results.addAll(((TranscriptEvent) event).transcript().results()))
+                .build();
+
+        // four seconds of 16 kHz 16-bit audio in chunks of half a second
+        simulator("simulator.transcribe.latency", "uniform:1ms:5ms", "simulator.transcribe.segment", "3s")
+                .transcribeStreamingAsyncClient()
+                .startStreamTranscription(request, audio(8, 16_000), handler)
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(true, true, true, false, true, false), results.stream().map(Result::isPartial).toList());
+        assertEquals("this is a simulated transcript of.", results.get(3).alternatives().getFirst().transcript());
+        assertEquals("segment-0", results.get(3).resultId());
+        assertEquals("segment-1", results.get(5).resultId());
+    }
+
+    @Test
+    public void transcribeClient_shouldDeliverEveryEventBeforeCompleting() throws Exception {
+        StartStreamTranscriptionRequest request = StartStreamTranscriptionRequest.builder()
+                .languageCode("pl-PL")
+                .mediaSampleRateHertz(16000)
+                .build();
+        TranscribeStreamingAsyncClient client = simulator("simulator.transcribe.latency", "fixed:0ms",
+                "simulator.transcribe.segment", "3s").transcribeStreamingAsyncClient();
+
+        // the race only shows up now and then, so the stream is run many times
+        for (int i = 0; i < 50; i++) {
+            List<TranscriptResultStream> events = Collections.synchronizedList(new ArrayList<>());
+            List<Integer> seenOnComplete = new ArrayList<>();
+            StartStreamTranscriptionResponseHandler handler = StartStreamTranscriptionResponseHandler.builder()
+                    .subscriber(events::add)
+                    .onComplete(() -> seenOnComplete.add(events.size()))
+                    .build();
+
+            int seenOnDone = client.startStreamTranscription(request, audio(8, 16_000), handler)
+                    .thenApply(ignored -> events.size())
+                    .get(5, TimeUnit.SECONDS);
+
+            assertEquals(6, seenOnDone);
+            assertEquals(List.of(6), seenOnComplete);
+        }
+    }
+
+    private static Publisher<AudioStream> audio(int chunks, int chunkBytes) {
+        return subscriber -> subscriber.onSubscribe(new Subscription() {
+            private int sent;
+
+            @Override
+            public void request(long n) {
+                while (n-- > 0 && sent < chunks) {
+                    sent++;
+                    subscriber.onNext(AudioEvent.builder().audioChunk(SdkBytes.fromByteArray(new byte[chunkBytes])).build());
+                }
+                if (sent == chunks) {
+                    sent++;
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+    }
+
+    @Test
+    public void phraseGenerator_shouldReturnChatCompletion() throws Exception {
+        String body = simulator().phraseGenerator().generate("kot");
+
+        JsonNode completion = new ObjectMapper().readTree(body);
+        assertEquals("This is a simulated phrase with kot.", completion.at("/choices/0/message/content").asText());
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.languagecommunication.textspeech;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpeechCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private static String key(String text) {
+        return SpeechCache.key(text, "Joanna", "neural", "mp3");
+    }
+
+    private static void put(SpeechCache cache, String text, int bytes) throws Exception {
+        cache.put(key(text), new ByteArrayInputStream(new byte[bytes]));
+    }
+
+    @Test
+    public void key_shouldDependOnEveryPart() {
+        assertNotEquals(key("Hello"), SpeechCache.key("Hello", "Matthew", "neural", "mp3"));
+        assertNotEquals(key("Hello"), SpeechCache.key("Hello", "Joanna", "standard", "mp3"));
+        assertNotEquals(key("Hello"), SpeechCache.key("Hello", "Joanna", "neural", "ogg_vorbis"));
+        assertEquals(key("Hello"), key("Hello"));
+    }
+
+    @Test
+    public void put_shouldEvictLeastRecentlyUsedBeyondMaxBytes() throws Exception {
+        SpeechCache cache = new SpeechCache(directory, 250, Duration.ZERO);
+        put(cache, "one", 100);
+        put(cache, "two", 100);
+        assertTrue(cache.get(key("one")).isPresent());
+
+        put(cache, "three", 100);
+
+        assertTrue(cache.get(key("one")).isPresent());
+        assertTrue(cache.get(key("two")).isEmpty());
+        assertTrue(cache.get(key("three")).isPresent());
+        assertEquals(200, cache.totalBytes());
+        try (var files = Files.walk(directory)) {
+            assertEquals(2, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    public void discard_shouldDropEntryOnlyWhenItsFileIsGone() throws Exception {
+        SpeechCache cache = new SpeechCache(directory, 1000, Duration.ZERO);
+        put(cache, "kept", 100);
+        put(cache, "gone", 100);
+        Files.delete(cache.get(key("gone")).orElseThrow().file());
+
+        cache.discard(key("kept"));
+        cache.discard(key("gone"));
+
+        assertTrue(cache.get(key("kept")).isPresent());
+        assertFalse(cache.contains(key("gone")));
+        assertEquals(100, cache.totalBytes());
+    }
+
+    @Test
+    public void put_shouldDeleteEvictedFilesOnlyAfterDelay() throws Exception {
+        SpeechCache cache = new SpeechCache(directory, 150, Duration.ofMillis(200));
+        put(cache, "one", 100);
+        Path evicted = cache.get(key("one")).orElseThrow().file();
+
+        put(cache, "two", 100);
+        assertFalse(cache.contains(key("one")));
+        assertTrue(Files.exists(evicted), "a reader may still hand the file to sendfile");
+
+        Thread.sleep(250);
+        put(cache, "three", 100);
+        assertFalse(Files.exists(evicted));
+    }
+
+    @Test
+    public void put_shouldKeepFileStoredAgainBeforeItsDelayedDelete() throws Exception {
+        SpeechCache cache = new SpeechCache(directory, 150, Duration.ofMillis(100));
+        put(cache, "one", 100);
+        put(cache, "two", 100);
+        put(cache, "one", 100);
+
+        Thread.sleep(150);
+        put(cache, "two", 10);
+
+        assertTrue(Files.exists(cache.get(key("one")).orElseThrow().file()));
+    }
+
+    @Test
+    public void constructor_shouldRebuildIndexInModificationOrderAndDropTemporaryFiles() throws Exception {
+        SpeechCache cache = new SpeechCache(directory, 1000, Duration.ZERO);
+        put(cache, "old", 100);
+        put(cache, "new", 100);
+        Files.setLastModifiedTime(cache.get(key("old")).orElseThrow().file(), FileTime.fromMillis(1_000));
+        Path leftover = directory.resolve("ab").resolve("unfinished.tmp");
+        Files.createDirectories(leftover.getParent());
+        Files.write(leftover, new byte[10]);
+
+        SpeechCache restarted = new SpeechCache(directory, 150, Duration.ZERO);
+
+        assertEquals(1, restarted.size());
+        assertTrue(restarted.get(key("new")).isPresent());
+        assertEquals(100, restarted.get(key("new")).orElseThrow().size());
+        assertFalse(Files.exists(leftover));
+    }
+}
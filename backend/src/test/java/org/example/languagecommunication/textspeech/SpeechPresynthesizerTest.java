@@ -0,0 +1,171 @@
+package org.example.languagecommunication.textspeech;
+
+import org.example.languagecommunication.translation.awstranslation.DTO.DetectedLanguage;
+import org.example.languagecommunication.translation.awstranslation.service.AwsTranslationService;
+import org.example.languagecommunication.translation.awstranslation.service.LocalLanguageDetector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.polly.model.PollyException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SpeechPresynthesizerTest {
+
+    @Mock
+    private TextSpeechService textSpeechService;
+
+    @Mock
+    private SpeechCache speechCache;
+
+    @Mock
+    private LocalLanguageDetector localLanguageDetector;
+
+    @Mock
+    private AwsTranslationService awsTranslationService;
+
+    @Mock
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(localLanguageDetector.detect(anyString()))
+                .thenReturn(Optional.of(new DetectedLanguage("en", 0.9f)));
+        lenient().when(textSpeechService.speechKey(anyString(), eq("en")))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private SpeechPresynthesizer presynthesizer(boolean enabled) {
+        return presynthesizer(enabled, 1000);
+    }
+
+    private SpeechPresynthesizer presynthesizer(boolean enabled, double rate) {
+        return new SpeechPresynthesizer(textSpeechService, speechCache, localLanguageDetector, awsTranslationService, executor,
+                enabled, 1, rate, 100, Duration.ofMillis(10), Duration.ofMillis(20));
+    }
+
+    // workers are handed to the executor, the test runs them on its own thread
+    private void runWorker() {
+        ArgumentCaptor<Runnable> worker = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(worker.capture());
+        worker.getValue().run();
+    }
+
+    @Test
+    public void submit_shouldSkipCachedQueuedAndUnvoicedTexts() {
+        when(speechCache.contains("cached")).thenReturn(true);
+        when(localLanguageDetector.detect("Mirupafshim")).thenReturn(Optional.of(new DetectedLanguage("sq", 0.9f)));
+        SpeechPresynthesizer presynthesizer = presynthesizer(true);
+
+        presynthesizer.submit(1L, Arrays.asList("cached", "hello", "hello", "Mirupafshim", " ", null));
+        presynthesizer.submit(2L, List.of("hello"));
+
+        assertEquals(1, presynthesizer.queued());
+        runWorker();
+
+        verify(textSpeechService).cachedSpeech("hello", "en");
+        verify(textSpeechService, never()).cachedSpeech(eq("cached"), anyString());
+        verify(textSpeechService, never()).cachedSpeech(eq("Mirupafshim"), anyString());
+        assertEquals(0, presynthesizer.queued());
+    }
+
+    @Test
+    public void submit_shouldDetectShortFlashcardsThroughComprehend() {
+        when(awsTranslationService.detectLanguage("Hello")).thenReturn(new DetectedLanguage("en", 0.99f));
+        when(awsTranslationService.detectLanguage("dzień dobry")).thenReturn(new DetectedLanguage("pl", 0.98f));
+        when(textSpeechService.speechKey("dzień dobry", "pl")).thenReturn("dzień dobry");
+        SpeechPresynthesizer presynthesizer = new SpeechPresynthesizer(textSpeechService, speechCache,
+                new LocalLanguageDetector(0.05), awsTranslationService, executor,
+                true, 1, 1000, 100, Duration.ofMillis(10), Duration.ofMillis(20));
+
+        presynthesizer.submit(1L, List.of("Hello", "dzień dobry"));
+        runWorker();
+
+        verify(textSpeechService).cachedSpeech("Hello", "en");
+        verify(textSpeechService).cachedSpeech("dzień dobry", "pl");
+    }
+
+    @Test
+    public void submit_shouldTakeOneJobPerUserInTurn() {
+        SpeechPresynthesizer presynthesizer = presynthesizer(true);
+
+        presynthesizer.submit(1L, List.of("first", "second", "third"));
+        presynthesizer.submit(2L, List.of("other"));
+        runWorker();
+
+        InOrder order = inOrder(textSpeechService);
+        order.verify(textSpeechService).cachedSpeech("first", "en");
+        order.verify(textSpeechService).cachedSpeech("other", "en");
+        order.verify(textSpeechService).cachedSpeech("second", "en");
+        order.verify(textSpeechService).cachedSpeech("third", "en");
+    }
+
+    @Test
+    public void submit_shouldPauseAndRetryThrottledJobFirst() {
+        when(textSpeechService.cachedSpeech("first", "en"))
+                .thenThrow(new RuntimeException("Unexpected error", PollyException.builder().message("Rate exceeded").statusCode(429).build()))
+                .thenReturn(null);
+        SpeechPresynthesizer presynthesizer = presynthesizer(true);
+
+        presynthesizer.submit(1L, List.of("first", "second"));
+        long start = System.nanoTime();
+        runWorker();
+
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(10).toNanos());
+        InOrder order = inOrder(textSpeechService);
+        order.verify(textSpeechService, times(2)).cachedSpeech("first", "en");
+        order.verify(textSpeechService).cachedSpeech("second", "en");
+    }
+
+    @Test
+    public void submit_shouldKeepToItsOwnRate() {
+        SpeechPresynthesizer presynthesizer = presynthesizer(true, 10);
+        List<String> texts = IntStream.range(0, 13).mapToObj(i -> "text " + i).toList();
+
+        presynthesizer.submit(1L, texts);
+        long start = System.nanoTime();
+        runWorker();
+
+        // a burst of 10, then one call every 100ms
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(250).toNanos());
+        verify(textSpeechService, times(13)).cachedSpeech(anyString(), eq("en"));
+    }
+
+    @Test
+    public void submit_shouldDropFailedJobs() {
+        when(textSpeechService.cachedSpeech("first", "en")).thenThrow(new IllegalStateException("Disk full"));
+        SpeechPresynthesizer presynthesizer = presynthesizer(true);
+
+        presynthesizer.submit(1L, List.of("first", "second"));
+        runWorker();
+
+        verify(textSpeechService).cachedSpeech("first", "en");
+        verify(textSpeechService).cachedSpeech("second", "en");
+    }
+
+    @Test
+    public void submit_shouldDoNothingWhenDisabled() {
+        SpeechPresynthesizer presynthesizer = presynthesizer(false);
+
+        presynthesizer.submit(1L, List.of("hello"));
+
+        assertEquals(0, presynthesizer.queued());
+        verifyNoInteractions(executor, textSpeechService, localLanguageDetector);
+        verify(speechCache, never()).contains(any());
+    }
+}
@@ -0,0 +1,215 @@
+package org.example.languagecommunication.textspeech;
+
+import org.example.languagecommunication.exception.TextSpeechException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.polly.PollyAsyncClient;
+import software.amazon.awssdk.services.polly.PollyClient;
+import software.amazon.awssdk.services.polly.model.PollyException;
+import software.amazon.awssdk.services.polly.model.SynthesizeSpeechRequest;
+import software.amazon.awssdk.services.polly.model.SynthesizeSpeechResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TextSpeechServiceTest {
+
+    @Mock
+    PollyClient pollyClient;
+
+    @Mock
+    PollyAsyncClient pollyAsyncClient;
+
+    @TempDir
+    Path cacheDirectory;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private TextSpeechService textSpeechService;
+
+    @BeforeEach
+    public void setUp() {
+        textSpeechService = new TextSpeechService(pollyClient, pollyAsyncClient, new SpeechCache(cacheDirectory, 1_000_000, Duration.ZERO),
+                executor, 1024, 4, 10_000, 10, 40, 2, 3, 3, Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static ResponseInputStream<SynthesizeSpeechResponse> audio(byte[] bytes) {
+        return new ResponseInputStream<>(SynthesizeSpeechResponse.builder().contentType("audio/mpeg").build(),
+                AbortableInputStream.create(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void streamTextToSpeech_shouldWriteAudioInFlushedChunks() throws Exception {
+        byte[] bytes = new byte[5000];
+        new Random(1).nextBytes(bytes);
+        when(pollyClient.synthesizeSpeech(any(SynthesizeSpeechRequest.class))).thenReturn(audio(bytes));
+        ByteArrayOutputStream out = spy(new ByteArrayOutputStream());
+
+        StreamingResponseBody body = textSpeechService.streamTextToSpeech("Hello, how are you?", "en");
+        body.writeTo(out);
+
+        assertArrayEquals(bytes, out.toByteArray());
+        verify(out, times(5)).flush();
+    }
+
+    @Test
+    public void streamTextToSpeech_shouldRejectInvalidInputBeforeCallingPolly() {
+        TextSpeechException e = assertThrows(TextSpeechException.class,
+                () -> textSpeechService.streamTextToSpeech("Hello", "xx"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+        verifyNoInteractions(pollyClient);
+    }
+
+    @Test
+    public void cachedSpeech_shouldCallPollyOnceAndServeRepeatsFromDisk() throws Exception {
+        byte[] bytes = new byte[3000];
+        new Random(2).nextBytes(bytes);
+        when(pollyClient.synthesizeSpeech(any(SynthesizeSpeechRequest.class))).thenReturn(audio(bytes));
+
+        SpeechCache.CachedSpeech first = textSpeechService.cachedSpeech("Hello", "en");
+        SpeechCache.CachedSpeech second = textSpeechService.cachedSpeech("Hello", "en");
+
+        assertEquals(first, second);
+        assertArrayEquals(bytes, Files.readAllBytes(second.file()));
+        verify(pollyClient, times(1)).synthesizeSpeech(any(SynthesizeSpeechRequest.class));
+    }
+
+    @Test
+    public void streamLongTextToSpeech_shouldWriteSegmentsInOrderWithBoundedParallelism() throws Exception {
+        String text = "First sentence. " + "Another sentence follows here. ".repeat(8) + "Last one.";
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<String> requested = Collections.synchronizedList(new ArrayList<>());
+        when(pollyClient.synthesizeSpeech(any(SynthesizeSpeechRequest.class))).thenAnswer(invocation -> {
+            String segment = invocation.getArgument(0, SynthesizeSpeechRequest.class).text();
+            requested.add(segment);
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            // earlier segments are slower, so they finish after the ones synthesized ahead
+            Thread.sleep(requested.size() % 2 == 1 ? 60 : 5);
+            running.decrementAndGet();
+            return audio(segment.getBytes(StandardCharsets.UTF_8));
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        textSpeechService.streamLongTextToSpeech(text, "en").writeTo(out);
+
+        assertEquals(text, out.toString(StandardCharsets.UTF_8));
+        // segments of a window are synthesized together, so only the split is fixed, not the call order
+        assertTrue(requested.contains("First sentence. "));
+        assertTrue(requested.size() > 3);
+        requested.forEach(segment -> assertTrue(segment.length() <= 40));
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    public void streamLongTextToSpeech_shouldRetryThrottledSegments() throws Exception {
+        String text = "First sentence. Second sentence.";
+        AtomicInteger calls = new AtomicInteger();
+        when(pollyClient.synthesizeSpeech(any(SynthesizeSpeechRequest.class))).thenAnswer(invocation -> {
+            String segment = invocation.getArgument(0, SynthesizeSpeechRequest.class).text();
+            if (segment.startsWith("Second") && calls.incrementAndGet() <= 2) {
+                throw PollyException.builder().message("Rate exceeded").statusCode(429).build();
+            }
+            return audio(segment.getBytes(StandardCharsets.UTF_8));
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        textSpeechService.streamLongTextToSpeech(text, "en").writeTo(out);
+
+        assertEquals(text, out.toString(StandardCharsets.UTF_8));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void streamLongTextToSpeech_shouldGiveUpAfterMaxAttempts() throws Exception {
+        when(pollyClient.synthesizeSpeech(any(SynthesizeSpeechRequest.class))).thenAnswer(invocation -> {
+            String segment = invocation.getArgument(0, SynthesizeSpeechRequest.class).text();
+            if (segment.startsWith("Second")) {
+                throw PollyException.builder().message("Rate exceeded").statusCode(429).build();
+            }
+            return audio(segment.getBytes(StandardCharsets.UTF_8));
+        });
+        StreamingResponseBody body = textSpeechService.streamLongTextToSpeech("First sentence. Second sentence.", "en");
+
+        assertThrows(PollyException.class, () -> body.writeTo(new ByteArrayOutputStream()));
+        verify(pollyClient, times(4)).synthesizeSpeech(any(SynthesizeSpeechRequest.class));
+    }
+
+    @Test
+    public void streamLongTextToSpeech_shouldBoundSegmentsAcrossRequests() throws Exception {
+        String text = "First sentence. " + "Another sentence follows here. ".repeat(4) + "Last one.";
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(pollyClient.synthesizeSpeech(any(SynthesizeSpeechRequest.class))).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return audio(invocation.getArgument(0, SynthesizeSpeechRequest.class).text().getBytes(StandardCharsets.UTF_8));
+        });
+
+        List<Future<String>> requests = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            requests.add(executor.submit(() -> {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                textSpeechService.streamLongTextToSpeech(text, "en").writeTo(out);
+                return out.toString(StandardCharsets.UTF_8);
+            }));
+        }
+
+        for (Future<String> request : requests) {
+            assertEquals(text, request.get());
+        }
+        assertTrue(maxRunning.get() <= 3);
+    }
+
+    @Test
+    public void streamLongTextToSpeech_shouldFailBeforeStreamingWhenFirstSegmentFails() {
+        when(pollyClient.synthesizeSpeech(any(SynthesizeSpeechRequest.class)))
+                .thenThrow(new IllegalStateException("Polly is down"));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> textSpeechService.streamLongTextToSpeech("First sentence. Second sentence.", "en"));
+
+        assertTrue(e.getMessage().contains("Polly is down"));
+    }
+
+    @Test
+    public void streamLongTextToSpeech_shouldRejectTextOverTheLimit() {
+        TextSpeechException e = assertThrows(TextSpeechException.class,
+                () -> textSpeechService.streamLongTextToSpeech("a".repeat(10_001), "en"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+        verifyNoInteractions(pollyClient);
+    }
+}
@@ -5,7 +5,11 @@ import org.example.languagecommunication.auth.repository.UserRepository;
 import org.example.languagecommunication.auth.security.TestJwtUtil;
 import org.example.languagecommunication.auth.service.JwtService;
 import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationLanguage;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationText;
 import org.example.languagecommunication.translation.awstranslation.repository.TranslationRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationTextRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -41,6 +45,12 @@ public class AwsTranslationControllerIntegrationTest {
     @Autowired
     private TranslationRepository translationRepository;
 
+    @Autowired
+    private TranslationTextRepository translationTextRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @MockitoBean
     private org.springframework.mail.javamail.JavaMailSender javaMailSender;
 
@@ -66,37 +76,41 @@ public class AwsTranslationControllerIntegrationTest {
         jwt = TestJwtUtil.generateValidJwt(testUsername);
 
         Translation t1 = Translation.builder()
-                .sourceText("Hello")
-                .translatedText("Cześć")
-                .sourceLanguage("en")
-                .targetLanguage("pl")
+                .sourceText(TranslationText.of("Hello"))
+                .translatedText(TranslationText.of("Cześć"))
+                .sourceLanguage(TranslationLanguage.of("en"))
+                .targetLanguage(TranslationLanguage.of("pl"))
                 .success(true)
                 .timestamp(LocalDateTime.now())
                 .user(user)
                 .build();
 
         Translation t2 = Translation.builder()
-                .sourceText("Goodbye")
-                .translatedText("Do widzenia")
-                .sourceLanguage("en")
-                .targetLanguage("pl")
+                .sourceText(TranslationText.of("Goodbye"))
+                .translatedText(TranslationText.of("Do widzenia"))
+                .sourceLanguage(TranslationLanguage.of("en"))
+                .targetLanguage(TranslationLanguage.of("pl"))
                 .success(true)
                 .timestamp(LocalDateTime.now())
                 .user(user)
                 .build();
 
         Translation t3 = Translation.builder()
-                .sourceText("Error")
+                .sourceText(TranslationText.of("Error"))
                 .translatedText(null)
-                .sourceLanguage("en")
-                .targetLanguage("skibidi")
+                .sourceLanguage(TranslationLanguage.of("en"))
+                .targetLanguage(TranslationLanguage.of("skibidi"))
                 .success(false)
                 .errorMessage("Error")
                 .timestamp(LocalDateTime.now())
                 .user(user)
                 .build();
 
+        translationTextRepository.resolve(List.of(t1, t2, t3));
         translationRepository.saveAll(List.of(t1, t2, t3));
+        // the texts and languages above are detached copies, requests must load their own
+        entityManager.flush();
+        entityManager.clear();
     }
 
     @Test
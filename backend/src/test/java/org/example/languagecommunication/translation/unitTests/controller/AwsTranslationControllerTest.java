@@ -1,12 +1,24 @@
 package org.example.languagecommunication.translation.unitTests.controller;
 
 import org.example.languagecommunication.auth.service.JwtService;
+import org.example.languagecommunication.translation.awstranslation.DTO.BatchDetectionRequest;
+import org.example.languagecommunication.translation.awstranslation.DTO.BatchTranslationRequest;
 import org.example.languagecommunication.translation.awstranslation.DTO.DetectedLanguage;
 import org.example.languagecommunication.translation.awstranslation.DTO.LanguageDTO;
+import org.example.languagecommunication.translation.awstranslation.DTO.LanguageDetectionResult;
 import org.example.languagecommunication.translation.awstranslation.DTO.TranslationDTO;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationHistoryQuery;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationPage;
 import org.example.languagecommunication.translation.awstranslation.controller.AwsTranslationController;
 import org.example.languagecommunication.translation.awstranslation.service.AwsTranslationService;
+import org.example.languagecommunication.translation.awstranslation.service.BatchLanguageDetectionService;
+import org.example.languagecommunication.translation.awstranslation.service.BatchTranslationService;
+import org.example.languagecommunication.translation.awstranslation.service.SupportedLanguageCatalog;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationExportService;
 import org.example.languagecommunication.translation.awstranslation.service.TranslationHistoryService;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationSearchService;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationStatsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -17,9 +29,11 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -45,6 +59,27 @@ public class AwsTranslationControllerTest {
     @MockitoBean
     TranslationHistoryService translationHistoryService;
 
+    @MockitoBean
+    BatchTranslationService batchTranslationService;
+
+    @MockitoBean
+    TranslationExportService translationExportService;
+
+    @MockitoBean
+    TranslationSearchService translationSearchService;
+
+    @MockitoBean
+    BatchLanguageDetectionService batchLanguageDetectionService;
+
+    @MockitoBean
+    SupportedLanguageCatalog supportedLanguageCatalog;
+
+    @MockitoBean
+    TranslationStatsService translationStatsService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
     @Test
     public void translateText_shouldReturnTranslationDTO() throws Exception {
         TranslationDTO translationDTO = TranslationDTO.builder()
@@ -74,6 +109,89 @@ public class AwsTranslationControllerTest {
                 .andExpect(jsonPath("$.targetLanguage").value("pl"));
     }
 
+    @Test
+    public void translateBatch_shouldReturnTranslationsInOrder() throws Exception {
+        List<TranslationDTO> translations = List.of(
+                TranslationDTO.builder()
+                        .id(1L)
+                        .sourceText("Hello")
+                        .translatedText("Cześć")
+                        .sourceLanguage("en")
+                        .targetLanguage("pl")
+                        .success(true)
+                        .build(),
+                TranslationDTO.builder()
+                        .id(2L)
+                        .sourceText("Goodbye")
+                        .sourceLanguage("en")
+                        .targetLanguage("pl")
+                        .success(false)
+                        .errorMessage("Throttled")
+                        .build()
+        );
+
+        when(batchTranslationService.translateBatch(any(BatchTranslationRequest.class))).thenReturn(translations);
+
+        mockMvc.perform(post("/translate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"texts\":[\"Hello\",\"Goodbye\"],\"sourceLang\":\"en\",\"targetLangs\":[\"pl\"]}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].translatedText").value("Cześć"))
+                .andExpect(jsonPath("$[1].success").value(false))
+                .andExpect(jsonPath("$[1].errorMessage").value("Throttled"));
+    }
+
+    @Test
+    public void getTranslationPage_shouldBindFiltersAndReturnCursor() throws Exception {
+        TranslationPage page = TranslationPage.builder()
+                .items(List.of(TranslationDTO.builder()
+                        .id(7L)
+                        .sourceText("Hello")
+                        .translatedText("Cześć")
+                        .sourceLanguage("en")
+                        .targetLanguage("pl")
+                        .success(true)
+                        .build()))
+                .nextCursor("abc")
+                .build();
+
+        TranslationHistoryQuery expectedQuery = TranslationHistoryQuery.builder()
+                .limit(1)
+                .sourceLang("en")
+                .success(true)
+                .from(LocalDateTime.of(2025, 1, 1, 0, 0))
+                .build();
+        when(translationHistoryService.getTranslationPage(expectedQuery)).thenReturn(page);
+
+        mockMvc.perform(get("/translations")
+                        .param("limit", "1")
+                        .param("sourceLang", "en")
+                        .param("success", "true")
+                        .param("from", "2025-01-01T00:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(7))
+                .andExpect(jsonPath("$.nextCursor").value("abc"));
+    }
+
+    @Test
+    public void detectLanguages_shouldReturnResultsInInputOrder() throws Exception {
+        when(batchLanguageDetectionService.detectLanguages(any(BatchDetectionRequest.class))).thenReturn(List.of(
+                LanguageDetectionResult.detected(0, new DetectedLanguage("en", 0.99f)),
+                LanguageDetectionResult.failed(1, "Text must not be null or empty")));
+
+        mockMvc.perform(post("/detectLanguage/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"texts\":[\"Hello, my friend.\",\" \"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].languageCode").value("en"))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].success").value(false));
+    }
+
     @Test
     public void detectLanguage_shouldReturnDetectedLanguage() throws Exception{
         DetectedLanguage detectedLanguage = DetectedLanguage.builder()
@@ -114,6 +232,8 @@ public class AwsTranslationControllerTest {
         );
 
         when(awsTranslationService.getSupportedLanguages()).thenReturn(supportedLanguages);
+        SupportedLanguageCatalog catalog = new SupportedLanguageCatalog(awsTranslationService, objectMapper);
+        when(supportedLanguageCatalog.getResponse()).thenReturn(catalog.getResponse());
 
         mockMvc.perform(get("/supportedLanguages")
                         .accept(MediaType.APPLICATION_JSON))
@@ -127,6 +247,24 @@ public class AwsTranslationControllerTest {
                 .andExpect(jsonPath("$[1].languageName").value("Polish"));
     }
 
+    @Test
+    public void getSupportedLanguages_shouldAnswerNotModifiedForMatchingETag() throws Exception {
+        when(awsTranslationService.getSupportedLanguages()).thenReturn(List.of(
+                LanguageDTO.builder().languageCode("en").languageName("English").build()));
+        SupportedLanguageCatalog catalog = new SupportedLanguageCatalog(awsTranslationService, objectMapper);
+        when(supportedLanguageCatalog.getResponse()).thenReturn(catalog.getResponse());
+
+        mockMvc.perform(get("/supportedLanguages"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", catalog.getResponse().getETag()))
+                .andExpect(header().string("Cache-Control", "max-age=3600, public"));
+
+        mockMvc.perform(get("/supportedLanguages")
+                        .header("If-None-Match", catalog.getResponse().getETag()))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
     @Test
     public void getAllTranslations_shouldReturnListOfTranslationDTO() throws Exception {
         List<TranslationDTO> translations = List.of(
@@ -0,0 +1,81 @@
+package org.example.languagecommunication.translation.unitTests.repository;
+
+import org.example.languagecommunication.auth.model.User;
+import org.example.languagecommunication.translation.awstranslation.model.MatchType;
+import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationLanguage;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationText;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationMemoryRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationPartitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import({TranslationMemoryRepository.class, TranslationPartitionRepository.class})
+public class TranslationMemoryRepositoryTest {
+
+    @Autowired
+    TranslationMemoryRepository translationMemoryRepository;
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    private User user;
+    private final Map<String, TranslationText> texts = new HashMap<>();
+    private final Map<String, TranslationLanguage> languages = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() {
+        user = new User("test_user", "test@example.com", "password123");
+        user.setEnabled(true);
+        testEntityManager.persist(user);
+    }
+
+    private TranslationText text(String content) {
+        return content != null ? texts.computeIfAbsent(content, c -> testEntityManager.persist(new TranslationText(c))) : null;
+    }
+
+    private TranslationLanguage language(String code) {
+        return languages.computeIfAbsent(code, c -> testEntityManager.persist(new TranslationLanguage(c)));
+    }
+
+    private void persist(String translatedText, boolean success, MatchType matchType) {
+        testEntityManager.persist(Translation.builder()
+                .sourceText(text("Good morning"))
+                .translatedText(text(translatedText))
+                .sourceLanguage(language("en"))
+                .targetLanguage(language("pl"))
+                .timestamp(LocalDateTime.now())
+                .success(success)
+                .matchType(matchType)
+                .user(user)
+                .build());
+    }
+
+    @Test
+    public void findExact_shouldReturnNewestSuccessfulNonFuzzyTranslation() {
+        persist("Dzień dobry", true, null);
+        persist("Dobry dzień", true, MatchType.MACHINE);
+        persist("Dzień dobry!", true, MatchType.FUZZY);
+        persist(null, false, null);
+        testEntityManager.flush();
+
+        assertEquals(Optional.of("Dobry dzień"), translationMemoryRepository.findExact("Good morning", "en", "pl"));
+        assertTrue(translationMemoryRepository.findExact("Good morning", "en", "de").isEmpty());
+        assertTrue(translationMemoryRepository.findExact("Good evening", "en", "pl").isEmpty());
+    }
+}
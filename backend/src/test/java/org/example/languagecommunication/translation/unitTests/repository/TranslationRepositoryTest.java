@@ -2,7 +2,10 @@ package org.example.languagecommunication.translation.unitTests.repository;
 
 import org.example.languagecommunication.auth.model.User;
 import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationLanguage;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationText;
 import org.example.languagecommunication.translation.awstranslation.repository.TranslationRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,9 +13,14 @@ import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,6 +35,8 @@ public class TranslationRepositoryTest {
     TestEntityManager testEntityManager;
 
     private User user;
+    private final Map<String, TranslationText> texts = new HashMap<>();
+    private final Map<String, TranslationLanguage> languages = new HashMap<>();
 
     @BeforeEach
     public void setUp(){
@@ -35,13 +45,21 @@ public class TranslationRepositoryTest {
         testEntityManager.persist(user);
     }
 
+    private TranslationText text(String content) {
+        return content != null ? texts.computeIfAbsent(content, c -> testEntityManager.persist(new TranslationText(c))) : null;
+    }
+
+    private TranslationLanguage language(String code) {
+        return languages.computeIfAbsent(code, c -> testEntityManager.persist(new TranslationLanguage(c)));
+    }
+
     @Test
     public void save_shouldReturnTranslation(){
         Translation translation = Translation.builder()
-                .sourceText("Hello")
-                .translatedText("Cześć")
-                .sourceLanguage("en")
-                .targetLanguage("pl")
+                .sourceText(text("Hello"))
+                .translatedText(text("Cześć"))
+                .sourceLanguage(language("en"))
+                .targetLanguage(language("pl"))
                 .timestamp(LocalDateTime.now())
                 .success(true)
                 .errorMessage(null)
@@ -51,14 +69,14 @@ public class TranslationRepositoryTest {
         Translation saved = translationRepository.save(translation);
 
         assertNotNull(saved.getId());
-        assertEquals("Cześć", saved.getTranslatedText());
+        assertEquals("Cześć", saved.getTranslatedText().getContent());
         assertEquals("test_user", saved.getUser().getUsername());
 
         Translation failedTranslation = Translation.builder()
-                .sourceText("Bonjour")
+                .sourceText(text("Bonjour"))
                 .translatedText(null)
-                .sourceLanguage("fr")
-                .targetLanguage("xx") // np. nieistniejący język
+                .sourceLanguage(language("fr"))
+                .targetLanguage(language("xx")) // np. nieistniejący język
                 .timestamp(LocalDateTime.now())
                 .success(false)
                 .errorMessage("Unsupported target language")
@@ -81,10 +99,10 @@ public class TranslationRepositoryTest {
 
         // Two translations for user (created in setUp method)
         Translation translation1 = Translation.builder()
-                .sourceText("Hello")
-                .translatedText("Cześć")
-                .sourceLanguage("en")
-                .targetLanguage("pl")
+                .sourceText(text("Hello"))
+                .translatedText(text("Cześć"))
+                .sourceLanguage(language("en"))
+                .targetLanguage(language("pl"))
                 .timestamp(LocalDateTime.now())
                 .success(true)
                 .errorMessage(null)
@@ -93,10 +111,10 @@ public class TranslationRepositoryTest {
         translationRepository.save(translation1);
 
         Translation translation2 = Translation.builder()
-                .sourceText("Goodbye")
-                .translatedText("Do widzenia")
-                .sourceLanguage("en")
-                .targetLanguage("pl")
+                .sourceText(text("Goodbye"))
+                .translatedText(text("Do widzenia"))
+                .sourceLanguage(language("en"))
+                .targetLanguage(language("pl"))
                 .timestamp(LocalDateTime.now())
                 .success(true)
                 .errorMessage(null)
@@ -106,10 +124,10 @@ public class TranslationRepositoryTest {
 
         // One translation for user2
         Translation translation3 = Translation.builder()
-                .sourceText("Bonjour")
-                .translatedText("Cześć")
-                .sourceLanguage("fr")
-                .targetLanguage("pl")
+                .sourceText(text("Bonjour"))
+                .translatedText(text("Cześć"))
+                .sourceLanguage(language("fr"))
+                .targetLanguage(language("pl"))
                 .timestamp(LocalDateTime.now())
                 .success(true)
                 .errorMessage(null)
@@ -138,10 +156,10 @@ public class TranslationRepositoryTest {
 
         // One successfull and one unsuccessfull translation for user2
         Translation translation1 = Translation.builder()
-                .sourceText("Hello")
-                .translatedText("Cześć")
-                .sourceLanguage("en")
-                .targetLanguage("pl")
+                .sourceText(text("Hello"))
+                .translatedText(text("Cześć"))
+                .sourceLanguage(language("en"))
+                .targetLanguage(language("pl"))
                 .timestamp(LocalDateTime.now())
                 .success(true)  // sukces
                 .errorMessage(null)
@@ -150,10 +168,10 @@ public class TranslationRepositoryTest {
         translationRepository.save(translation1);
 
         Translation translationFail = Translation.builder()
-                .sourceText("ErrorText")
+                .sourceText(text("ErrorText"))
                 .translatedText(null)
-                .sourceLanguage("en")
-                .targetLanguage("pl")
+                .sourceLanguage(language("en"))
+                .targetLanguage(language("pl"))
                 .timestamp(LocalDateTime.now())
                 .success(false)  // porażka
                 .errorMessage("Some error")
@@ -163,10 +181,10 @@ public class TranslationRepositoryTest {
 
         // Two successfull translations for user2
         Translation translation2 = Translation.builder()
-                .sourceText("Bonjour")
-                .translatedText("Cześć")
-                .sourceLanguage("fr")
-                .targetLanguage("pl")
+                .sourceText(text("Bonjour"))
+                .translatedText(text("Cześć"))
+                .sourceLanguage(language("fr"))
+                .targetLanguage(language("pl"))
                 .timestamp(LocalDateTime.now())
                 .success(true)
                 .errorMessage(null)
@@ -175,10 +193,10 @@ public class TranslationRepositoryTest {
         translationRepository.save(translation2);
 
         Translation translation3 = Translation.builder()
-                .sourceText("Merci")
-                .translatedText("Dziękuję")
-                .sourceLanguage("fr")
-                .targetLanguage("pl")
+                .sourceText(text("Merci"))
+                .translatedText(text("Dziękuję"))
+                .sourceLanguage(language("fr"))
+                .targetLanguage(language("pl"))
                 .timestamp(LocalDateTime.now())
                 .success(true)
                 .errorMessage(null)
@@ -202,4 +220,57 @@ public class TranslationRepositoryTest {
     }
 
 
+
+    @Test
+    public void findPage_shouldReturnNewestFirstAfterCursor() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<Translation> saved = IntStream.range(0, 5)
+                .mapToObj(i -> translationRepository.save(Translation.builder()
+                        .sourceText(text("Text " + i))
+                        .translatedText(text("Tekst " + i))
+                        .sourceLanguage(language("en"))
+                        .targetLanguage(language(i % 2 == 0 ? "pl" : "de"))
+                        // two rows share a timestamp so the id breaks the tie
+                        .timestamp(base.plusMinutes(Math.min(i, 3)))
+                        .success(true)
+                        .user(user)
+                        .build()))
+                .toList();
+
+        List<TranslationView> firstPage = translationRepository.findPage(user.getId(), LocalDateTime.of(9999, 1, 1, 0, 0), Long.MAX_VALUE,
+                null, null, null, null, null, Limit.of(3));
+        TranslationView last = firstPage.getLast();
+        List<TranslationView> secondPage = translationRepository.findPage(user.getId(), last.getTimestamp(), last.getId(),
+                null, null, null, null, null, Limit.of(3));
+
+        assertEquals(List.of(saved.get(4).getId(), saved.get(3).getId(), saved.get(2).getId()),
+                firstPage.stream().map(TranslationView::getId).toList());
+        assertEquals(List.of(saved.get(1).getId(), saved.get(0).getId()),
+                secondPage.stream().map(TranslationView::getId).toList());
+
+        List<TranslationView> filtered = translationRepository.findPage(user.getId(), LocalDateTime.of(9999, 1, 1, 0, 0), Long.MAX_VALUE,
+                "en", "pl", true, base.plusMinutes(1), null, Limit.of(10));
+        assertEquals(List.of(saved.get(4).getId(), saved.get(2).getId()),
+                filtered.stream().map(TranslationView::getId).toList());
+    }
+
+    @Test
+    public void streamByUserId_shouldStreamOldestFirst() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+        for (int i = 2; i >= 0; i--) {
+            translationRepository.save(Translation.builder()
+                    .sourceText(text("Text " + i))
+                    .translatedText(text("Tekst " + i))
+                    .sourceLanguage(language("en"))
+                    .targetLanguage(language("pl"))
+                    .timestamp(base.plusMinutes(i))
+                    .success(true)
+                    .user(user)
+                    .build());
+        }
+
+        try (Stream<TranslationView> rows = translationRepository.streamByUserId(user.getId())) {
+            assertEquals(List.of("Text 0", "Text 1", "Text 2"), rows.map(TranslationView::getSourceText).toList());
+        }
+    }
 }
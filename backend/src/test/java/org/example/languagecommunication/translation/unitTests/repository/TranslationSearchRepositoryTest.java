@@ -0,0 +1,106 @@
+package org.example.languagecommunication.translation.unitTests.repository;
+
+import org.example.languagecommunication.auth.model.User;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationSearchHit;
+import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationLanguage;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationText;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationPartitionRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationSearchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import({TranslationSearchRepository.class, TranslationPartitionRepository.class})
+public class TranslationSearchRepositoryTest {
+
+    @Autowired
+    TranslationSearchRepository translationSearchRepository;
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    private User user;
+    private final Map<String, TranslationText> texts = new HashMap<>();
+    private final Map<String, TranslationLanguage> languages = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() {
+        user = new User("test_user", "test@example.com", "password123");
+        user.setEnabled(true);
+        testEntityManager.persist(user);
+    }
+
+    private TranslationText text(String content) {
+        return content != null ? texts.computeIfAbsent(content, c -> testEntityManager.persist(new TranslationText(c))) : null;
+    }
+
+    private TranslationLanguage language(String code) {
+        return languages.computeIfAbsent(code, c -> testEntityManager.persist(new TranslationLanguage(c)));
+    }
+
+    private void persist(String sourceText, String translatedText, User owner) {
+        testEntityManager.persist(Translation.builder()
+                .sourceText(text(sourceText))
+                .translatedText(text(translatedText))
+                .sourceLanguage(language("en"))
+                .targetLanguage(language("pl"))
+                .timestamp(LocalDateTime.now())
+                .success(true)
+                .user(owner)
+                .build());
+    }
+
+    @Test
+    public void search_shouldMatchEitherSideForOwnerOnly() {
+        User user2 = new User("test_user2", "test2@example.com", "password123");
+        user2.setEnabled(true);
+        testEntityManager.persist(user2);
+
+        persist("Good morning", "Dzień dobry", user);
+        persist("Good night", "Dobranoc", user);
+        persist("100% sure", "Na 100% pewny", user);
+        persist("Good morning", "Dzień dobry", user2);
+        testEntityManager.flush();
+
+        List<TranslationSearchHit> hits = translationSearchRepository.search(user.getId(), "DOBR", null, 10, 0);
+        List<TranslationSearchHit> percent = translationSearchRepository.search(user.getId(), "0%", null, 10, 0);
+        List<TranslationSearchHit> secondPage = translationSearchRepository.search(user.getId(), "good", null, 1, 1);
+
+        assertEquals(2, hits.size());
+        assertEquals(1, percent.size());
+        assertEquals("100% sure", percent.getFirst().translation().sourceText());
+        assertEquals(1, secondPage.size());
+    }
+
+    @Test
+    public void createSearchSchema_shouldIndexSearchVectorPerUserOnPostgres() throws Exception {
+        DataSource dataSource = mock(DataSource.class, RETURNS_DEEP_STUBS);
+        when(dataSource.getConnection().getMetaData().getDatabaseProductName()).thenReturn("PostgreSQL");
+        NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class, RETURNS_DEEP_STUBS);
+        TranslationPartitionRepository translationPartitionRepository = mock(TranslationPartitionRepository.class);
+
+        new TranslationSearchRepository(jdbcTemplate, translationPartitionRepository, dataSource)
+                .createSearchSchema();
+
+        verify(jdbcTemplate.getJdbcTemplate()).execute("CREATE EXTENSION IF NOT EXISTS btree_gin");
+        verify(translationPartitionRepository).createIndex(TranslationSearchRepository.SEARCH_INDEX, "USING GIN (user_id, search_vector)");
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.languagecommunication.translation.unitTests.repository;
+
+import org.example.languagecommunication.auth.model.User;
+import org.example.languagecommunication.translation.awstranslation.DTO.DailyActivity;
+import org.example.languagecommunication.translation.awstranslation.DTO.LanguagePairActivity;
+import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationLanguage;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationText;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(TranslationStatsRepository.class)
+public class TranslationStatsRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    TranslationStatsRepository translationStatsRepository;
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    private User user;
+    private final Map<String, TranslationText> texts = new HashMap<>();
+    private final Map<String, TranslationLanguage> languages = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() {
+        user = new User("test_user", "test@example.com", "password123");
+        user.setEnabled(true);
+        testEntityManager.persist(user);
+    }
+
+    private TranslationText text(String content) {
+        return content != null ? texts.computeIfAbsent(content, c -> testEntityManager.persist(new TranslationText(c))) : null;
+    }
+
+    private TranslationLanguage language(String code) {
+        return languages.computeIfAbsent(code, c -> testEntityManager.persist(new TranslationLanguage(c)));
+    }
+
+    private Translation translation(LocalDate day, String sourceLang, String targetLang, boolean success) {
+        return Translation.builder()
+                .sourceText(text("Hello"))
+                .translatedText(text(success ? "Cześć" : null))
+                .sourceLanguage(language(sourceLang))
+                .targetLanguage(language(targetLang))
+                .timestamp(day.atTime(12, 0))
+                .success(success)
+                .user(user)
+                .build();
+    }
+
+    @Test
+    public void increment_shouldAccumulateDailyCountersAcrossBatches() {
+        translationStatsRepository.increment(List.of(
+                translation(DAY, "en", "pl", true),
+                translation(DAY, "en", "pl", true),
+                translation(DAY, "en", "de", false)));
+        translationStatsRepository.increment(List.of(
+                translation(DAY, "en", "pl", true),
+                translation(DAY.plusDays(1), "en", "de", true)));
+
+        List<DailyActivity> days = translationStatsRepository.findDaily(user.getId(), DAY, DAY.plusDays(1));
+        assertEquals(List.of(new DailyActivity(DAY, 4, 3), new DailyActivity(DAY.plusDays(1), 1, 1)), days);
+
+        List<LanguagePairActivity> pairs = translationStatsRepository.findTopPairs(user.getId(), DAY, DAY.plusDays(1), 1);
+        assertEquals(List.of(new LanguagePairActivity("en", "pl", 3, 3)), pairs);
+        assertTrue(translationStatsRepository.findDaily(user.getId(), DAY.minusDays(5), DAY.minusDays(1)).isEmpty());
+    }
+
+    @Test
+    public void decrement_shouldRemoveCounterThatReachesZero() {
+        Translation translation = translation(DAY, "en", "pl", true);
+        translationStatsRepository.increment(List.of(translation, translation(DAY, "en", "de", true)));
+
+        translationStatsRepository.decrement(translation);
+
+        assertEquals(List.of(new LanguagePairActivity("en", "de", 1, 1)),
+                translationStatsRepository.findTopPairs(user.getId(), DAY, DAY, 10));
+    }
+
+    @Test
+    public void decrement_shouldOnlyTouchTheDayOfRepeatsSplitAtMidnight() {
+        // the history writer starts a new row at midnight instead of folding into the earlier one
+        Translation beforeMidnight = translation(DAY, "en", "pl", true);
+        beforeMidnight.setTimestamp(DAY.atTime(23, 58));
+        beforeMidnight.setRepeatCount(2);
+        Translation afterMidnight = translation(DAY.plusDays(1), "en", "pl", true);
+        afterMidnight.setTimestamp(DAY.plusDays(1).atTime(0, 1));
+        translationStatsRepository.increment(List.of(beforeMidnight, afterMidnight));
+
+        translationStatsRepository.decrement(afterMidnight);
+
+        assertEquals(List.of(new DailyActivity(DAY, 2, 2)),
+                translationStatsRepository.findDaily(user.getId(), DAY, DAY.plusDays(1)));
+
+        translationStatsRepository.decrement(beforeMidnight);
+
+        assertTrue(translationStatsRepository.findDaily(user.getId(), DAY, DAY.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    public void backfillIfEmpty_shouldBuildCountersFromHistoryWithRepeatsOnlyOnce() {
+        Translation repeated = translation(DAY, "en", "pl", true);
+        repeated.setRepeatCount(3);
+        testEntityManager.persist(repeated);
+        testEntityManager.persist(translation(DAY, "en", "pl", false));
+        testEntityManager.persist(translation(DAY.plusDays(1), "fr", "pl", true));
+        testEntityManager.flush();
+
+        assertEquals(3, translationStatsRepository.backfillIfEmpty());
+        assertEquals(0, translationStatsRepository.backfillIfEmpty());
+
+        assertEquals(List.of(new DailyActivity(DAY, 4, 3), new DailyActivity(DAY.plusDays(1), 1, 1)),
+                translationStatsRepository.findDaily(user.getId(), DAY, DAY.plusDays(1)));
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.languagecommunication.translation.unitTests.repository;
+
+import org.example.languagecommunication.auth.model.User;
+import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationLanguage;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationText;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationTextRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(TranslationTextRepository.class)
+public class TranslationTextRepositoryTest {
+
+    @Autowired
+    TranslationTextRepository translationTextRepository;
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        user = new User("test_user", "test@example.com", "password123");
+        user.setEnabled(true);
+        testEntityManager.persist(user);
+    }
+
+    private Translation translation(String sourceText, String translatedText, String sourceLang, String targetLang) {
+        return Translation.builder()
+                .sourceText(TranslationText.of(sourceText))
+                .translatedText(TranslationText.of(translatedText))
+                .sourceLanguage(TranslationLanguage.of(sourceLang))
+                .targetLanguage(TranslationLanguage.of(targetLang))
+                .timestamp(LocalDateTime.now())
+                .success(translatedText != null)
+                .user(user)
+                .build();
+    }
+
+    @Test
+    public void resolve_shouldStoreEachTextAndLanguageOnce() {
+        Translation first = translation("Hello", "Cześć", "en", "pl");
+        Translation second = translation("Hello", "Hallo", "en", "de");
+        Translation failed = translation("Cześć", null, "pl", "xx");
+
+        translationTextRepository.resolve(List.of(first, second, failed));
+
+        assertNotNull(first.getSourceText().getId());
+        assertEquals(first.getSourceText().getId(), second.getSourceText().getId());
+        assertEquals(first.getTranslatedText().getId(), failed.getSourceText().getId());
+        assertEquals(first.getSourceLanguage().getId(), second.getSourceLanguage().getId());
+        assertNotEquals(first.getTargetLanguage().getId(), second.getTargetLanguage().getId());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM translation_texts", Integer.class));
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM translation_languages", Integer.class));
+    }
+
+    @Test
+    public void resolve_shouldReuseStoredRows() {
+        Translation earlier = translation("Hello", "Cześć", "en", "pl");
+        translationTextRepository.resolve(List.of(earlier));
+
+        Translation later = translation("Hello", "Cześć", "en", "pl");
+        translationTextRepository.resolve(List.of(later));
+
+        assertEquals(earlier.getSourceText().getId(), later.getSourceText().getId());
+        assertEquals(earlier.getTranslatedText().getId(), later.getTranslatedText().getId());
+        assertEquals(earlier.getTargetLanguage().getId(), later.getTargetLanguage().getId());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM translation_texts", Integer.class));
+
+        testEntityManager.persist(later);
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Translation stored = testEntityManager.find(Translation.class, later.getId());
+        assertEquals("Hello", stored.getSourceText().getContent());
+        assertEquals("pl", stored.getTargetLanguage().getCode());
+        assertEquals(1, stored.getRepeatCount());
+    }
+
+    @Test
+    public void deleteOrphanTexts_shouldKeepTextsStillReferenced() {
+        Translation kept = translation("Hello", "Cześć", "en", "pl");
+        Translation deleted = translation("Hello", "Hallo", "en", "de");
+        translationTextRepository.resolve(List.of(kept, deleted));
+        testEntityManager.persist(kept);
+        testEntityManager.persist(deleted);
+        testEntityManager.flush();
+
+        testEntityManager.remove(deleted);
+        testEntityManager.flush();
+
+        assertEquals(1, translationTextRepository.deleteOrphanTexts());
+        assertEquals(List.of("Cześć", "Hello"), jdbcTemplate.queryForList(
+                "SELECT content FROM translation_texts ORDER BY content", String.class));
+    }
+
+    @Test
+    public void resolveAgain_shouldStoreTextDeletedAfterItWasResolved() {
+        Translation translation = translation("Hello", "Cześć", "en", "pl");
+        translationTextRepository.resolve(List.of(translation));
+        Long deletedId = translation.getTranslatedText().getId();
+        translationTextRepository.deleteOrphanTexts();
+
+        assertTrue(translationTextRepository.resolveAgain(translation));
+        assertNotEquals(deletedId, translation.getTranslatedText().getId());
+        assertFalse(translationTextRepository.resolveAgain(translation));
+    }
+
+    @Test
+    public void migrateInlineColumns_shouldDoNothingOutsidePostgres() {
+        assertFalse(translationTextRepository.isInlineMigrationPending());
+        assertEquals(0, translationTextRepository.migrateInlineColumns());
+    }
+}
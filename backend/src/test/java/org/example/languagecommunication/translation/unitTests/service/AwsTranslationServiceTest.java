@@ -1,46 +1,80 @@
 package org.example.languagecommunication.translation.unitTests.service;
 
+import org.example.languagecommunication.common.utils.SecurityUtils;
 import org.example.languagecommunication.exception.LanguageDetectionException;
 import org.example.languagecommunication.translation.awstranslation.DTO.DetectedLanguage;
 import org.example.languagecommunication.translation.awstranslation.DTO.LanguageDTO;
 import org.example.languagecommunication.translation.awstranslation.DTO.TranslationDTO;
+import org.example.languagecommunication.translation.awstranslation.model.MatchType;
 import org.example.languagecommunication.translation.awstranslation.model.SupportedLanguage;
 import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationLanguage;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationText;
 import org.example.languagecommunication.translation.awstranslation.service.AwsTranslationService;
+import org.example.languagecommunication.translation.awstranslation.service.LanguageDetectionCache;
+import org.example.languagecommunication.translation.awstranslation.service.LocalLanguageDetector;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationCache;
 import org.example.languagecommunication.translation.awstranslation.service.TranslationHistoryService;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationMemory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import software.amazon.awssdk.services.comprehend.ComprehendClient;
 import software.amazon.awssdk.services.comprehend.model.DetectDominantLanguageRequest;
 import software.amazon.awssdk.services.comprehend.model.DetectDominantLanguageResponse;
 import software.amazon.awssdk.services.comprehend.model.DominantLanguage;
+import software.amazon.awssdk.services.translate.TranslateAsyncClient;
 import software.amazon.awssdk.services.translate.TranslateClient;
 import software.amazon.awssdk.services.translate.model.TranslateTextRequest;
 import software.amazon.awssdk.services.translate.model.TranslateTextResponse;
 import software.amazon.awssdk.services.translate.model.UnsupportedLanguagePairException;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class AwsTranslationServiceTest {
     @Mock
     TranslateClient translateClient;
 
+    @Mock
+    TranslateAsyncClient translateAsyncClient;
+
     @Mock
     ComprehendClient comprehendClient;
 
     @Mock
     TranslationHistoryService translationHistoryService;
 
+    @Mock
+    TranslationMemory translationMemory;
+
+    @Mock
+    LocalLanguageDetector localLanguageDetector;
+
+    @Spy
+    LanguageDetectionCache languageDetectionCache = new LanguageDetectionCache(100_000, Duration.ofMinutes(5));
+
+    @Mock
+    ExecutorService translationExecutor;
+
+    @Spy
+    TranslationCache translationCache = new TranslationCache(100_000, Duration.ofMinutes(5));
+
     @InjectMocks
     AwsTranslationService awsTranslationService;
 
@@ -55,14 +89,14 @@ public class AwsTranslationServiceTest {
 
         Translation savedTranslation = new Translation();
         savedTranslation.setId(1L);
-        savedTranslation.setSourceText("Hello");
-        savedTranslation.setTranslatedText("Cześć");
-        savedTranslation.setSourceLanguage("en");
-        savedTranslation.setTargetLanguage("pl");
+        savedTranslation.setSourceText(TranslationText.of("Hello"));
+        savedTranslation.setTranslatedText(TranslationText.of("Cześć"));
+        savedTranslation.setSourceLanguage(TranslationLanguage.of("en"));
+        savedTranslation.setTargetLanguage(TranslationLanguage.of("pl"));
         savedTranslation.setTimestamp(LocalDateTime.now());
         savedTranslation.setSuccess(true);
 
-        when(translationHistoryService.saveSuccess(anyString(), anyString(), anyString(), anyString()))
+        when(translationHistoryService.saveSuccess(anyString(), anyString(), anyString(), anyString(), eq(MatchType.MACHINE)))
                 .thenReturn(savedTranslation);
 
         TranslationDTO result = awsTranslationService.translateText("Hello", "en", "pl");
@@ -73,6 +107,169 @@ public class AwsTranslationServiceTest {
         assertEquals("pl", result.targetLanguage());
     }
 
+    private void stubComprehend(String languageCode) {
+        when(comprehendClient.detectDominantLanguage((DetectDominantLanguageRequest) any()))
+                .thenReturn(DetectDominantLanguageResponse.builder()
+                        .languages(List.of(DominantLanguage.builder().languageCode(languageCode).score(0.98f).build()))
+                        .build());
+    }
+
+    private void stubSaveSuccess() {
+        when(translationHistoryService.saveSuccess(anyString(), anyString(), anyString(), anyString(), any(MatchType.class)))
+                .thenAnswer(invocation -> Translation.builder()
+                        .sourceText(TranslationText.of(invocation.getArgument(0)))
+                        .translatedText(TranslationText.of(invocation.getArgument(1)))
+                        .sourceLanguage(TranslationLanguage.of(invocation.getArgument(2)))
+                        .targetLanguage(TranslationLanguage.of(invocation.getArgument(3)))
+                        .matchType(invocation.getArgument(4))
+                        .success(true)
+                        .build());
+    }
+
+    @Test
+    public void translateText_withAutoSource_shouldKeepSpeculativeTranslationWhenComprehendAgrees() {
+        when(localLanguageDetector.detect("Guten Morgen, wie geht es dir?")).thenReturn(Optional.of(new DetectedLanguage("de", 0.9f)));
+        when(translateAsyncClient.translateText((TranslateTextRequest) any()))
+                .thenReturn(CompletableFuture.completedFuture(TranslateTextResponse.builder().translatedText("Dzień dobry, jak się masz?").build()));
+        stubComprehend("de");
+        stubSaveSuccess();
+
+        TranslationDTO result = awsTranslationService.translateText("Guten Morgen, wie geht es dir?", "auto", "pl");
+
+        assertEquals("Dzień dobry, jak się masz?", result.translatedText());
+        assertEquals("de", result.sourceLanguage());
+        assertEquals(new DetectedLanguage("de", 0.98f), result.detectedLanguage());
+        verify(translateAsyncClient).translateText(argThat((TranslateTextRequest request) -> "de".equals(request.sourceLanguageCode())));
+        verifyNoInteractions(translateClient);
+    }
+
+    @Test
+    public void translateText_withAutoSource_shouldCancelAndRedoWhenComprehendDisagrees() {
+        CompletableFuture<TranslateTextResponse> speculative = new CompletableFuture<>();
+        when(localLanguageDetector.detect("Obrigado pela ajuda")).thenReturn(Optional.of(new DetectedLanguage("es", 0.9f)));
+        when(translateAsyncClient.translateText((TranslateTextRequest) any())).thenReturn(speculative);
+        when(translateClient.translateText((TranslateTextRequest) any()))
+                .thenReturn(TranslateTextResponse.builder().translatedText("Dziękuję za pomoc").build());
+        stubComprehend("pt");
+        stubSaveSuccess();
+
+        TranslationDTO result = awsTranslationService.translateText("Obrigado pela ajuda", "auto", "pl");
+
+        assertEquals("Dziękuję za pomoc", result.translatedText());
+        assertEquals("pt", result.sourceLanguage());
+        assertTrue(speculative.isCancelled());
+        verify(translateClient).translateText(argThat((TranslateTextRequest request) -> "pt".equals(request.sourceLanguageCode())));
+    }
+
+    @Test
+    public void translateText_withAutoSource_shouldTrustCachedDetection() {
+        languageDetectionCache.put("Hello there", new DetectedLanguage("en", 0.99f));
+        when(translateClient.translateText((TranslateTextRequest) any()))
+                .thenReturn(TranslateTextResponse.builder().translatedText("Cześć").build());
+        stubSaveSuccess();
+
+        TranslationDTO result = awsTranslationService.translateText("Hello there", "AUTO", "pl");
+
+        assertEquals("en", result.sourceLanguage());
+        assertEquals("en", result.detectedLanguage().languageCode());
+        verifyNoInteractions(comprehendClient, localLanguageDetector, translateAsyncClient);
+    }
+
+    @Test
+    public void translateText_withAutoSource_shouldConfirmEarlierLocalDetection() {
+        when(localLanguageDetector.detect("Guten Morgen, wie geht es dir?")).thenReturn(Optional.of(new DetectedLanguage("de", 0.9f)));
+        when(translateAsyncClient.translateText((TranslateTextRequest) any()))
+                .thenReturn(CompletableFuture.completedFuture(TranslateTextResponse.builder().translatedText("Dzień dobry, jak się masz?").build()));
+        stubComprehend("de");
+        stubSaveSuccess();
+
+        awsTranslationService.detectLanguage("Guten Morgen, wie geht es dir?");
+        awsTranslationService.translateText("Guten Morgen, wie geht es dir?", "auto", "pl");
+
+        verify(comprehendClient).detectDominantLanguage((DetectDominantLanguageRequest) any());
+    }
+
+    @Test
+    public void translateText_withAutoSource_shouldRejectEmptyText() {
+        LanguageDetectionException exception = assertThrows(LanguageDetectionException.class,
+                () -> awsTranslationService.translateText("   ", "auto", "pl"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(translationHistoryService);
+    }
+
+    @Test
+    public void translateText_shouldServeRepeatedTextFromCache_andStillSaveHistory() {
+        when(translateClient.translateText((TranslateTextRequest) any()))
+                .thenReturn(TranslateTextResponse.builder().translatedText("Cześć").build());
+
+        Translation savedTranslation = new Translation();
+        savedTranslation.setSourceText(TranslationText.of("Hello"));
+        savedTranslation.setTranslatedText(TranslationText.of("Cześć"));
+        savedTranslation.setSourceLanguage(TranslationLanguage.of("en"));
+        savedTranslation.setTargetLanguage(TranslationLanguage.of("pl"));
+        savedTranslation.setSuccess(true);
+
+        when(translationHistoryService.saveSuccess(anyString(), eq("Cześć"), anyString(), anyString(), any(MatchType.class)))
+                .thenReturn(savedTranslation);
+
+        awsTranslationService.translateText("Hello", "en", "pl");
+        TranslationDTO result = awsTranslationService.translateText("  Hello ", "EN", "pl");
+
+        assertEquals("Cześć", result.translatedText());
+        verify(translateClient, times(1)).translateText((TranslateTextRequest) any());
+        verify(translationHistoryService).saveSuccess(anyString(), eq("Cześć"), anyString(), anyString(), eq(MatchType.MACHINE));
+        verify(translationHistoryService).saveSuccess(anyString(), eq("Cześć"), anyString(), anyString(), eq(MatchType.EXACT));
+        assertEquals(1, translationCache.stats().hitCount());
+        assertEquals(1, translationCache.stats().missCount());
+    }
+
+    @Test
+    public void translateText_shouldServeExactMemoryMatchWithoutCallingAws() {
+        when(translationMemory.findExact("Hello", "en", "pl"))
+                .thenReturn(Optional.of(new TranslationMemory.Match("Cześć", MatchType.EXACT)));
+        when(translationHistoryService.saveSuccess("Hello", "Cześć", "en", "pl", MatchType.EXACT))
+                .thenAnswer(invocation -> Translation.builder()
+                        .sourceText(TranslationText.of("Hello")).translatedText(TranslationText.of("Cześć"))
+                        .sourceLanguage(TranslationLanguage.of("en")).targetLanguage(TranslationLanguage.of("pl"))
+                        .success(true).matchType(MatchType.EXACT).build());
+
+        TranslationDTO result = awsTranslationService.translateText("Hello", "en", "pl");
+
+        assertEquals("Cześć", result.translatedText());
+        assertEquals(MatchType.EXACT, result.matchType());
+        verifyNoInteractions(translateClient);
+        verify(translationMemory, never()).findFuzzy(anyString(), anyString(), anyString());
+        assertEquals(Optional.of("Cześć"), translationCache.get("Hello", "en", "pl"));
+    }
+
+    @Test
+    public void translateText_shouldServeFuzzyMemoryMatchWithoutCaching() {
+        when(translationMemory.findFuzzy("Hello there!", "en", "pl"))
+                .thenReturn(Optional.of(new TranslationMemory.Match("Cześć!", MatchType.FUZZY)));
+        when(translationHistoryService.saveSuccess("Hello there!", "Cześć!", "en", "pl", MatchType.FUZZY))
+                .thenAnswer(invocation -> Translation.builder()
+                        .sourceText(TranslationText.of("Hello there!")).translatedText(TranslationText.of("Cześć!"))
+                        .sourceLanguage(TranslationLanguage.of("en")).targetLanguage(TranslationLanguage.of("pl"))
+                        .success(true).matchType(MatchType.FUZZY).build());
+
+        TranslationDTO result = awsTranslationService.translateText("Hello there!", "en", "pl");
+
+        assertEquals(MatchType.FUZZY, result.matchType());
+        verifyNoInteractions(translateClient);
+        assertEquals(Optional.empty(), translationCache.get("Hello there!", "en", "pl"));
+    }
+
+    @Test
+    public void translate_shouldNotUseFuzzyMatches() {
+        when(translateClient.translateText((TranslateTextRequest) any()))
+                .thenReturn(TranslateTextResponse.builder().translatedText("Cześć").build());
+
+        assertEquals("Cześć", awsTranslationService.translate("Hello", "en", "pl"));
+        verify(translationMemory).findExact("Hello", "en", "pl");
+        verify(translationMemory, never()).findFuzzy(anyString(), anyString(), anyString());
+    }
+
     @Test
     public void translateText_shouldReturnTranslationDTO_whenUnsuccessful(){
         String input = "Hello";
@@ -88,10 +285,10 @@ public class AwsTranslationServiceTest {
 
         Translation errorTranslation = new Translation();
         errorTranslation.setId(123L);
-        errorTranslation.setSourceText(input);
+        errorTranslation.setSourceText(TranslationText.of(input));
         errorTranslation.setTranslatedText(null);
-        errorTranslation.setSourceLanguage(sourceLang);
-        errorTranslation.setTargetLanguage(targetLang);
+        errorTranslation.setSourceLanguage(TranslationLanguage.of(sourceLang));
+        errorTranslation.setTargetLanguage(TranslationLanguage.of(targetLang));
         errorTranslation.setSuccess(false);
         errorTranslation.setErrorMessage("Unsupported language pair");
         errorTranslation.setTimestamp(LocalDateTime.now());
@@ -108,6 +305,80 @@ public class AwsTranslationServiceTest {
         assertEquals(targetLang, result.targetLanguage());
     }
 
+    private CompletableFuture<TranslationDTO> translateAsyncAsUser(Long userId, String text, String sourceLang, String targetLang) {
+        try (MockedStatic<SecurityUtils> securityUtils = mockStatic(SecurityUtils.class)) {
+            securityUtils.when(SecurityUtils::getCurrentUserId).thenReturn(userId);
+            return awsTranslationService.translateTextAsync(text, sourceLang, targetLang);
+        }
+    }
+
+    @Test
+    public void translateTextAsync_shouldResolveOnExecutorAndSaveResultForCallingUser() {
+        List<Runnable> tasks = new ArrayList<>();
+        doAnswer(invocation -> tasks.add(invocation.getArgument(0))).when(translationExecutor).execute(any(Runnable.class));
+        when(translateClient.translateText((TranslateTextRequest) any()))
+                .thenReturn(TranslateTextResponse.builder().translatedText("Cześć").build());
+        when(translationHistoryService.saveSuccess(7L, "Hello", "Cześć", "en", "pl", MatchType.MACHINE))
+                .thenAnswer(invocation -> Translation.builder()
+                        .sourceText(TranslationText.of("Hello")).translatedText(TranslationText.of("Cześć"))
+                        .sourceLanguage(TranslationLanguage.of("en")).targetLanguage(TranslationLanguage.of("pl"))
+                        .success(true).matchType(MatchType.MACHINE).build());
+
+        CompletableFuture<TranslationDTO> result = translateAsyncAsUser(7L, "Hello", "en", "pl");
+
+        assertFalse(result.isDone());
+        verifyNoInteractions(translateClient, translationMemory);
+        tasks.forEach(Runnable::run);
+
+        assertEquals("Cześć", result.join().translatedText());
+        assertEquals(MatchType.MACHINE, result.join().matchType());
+        verify(translationMemory).findFuzzy("Hello", "en", "pl");
+        assertEquals("Cześć", translationCache.get("Hello", "en", "pl").orElseThrow());
+    }
+
+    @Test
+    public void translateTextAsync_shouldServeMemoryMatchWithoutCallingAws() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(translationExecutor).execute(any(Runnable.class));
+        when(translationMemory.findExact("Hello", "en", "pl"))
+                .thenReturn(Optional.of(new TranslationMemory.Match("Cześć", MatchType.EXACT)));
+        when(translationHistoryService.saveSuccess(7L, "Hello", "Cześć", "en", "pl", MatchType.EXACT))
+                .thenAnswer(invocation -> Translation.builder()
+                        .sourceText(TranslationText.of("Hello")).translatedText(TranslationText.of("Cześć"))
+                        .sourceLanguage(TranslationLanguage.of("en")).targetLanguage(TranslationLanguage.of("pl"))
+                        .success(true).matchType(MatchType.EXACT).build());
+
+        TranslationDTO result = translateAsyncAsUser(7L, "Hello", "en", "pl").join();
+
+        assertEquals(MatchType.EXACT, result.matchType());
+        verifyNoInteractions(translateClient, translateAsyncClient);
+    }
+
+    @Test
+    public void translateTextAsync_shouldSaveErrorWhenAwsCallFails() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(translationExecutor).execute(any(Runnable.class));
+        when(translateClient.translateText((TranslateTextRequest) any()))
+                .thenThrow(UnsupportedLanguagePairException.builder().message("Unsupported pair").build());
+
+        Translation savedError = new Translation();
+        savedError.setSourceText(TranslationText.of("Hello"));
+        savedError.setSourceLanguage(TranslationLanguage.of("en"));
+        savedError.setTargetLanguage(TranslationLanguage.of("xx"));
+        savedError.setSuccess(false);
+        savedError.setErrorMessage("Unsupported pair");
+        when(translationHistoryService.saveError(7L, "Hello", "en", "xx", "Unsupported pair")).thenReturn(savedError);
+
+        TranslationDTO result = translateAsyncAsUser(7L, "Hello", "en", "xx").join();
+
+        assertFalse(result.success());
+        assertEquals("Unsupported pair", result.errorMessage());
+    }
+
     @Test
     public void detectLanguage_shouldReturnDetectedLanguage_whenSuccessful(){
         List<DominantLanguage> languages = List.of(
@@ -130,6 +401,31 @@ public class AwsTranslationServiceTest {
         assertEquals("en", detectedLanguage.languageCode());
     }
 
+    @Test
+    public void detectLanguage_shouldAnswerLocallyWithoutCallingComprehend() {
+        when(localLanguageDetector.detect("Дякую")).thenReturn(Optional.of(new DetectedLanguage("uk", 0.95f)));
+
+        DetectedLanguage detectedLanguage = awsTranslationService.detectLanguage("Дякую");
+
+        assertEquals("uk", detectedLanguage.languageCode());
+        verifyNoInteractions(comprehendClient);
+    }
+
+    @Test
+    public void detectLanguage_shouldCacheComprehendResultForRepeatedText() {
+        when(comprehendClient.detectDominantLanguage((DetectDominantLanguageRequest) any()))
+                .thenReturn(DetectDominantLanguageResponse.builder()
+                        .languages(List.of(DominantLanguage.builder().languageCode("en").score(0.99f).build()))
+                        .build());
+
+        awsTranslationService.detectLanguage("Hello, my friend.");
+        DetectedLanguage detectedLanguage = awsTranslationService.detectLanguage("  hello, my  friend. ");
+
+        assertEquals("en", detectedLanguage.languageCode());
+        verify(comprehendClient, times(1)).detectDominantLanguage((DetectDominantLanguageRequest) any());
+        verify(localLanguageDetector, times(1)).detect(anyString());
+    }
+
     @Test
     public void detectLanguage_shouldThrowException_whenUnsuccessful() {
         String emptyText = "   ";
@@ -162,4 +458,12 @@ public class AwsTranslationServiceTest {
             assertEquals(expected.getLanguageNamePL(), actual.languageNamePL());
         }
     }
+
+    @Test
+    public void fromLanguageCode_shouldIgnoreCase(){
+        assertEquals(SupportedLanguage.PORTUGUESE_PORTUGAL, SupportedLanguage.fromLanguageCode("PT-pt"));
+        assertEquals(SupportedLanguage.POLISH, SupportedLanguage.fromLanguageCode("pl"));
+        assertThrows(IllegalArgumentException.class, () -> SupportedLanguage.fromLanguageCode("xx"));
+        assertThrows(IllegalArgumentException.class, () -> SupportedLanguage.fromLanguageCode(null));
+    }
 }
@@ -0,0 +1,173 @@
+package org.example.languagecommunication.translation.unitTests.service;
+
+import org.example.languagecommunication.exception.LanguageDetectionException;
+import org.example.languagecommunication.translation.awstranslation.DTO.BatchDetectionRequest;
+import org.example.languagecommunication.translation.awstranslation.DTO.DetectedLanguage;
+import org.example.languagecommunication.translation.awstranslation.DTO.LanguageDetectionResult;
+import org.example.languagecommunication.translation.awstranslation.service.BatchLanguageDetectionService;
+import org.example.languagecommunication.translation.awstranslation.service.LanguageDetectionCache;
+import org.example.languagecommunication.translation.awstranslation.service.LocalLanguageDetector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.comprehend.ComprehendClient;
+import software.amazon.awssdk.services.comprehend.model.BatchDetectDominantLanguageItemResult;
+import software.amazon.awssdk.services.comprehend.model.BatchDetectDominantLanguageRequest;
+import software.amazon.awssdk.services.comprehend.model.BatchDetectDominantLanguageResponse;
+import software.amazon.awssdk.services.comprehend.model.BatchItemError;
+import software.amazon.awssdk.services.comprehend.model.DominantLanguage;
+import software.amazon.awssdk.services.comprehend.model.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchLanguageDetectionServiceTest {
+
+    @Mock
+    ComprehendClient comprehendClient;
+
+    @Mock
+    LocalLanguageDetector localLanguageDetector;
+
+    ExecutorService executor;
+
+    BatchLanguageDetectionService service;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        lenient().when(localLanguageDetector.detect(anyString())).thenReturn(Optional.empty());
+        service = new BatchLanguageDetectionService(comprehendClient, localLanguageDetector,
+                new LanguageDetectionCache(100_000, Duration.ofMinutes(5)), executor, 100, 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // answers every text with "en", reporting texts that start with "!" as item errors
+    private static BatchDetectDominantLanguageResponse answer(BatchDetectDominantLanguageRequest request) {
+        List<BatchDetectDominantLanguageItemResult> results = new ArrayList<>();
+        List<BatchItemError> errors = new ArrayList<>();
+        for (int i = 0; i < request.textList().size(); i++) {
+            if (request.textList().get(i).startsWith("!")) {
+                errors.add(BatchItemError.builder().index(i).errorCode("INVALID").errorMessage("Unsupported text").build());
+            } else {
+                results.add(BatchDetectDominantLanguageItemResult.builder()
+                        .index(i)
+                        .languages(List.of(DominantLanguage.builder().languageCode("en").score(0.9f).build()))
+                        .build());
+            }
+        }
+        return BatchDetectDominantLanguageResponse.builder().resultList(results).errorList(errors).build();
+    }
+
+    @Test
+    public void detectLanguages_shouldChunkRequestsAndKeepInputOrder() {
+        when(comprehendClient.batchDetectDominantLanguage(any(BatchDetectDominantLanguageRequest.class)))
+                .thenAnswer(invocation -> answer(invocation.getArgument(0)));
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            texts.add(i == 42 ? "!broken" : "text number " + i);
+        }
+
+        List<LanguageDetectionResult> results = service.detectLanguages(new BatchDetectionRequest(texts));
+
+        assertEquals(60, results.size());
+        for (int i = 0; i < 60; i++) {
+            assertEquals(i, results.get(i).index());
+            assertEquals(i != 42, results.get(i).success());
+        }
+        assertEquals("Unsupported text", results.get(42).errorMessage());
+        verify(comprehendClient, times(3)).batchDetectDominantLanguage(argThat((BatchDetectDominantLanguageRequest request) -> request.textList().size() <= 25));
+    }
+
+    @Test
+    public void detectLanguages_shouldSendEachDistinctTextOnceAndSkipLocallyDetectedTexts() {
+        when(localLanguageDetector.detect("Привіт")).thenReturn(Optional.of(new DetectedLanguage("uk", 0.95f)));
+        when(comprehendClient.batchDetectDominantLanguage(any(BatchDetectDominantLanguageRequest.class)))
+                .thenAnswer(invocation -> answer(invocation.getArgument(0)));
+
+        List<LanguageDetectionResult> results = service.detectLanguages(
+                new BatchDetectionRequest(List.of("Hello", "Привіт", "Hello", " ")));
+
+        assertEquals("en", results.get(0).languageCode());
+        assertEquals("uk", results.get(1).languageCode());
+        assertEquals("en", results.get(2).languageCode());
+        assertFalse(results.get(3).success());
+        verify(comprehendClient).batchDetectDominantLanguage(argThat((BatchDetectDominantLanguageRequest request) -> request.textList().equals(List.of("Hello"))));
+
+        service.detectLanguages(new BatchDetectionRequest(List.of("Hello")));
+        verifyNoMoreInteractions(comprehendClient);
+    }
+
+    @Test
+    public void detectLanguages_shouldFailOnlyTheChunkThatWasThrottled() {
+        when(comprehendClient.batchDetectDominantLanguage(any(BatchDetectDominantLanguageRequest.class)))
+                .thenAnswer(invocation -> {
+                    BatchDetectDominantLanguageRequest request = invocation.getArgument(0);
+                    if (request.textList().contains("text number 0")) {
+                        throw TooManyRequestsException.builder().message("Throttled").build();
+                    }
+                    return answer(request);
+                });
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            texts.add("text number " + i);
+        }
+
+        List<LanguageDetectionResult> results = service.detectLanguages(new BatchDetectionRequest(texts));
+
+        assertEquals("Rate limit exceeded", results.get(0).errorMessage());
+        assertFalse(results.get(24).success());
+        assertTrue(results.get(25).success());
+    }
+
+    @Test
+    public void detectLanguages_shouldBoundConcurrentChunks() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(comprehendClient.batchDetectDominantLanguage(any(BatchDetectDominantLanguageRequest.class)))
+                .thenAnswer(invocation -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(50);
+                    running.decrementAndGet();
+                    return answer(invocation.getArgument(0));
+                });
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            texts.add("text number " + i);
+        }
+
+        List<LanguageDetectionResult> results = service.detectLanguages(new BatchDetectionRequest(texts));
+
+        assertTrue(results.stream().allMatch(LanguageDetectionResult::success));
+        verify(comprehendClient, times(4)).batchDetectDominantLanguage(any(BatchDetectDominantLanguageRequest.class));
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    public void detectLanguages_shouldRejectOversizedBatch() {
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            texts.add("text " + i);
+        }
+
+        assertThrows(LanguageDetectionException.class, () -> service.detectLanguages(new BatchDetectionRequest(texts)));
+        assertThrows(LanguageDetectionException.class, () -> service.detectLanguages(new BatchDetectionRequest(List.of())));
+    }
+}
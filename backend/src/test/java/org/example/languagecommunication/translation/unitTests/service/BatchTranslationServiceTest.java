@@ -0,0 +1,300 @@
+package org.example.languagecommunication.translation.unitTests.service;
+
+import org.example.languagecommunication.common.utils.SecurityUtils;
+import org.example.languagecommunication.exception.TranslationException;
+import org.example.languagecommunication.translation.awstranslation.DTO.BatchTranslationRequest;
+import org.example.languagecommunication.translation.awstranslation.DTO.DocumentTranslationRequest;
+import org.example.languagecommunication.translation.awstranslation.DTO.MultiTranslationRequest;
+import org.example.languagecommunication.translation.awstranslation.DTO.MultiTranslationResponse;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationDTO;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationSegment;
+import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationText;
+import org.example.languagecommunication.translation.awstranslation.service.AwsTranslationService;
+import org.example.languagecommunication.translation.awstranslation.service.BatchTranslationService;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationHistoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchTranslationServiceTest {
+
+    @Mock
+    AwsTranslationService awsTranslationService;
+
+    @Mock
+    TranslationHistoryService translationHistoryService;
+
+    ExecutorService executor;
+
+    BatchTranslationService batchTranslationService;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        batchTranslationService = new BatchTranslationService(awsTranslationService, translationHistoryService, executor, 2, 10, Duration.ofMillis(200), 40, 1000, 10);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void translateBatch_shouldKeepOrderAndReportFailedItems() {
+        when(awsTranslationService.translate("Hello", "en", "pl")).thenReturn("Cześć");
+        when(awsTranslationService.translate("Hello", "en", "de")).thenReturn("Hallo");
+        when(awsTranslationService.translate("Bye", "en", "pl")).thenThrow(new RuntimeException("Throttled"));
+        when(awsTranslationService.translate("Bye", "en", "de")).thenReturn("Tschüss");
+        when(translationHistoryService.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<TranslationDTO> result = batchTranslationService.translateBatch(
+                new BatchTranslationRequest(List.of("Hello", "Bye"), "en", List.of("pl", "de")));
+
+        assertEquals(4, result.size());
+        assertEquals("Cześć", result.get(0).translatedText());
+        assertEquals("Hallo", result.get(1).translatedText());
+        assertFalse(result.get(2).success());
+        assertEquals("Throttled", result.get(2).errorMessage());
+        assertEquals("Tschüss", result.get(3).translatedText());
+        verify(translationHistoryService, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    public void translateBatch_shouldNotExceedConcurrencyLimit() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(awsTranslationService.translate(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return "ok";
+        });
+        when(translationHistoryService.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<TranslationDTO> result = batchTranslationService.translateBatch(
+                new BatchTranslationRequest(List.of("a", "b", "c", "d", "e", "f"), "en", List.of("pl")));
+
+        assertEquals(6, result.size());
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    public void translateBatch_shouldRejectTooManyItems() {
+        BatchTranslationRequest request = new BatchTranslationRequest(
+                List.of("a", "b", "c", "d", "e", "f"), "en", List.of("pl", "de"));
+
+        TranslationException exception = assertThrows(TranslationException.class,
+                () -> batchTranslationService.translateBatch(request));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(awsTranslationService, translationHistoryService);
+    }
+
+    @Test
+    public void translateBatch_shouldRejectNullAndBlankTexts() {
+        BatchTranslationRequest withNull = new BatchTranslationRequest(
+                Arrays.asList("Hello", null), "en", List.of("pl"));
+        BatchTranslationRequest withBlank = new BatchTranslationRequest(
+                List.of("Hello", " "), "en", List.of("pl"));
+
+        TranslationException nullText = assertThrows(TranslationException.class,
+                () -> batchTranslationService.translateBatch(withNull));
+        TranslationException blankText = assertThrows(TranslationException.class,
+                () -> batchTranslationService.translateBatch(withBlank));
+
+        assertEquals(HttpStatus.BAD_REQUEST, nullText.getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, blankText.getStatus());
+        verifyNoInteractions(awsTranslationService, translationHistoryService);
+    }
+
+    @Test
+    public void translateToTargets_shouldRunTargetsConcurrently() {
+        when(awsTranslationService.translate(eq("Hello"), eq("en"), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return "hello-" + invocation.getArgument(2);
+        });
+        when(translationHistoryService.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        long start = System.nanoTime();
+        MultiTranslationResponse response = batchTranslationService.translateToTargets(
+                new MultiTranslationRequest("Hello", "en", List.of("pl", "de", "fr", "es"), null));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(response.complete());
+        assertEquals(List.of("hello-pl", "hello-de", "hello-fr", "hello-es"),
+                response.translations().stream().map(TranslationDTO::translatedText).toList());
+        assertTrue(elapsedMs < 150, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    public void translateToTargets_shouldReturnPartialResultsWhenDeadlineHits() {
+        when(awsTranslationService.translate("Hello", "en", "pl")).thenReturn("Cześć");
+        when(awsTranslationService.translate("Hello", "en", "de")).thenAnswer(invocation -> {
+            Thread.sleep(1_000);
+            return "Hallo";
+        });
+        when(translationHistoryService.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MultiTranslationResponse response = batchTranslationService.translateToTargets(
+                new MultiTranslationRequest("Hello", "en", List.of("pl", "de"), 5_000L));
+
+        assertFalse(response.complete());
+        assertEquals("Cześć", response.translations().get(0).translatedText());
+        assertFalse(response.translations().get(1).success());
+        assertTrue(response.translations().get(1).errorMessage().contains("deadline"));
+        verify(translationHistoryService).saveAll(argThat(items -> items.size() == 1));
+    }
+
+    @Test
+    public void translateToTargets_shouldRejectUnsupportedLanguage() {
+        MultiTranslationRequest request = new MultiTranslationRequest("Hello", "en", List.of("pl", "xx"), null);
+
+        TranslationException exception = assertThrows(TranslationException.class,
+                () -> batchTranslationService.translateToTargets(request));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    public void translateDocument_shouldTranslateChunksAndKeepWhitespace() {
+        String text = "First sentence is here. Second one follows!\n\n  Third paragraph starts now.\nLast line. ";
+        when(awsTranslationService.translate(anyString(), eq("en"), eq("pl")))
+                .thenAnswer(invocation -> invocation.<String>getArgument(0).toUpperCase());
+        when(translationHistoryService.saveSuccess(anyString(), anyString(), eq("en"), eq("pl")))
+                .thenAnswer(invocation -> Translation.builder()
+                        .sourceText(TranslationText.of(invocation.getArgument(0)))
+                        .translatedText(TranslationText.of(invocation.getArgument(1)))
+                        .success(true)
+                        .build());
+
+        TranslationDTO result = batchTranslationService.translateDocument(new DocumentTranslationRequest(text, "en", "pl"));
+
+        assertEquals(text.toUpperCase(), result.translatedText());
+        verify(awsTranslationService, atLeast(3)).translate(anyString(), eq("en"), eq("pl"));
+        verify(awsTranslationService, never()).translate(argThat(chunk -> chunk.isBlank() || chunk.length() > 40), anyString(), anyString());
+    }
+
+    @Test
+    public void translateDocument_shouldSaveErrorWhenChunkFails() {
+        when(awsTranslationService.translate(anyString(), anyString(), anyString())).thenReturn("ok");
+        when(awsTranslationService.translate(startsWith("Second"), anyString(), anyString())).thenThrow(new RuntimeException("Throttled"));
+        when(translationHistoryService.saveError(anyString(), eq("en"), eq("pl"), eq("Throttled")))
+                .thenReturn(Translation.builder().success(false).errorMessage("Throttled").build());
+
+        TranslationDTO result = batchTranslationService.translateDocument(
+                new DocumentTranslationRequest("First sentence is here. Second one follows! Third one is last.", "en", "pl"));
+
+        assertFalse(result.success());
+        assertEquals("Throttled", result.errorMessage());
+        verify(translationHistoryService, never()).saveSuccess(anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void translateDocument_shouldRejectTooLargeDocument() {
+        TranslationException exception = assertThrows(TranslationException.class, () ->
+                batchTranslationService.translateDocument(new DocumentTranslationRequest("a".repeat(1001), "en", "pl")));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    public void translateDocumentStream_shouldEmitSegmentsInOrderThenSummary() throws Exception {
+        String text = "First one. Second one. Third one.";
+        CountDownLatch thirdStarted = new CountDownLatch(1);
+        when(awsTranslationService.translate(anyString(), eq("en"), eq("pl"))).thenAnswer(invocation -> {
+            String chunk = invocation.getArgument(0);
+            if (chunk.startsWith("First")) {
+                // finishes only after a later segment, which must still be sent second
+                assertTrue(thirdStarted.await(5, TimeUnit.SECONDS));
+            } else if (chunk.startsWith("Third")) {
+                thirdStarted.countDown();
+            }
+            return chunk.toUpperCase();
+        });
+        when(translationHistoryService.saveSuccess(eq(7L), eq(text), anyString(), eq("en"), eq("pl")))
+                .thenAnswer(invocation -> Translation.builder()
+                        .translatedText(TranslationText.of(invocation.getArgument(2)))
+                        .success(true)
+                        .build());
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        try (MockedStatic<SecurityUtils> securityUtils = mockStatic(SecurityUtils.class)) {
+            securityUtils.when(SecurityUtils::getCurrentUserId).thenReturn(7L);
+            batchTranslationService.translateDocumentStream(new DocumentTranslationRequest(text, "en", "pl"), emitter);
+        }
+
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("segment", "segment", "segment", "summary"), emitter.names);
+        assertEquals(new TranslationSegment(0, "First one. ", "FIRST ONE. "), emitter.data.get(0));
+        assertEquals(new TranslationSegment(1, "Second one. ", "SECOND ONE. "), emitter.data.get(1));
+        assertEquals(new TranslationSegment(2, "Third one.", "THIRD ONE."), emitter.data.get(2));
+        TranslationDTO summary = (TranslationDTO) emitter.data.get(3);
+        assertTrue(summary.success());
+        assertEquals(text.toUpperCase(), summary.translatedText());
+    }
+
+    @Test
+    public void translateDocumentStream_shouldEndWithFailedSummaryWhenSegmentFails() throws Exception {
+        when(awsTranslationService.translate(anyString(), anyString(), anyString())).thenReturn("ok");
+        when(awsTranslationService.translate(startsWith("Second"), anyString(), anyString())).thenThrow(new RuntimeException("Throttled"));
+        when(translationHistoryService.saveError(eq(7L), anyString(), eq("en"), eq("pl"), eq("Throttled")))
+                .thenReturn(Translation.builder().success(false).errorMessage("Throttled").build());
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        try (MockedStatic<SecurityUtils> securityUtils = mockStatic(SecurityUtils.class)) {
+            securityUtils.when(SecurityUtils::getCurrentUserId).thenReturn(7L);
+            batchTranslationService.translateDocumentStream(
+                    new DocumentTranslationRequest("First one. Second one. Third one.", "en", "pl"), emitter);
+        }
+
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("segment", "summary"), emitter.names);
+        assertEquals("Throttled", ((TranslationDTO) emitter.data.get(1)).errorMessage());
+        verify(translationHistoryService, never()).saveSuccess(anyLong(), anyString(), anyString(), anyString(), anyString());
+    }
+
+    static class RecordingEmitter extends SseEmitter {
+
+        final List<String> names = new ArrayList<>();
+        final List<Object> data = new ArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) {
+            for (DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof String field && field.contains("event:")) {
+                    names.add(field.substring(field.indexOf("event:") + 6, field.indexOf('\n', field.indexOf("event:"))));
+                } else if (!(part.getData() instanceof String)) {
+                    data.add(part.getData());
+                }
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.languagecommunication.translation.unitTests.service;
+
+import org.example.languagecommunication.translation.awstranslation.DTO.DetectedLanguage;
+import org.example.languagecommunication.translation.awstranslation.service.LocalLanguageDetector;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalLanguageDetectorTest {
+
+    private final LocalLanguageDetector detector = new LocalLanguageDetector(0.05);
+
+    private String detect(String text) {
+        return detector.detect(text).map(DetectedLanguage::languageCode).orElse(null);
+    }
+
+    @Test
+    public void detect_shouldAnswerSingleLanguageScriptsFromTheScript() {
+        assertEquals("ko", detect("안녕하세요"));
+        assertEquals("ja", detect("東京に行きます"));
+        assertEquals("he", detect("שלום"));
+        assertEquals("el", detect("Καλημέρα"));
+        assertEquals("th", detect("สวัสดี"));
+        assertEquals(0.99f, detector.detect("안녕하세요").orElseThrow().confidenceScore());
+    }
+
+    @Test
+    public void detect_shouldUseLettersUniqueToOneLanguageOfASharedScript() {
+        assertEquals("uk", detect("Привіт"));
+        assertEquals("kk", detect("Сәлеметсіз бе"));
+        assertEquals("ru", detect("Вы"));
+        assertEquals("vi", detect("Cảm ơn"));
+        assertEquals("ur", detect("آپ کیسے ہیں"));
+    }
+
+    @Test
+    public void detect_shouldScoreLongerTextsAgainstTrigramProfiles() {
+        assertEquals("en", detect("The children went to the park after lunch because the sun was shining."));
+        assertEquals("de", detect("Die Kinder gingen nach dem Mittagessen in den Park, weil die Sonne schien."));
+        assertEquals("pl", detect("Dzieci poszły do parku po obiedzie, ponieważ świeciło słońce."));
+        assertEquals("es", detect("Los niños fueron al parque después del almuerzo porque brillaba el sol."));
+        assertEquals("ar", detect("ذهب الأطفال إلى الحديقة بعد الغداء لأن الشمس كانت مشرقة."));
+    }
+
+    @Test
+    public void detect_shouldLeaveHardCasesToComprehend() {
+        assertEquals(Optional.empty(), detector.detect("hello"));
+        assertEquals(Optional.empty(), detector.detect("12345 !?"));
+        assertEquals(Optional.empty(), detector.detect("Hello Привет こんにちは"));
+        // kanji without kana may be Japanese as well as Chinese
+        assertEquals(Optional.empty(), detector.detect("東京"));
+        assertEquals(Optional.empty(), detector.detect("日本語"));
+        assertEquals(Optional.empty(), detector.detect("我喜欢学习"));
+        // no Swahili profile, must not be forced onto a profiled language
+        assertEquals(Optional.empty(), detector.detect("Watoto walienda kwenye bustani baada ya chakula cha mchana kwa sababu jua lilikuwa linawaka."));
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.languagecommunication.translation.unitTests.service;
+
+import org.example.languagecommunication.translation.awstranslation.service.TextSegmenter;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextSegmenterTest {
+
+    @Test
+    public void split_shouldKeepSentencesTogetherAndRebuildOriginal() {
+        String text = "Dzień dobry. Jak się masz?\n\nDziękuję, dobrze. ";
+
+        List<String> chunks = TextSegmenter.split(text, Locale.forLanguageTag("pl"), 30);
+
+        assertEquals(text, String.join("", chunks));
+        assertEquals(List.of("Dzień dobry. Jak się masz?\n\n", "Dziękuję, dobrze. "), chunks);
+        chunks.forEach(chunk -> assertTrue(chunk.getBytes(StandardCharsets.UTF_8).length <= 30));
+    }
+
+    @Test
+    public void split_shouldFallBackToWordsAndCodePointsForOversizedSentences() {
+        String text = "żółć ".repeat(10) + "😀".repeat(5);
+
+        List<String> chunks = TextSegmenter.split(text, Locale.ROOT, 12);
+
+        assertEquals(text, String.join("", chunks));
+        chunks.forEach(chunk -> assertTrue(chunk.getBytes(StandardCharsets.UTF_8).length <= 12));
+        assertTrue(chunks.contains("żółć "));
+    }
+
+    @Test
+    public void splitGrowing_shouldStartWithOneSentenceAndDoubleTheChunks() {
+        String text = "One. Two. Three. Four. Five. Six. Seven. ";
+
+        List<String> chunks = TextSegmenter.splitGrowing(text, Locale.ENGLISH, 5, 20);
+
+        assertEquals(text, String.join("", chunks));
+        assertEquals(List.of("One. ", "Two. ", "Three. Four. Five. ", "Six. Seven. "), chunks);
+    }
+
+    @Test
+    public void utf8Length_shouldMatchEncodedLength() {
+        String text = "aż 😀 ñ";
+
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length, TextSegmenter.utf8Length(text));
+    }
+}
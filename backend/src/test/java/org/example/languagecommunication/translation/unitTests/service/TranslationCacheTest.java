@@ -0,0 +1,52 @@
+package org.example.languagecommunication.translation.unitTests.service;
+
+import org.example.languagecommunication.translation.awstranslation.service.TranslationCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranslationCacheTest {
+
+    @Test
+    public void get_shouldMatchNormalizedKey() {
+        TranslationCache cache = new TranslationCache(10_000, Duration.ofMinutes(5));
+        cache.put("Good   morning", "en", "pl", "Dzień dobry");
+
+        assertEquals("Dzień dobry", cache.get(" Good morning\n", "EN", "PL").orElseThrow());
+        assertTrue(cache.get("Good morning", "en", "de").isEmpty());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    public void get_shouldKeepLineBreaksApart() {
+        TranslationCache cache = new TranslationCache(10_000, Duration.ofMinutes(5));
+        cache.put("One.\n\nTwo.", "en", "pl", "Jeden.\n\nDwa.");
+
+        assertEquals("Jeden.\n\nDwa.", cache.get(" One.\n\nTwo.\n", "en", "pl").orElseThrow());
+        assertTrue(cache.get("One. Two.", "en", "pl").isEmpty());
+        assertTrue(cache.get("One.\nTwo.", "en", "pl").isEmpty());
+    }
+
+    @Test
+    public void put_shouldIgnoreNullTranslation() {
+        TranslationCache cache = new TranslationCache(10_000, Duration.ofMinutes(5));
+        cache.put("Hello", "en", "pl", null);
+
+        assertTrue(cache.get("Hello", "en", "pl").isEmpty());
+    }
+
+    @Test
+    public void put_shouldEvictWhenWeightExceeded() {
+        TranslationCache cache = new TranslationCache(1_000, Duration.ofMinutes(5));
+        for (int i = 0; i < 100; i++) {
+            cache.put("word number " + i, "en", "pl", "słowo numer " + i);
+        }
+        cache.get("word number 0", "en", "pl");
+
+        assertTrue(cache.size() < 100);
+        assertTrue(cache.stats().evictionCount() > 0);
+    }
+}
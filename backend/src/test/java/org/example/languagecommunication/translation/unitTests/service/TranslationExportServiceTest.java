@@ -0,0 +1,101 @@
+package org.example.languagecommunication.translation.unitTests.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.languagecommunication.common.utils.SecurityUtils;
+import org.example.languagecommunication.translation.awstranslation.model.ExportFormat;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationView;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TranslationExportServiceTest {
+
+    @Mock
+    private TranslationRepository translationRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TranslationExportService translationExportService;
+
+    @BeforeEach
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        translationExportService = new TranslationExportService(translationRepository, transactionManager, objectMapper);
+    }
+
+    private static TranslationView row(long id, String sourceText, String translatedText, boolean success) {
+        TranslationView view = mock(TranslationView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getSourceText()).thenReturn(sourceText);
+        when(view.getTranslatedText()).thenReturn(translatedText);
+        when(view.getSourceLanguage()).thenReturn("en");
+        when(view.getTargetLanguage()).thenReturn("pl");
+        when(view.isSuccess()).thenReturn(success);
+        when(view.getTimestamp()).thenReturn(LocalDateTime.of(2025, 1, 1, 12, 0));
+        return view;
+    }
+
+    private byte[] export(ExportFormat format, boolean gzip) throws IOException {
+        StreamingResponseBody body;
+        try (MockedStatic<SecurityUtils> mockedStatic = mockStatic(SecurityUtils.class)) {
+            mockedStatic.when(SecurityUtils::getCurrentUserId).thenReturn(1L);
+            body = translationExportService.export(format, gzip);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void export_shouldWriteOneJsonObjectPerLineAndCloseStream() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<TranslationView> rows = Stream.of(row(1L, "Hello", "Cześć", true), row(2L, "Bye", "Pa", true));
+        when(translationRepository.streamByUserId(1L)).thenReturn(rows.onClose(() -> closed.set(true)));
+
+        String[] lines = new String(export(ExportFormat.NDJSON, false), StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"translatedText\":\"Cześć\""));
+        assertTrue(lines[1].contains("\"id\":2"));
+        assertTrue(closed.get());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    public void export_shouldQuoteCsvFieldsAndGzip() throws IOException {
+        TranslationView row = row(1L, "Hello, \"friend\"", "Cześć", true);
+        when(translationRepository.streamByUserId(1L)).thenReturn(Stream.of(row));
+
+        byte[] gzipped = export(ExportFormat.CSV, true);
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(gzipped)).readAllBytes(), StandardCharsets.UTF_8);
+
+        assertEquals("""
+                id,timestamp,sourceLanguage,targetLanguage,success,sourceText,translatedText,errorMessage
+                1,2025-01-01T12:00,en,pl,true,"Hello, ""friend\"\"",Cześć,
+                """, csv);
+    }
+}
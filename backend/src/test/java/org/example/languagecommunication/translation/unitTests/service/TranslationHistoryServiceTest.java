@@ -5,24 +5,35 @@ import org.example.languagecommunication.auth.repository.UserRepository;
 import org.example.languagecommunication.common.utils.SecurityUtils;
 import org.example.languagecommunication.exception.TranslationException;
 import org.example.languagecommunication.translation.awstranslation.DTO.TranslationDTO;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationHistoryQuery;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationPage;
 import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationLanguage;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationText;
 import org.example.languagecommunication.translation.awstranslation.repository.TranslationRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationStatsRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationView;
 import org.example.languagecommunication.translation.awstranslation.service.TranslationHistoryService;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationHistoryWriter;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,7 +45,12 @@ public class TranslationHistoryServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private TranslationHistoryWriter translationHistoryWriter;
+
+    @Mock
+    private TranslationStatsRepository translationStatsRepository;
+
     private TranslationHistoryService translationHistoryService;
 
     private User user;
@@ -44,65 +60,47 @@ public class TranslationHistoryServiceTest {
         user = new User("test_user", "test@example.com", "password123");
         user.setEnabled(true);
         user.setId(1L);
+        translationHistoryService = new TranslationHistoryService(translationRepository, userRepository, translationHistoryWriter, translationStatsRepository, 2, 3);
     }
 
     @Test
-    public void saveSuccess_shouldReturnTranslation(){
+    public void saveSuccess_shouldHandTranslationToWriter(){
 
         try(MockedStatic<SecurityUtils> mockedStatic =  mockStatic(SecurityUtils.class)){
             mockedStatic.when(SecurityUtils::getCurrentUserId).thenReturn(1L);
-            when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-
-            Translation expectedTranslation = Translation.builder()
-                    .sourceText("Hello")
-                    .translatedText("Cześć")
-                    .sourceLanguage("en")
-                    .targetLanguage("pl")
-                    .timestamp(LocalDateTime.now())
-                    .success(true)
-                    .user(user)
-                    .build();
-
-            when(translationRepository.save(any(Translation.class))).thenReturn(expectedTranslation);
+            when(userRepository.getReferenceById(1L)).thenReturn(user);
 
             Translation result = translationHistoryService.saveSuccess("Hello", "Cześć", "en", "pl");
 
             assertNotNull(result);
-            assertEquals("Cześć", result.getTranslatedText());
+            assertEquals("Cześć", result.getTranslatedText().getContent());
+            assertTrue(result.isSuccess());
+            assertNotNull(result.getTimestamp());
             assertEquals(user, result.getUser());
+            verify(translationHistoryWriter).write(result);
+            verify(userRepository, never()).findById(any());
+            verify(translationRepository, never()).save(any(Translation.class));
         }
     }
 
     @Test
-    public void saveError_shouldReturnTranslation() {
+    public void saveError_shouldHandTranslationToWriter() {
 
         try (MockedStatic<SecurityUtils> mockedStatic = mockStatic(SecurityUtils.class)) {
             mockedStatic.when(SecurityUtils::getCurrentUserId).thenReturn(1L);
-            when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-
-            Translation expectedTranslation = Translation.builder()
-                    .sourceText("Hello")
-                    .translatedText("Cześć")
-                    .sourceLanguage("en")
-                    .targetLanguage("pl")
-                    .timestamp(LocalDateTime.now())
-                    .success(false)
-                    .errorMessage("Some error occurred")
-                    .user(user)
-                    .build();
-
-            when(translationRepository.save(any(Translation.class))).thenReturn(expectedTranslation);
+            when(userRepository.getReferenceById(1L)).thenReturn(user);
 
             Translation result = translationHistoryService.saveError("Hello", "en", "pl", "Some error occurred");
 
             assertNotNull(result);
-            assertEquals("Hello", result.getSourceText());
-            assertEquals("Cześć", result.getTranslatedText());
-            assertEquals("en", result.getSourceLanguage());
-            assertEquals("pl", result.getTargetLanguage());
+            assertEquals("Hello", result.getSourceText().getContent());
+            assertNull(result.getTranslatedText());
+            assertEquals("en", result.getSourceLanguage().getCode());
+            assertEquals("pl", result.getTargetLanguage().getCode());
             assertFalse(result.isSuccess());
             assertEquals("Some error occurred", result.getErrorMessage());
             assertEquals(user, result.getUser());
+            verify(translationHistoryWriter).write(result);
         }
     }
 
@@ -111,10 +109,10 @@ public class TranslationHistoryServiceTest {
         List<Translation> translations = List.of(
                 Translation.builder()
                         .id(10L)
-                        .sourceText("Hello")
-                        .translatedText("Cześć")
-                        .sourceLanguage("en")
-                        .targetLanguage("pl")
+                        .sourceText(TranslationText.of("Hello"))
+                        .translatedText(TranslationText.of("Cześć"))
+                        .sourceLanguage(TranslationLanguage.of("en"))
+                        .targetLanguage(TranslationLanguage.of("pl"))
                         .success(true)
                         .errorMessage(null)
                         .timestamp(LocalDateTime.now())
@@ -122,10 +120,10 @@ public class TranslationHistoryServiceTest {
                         .build(),
                 Translation.builder()
                         .id(11L)
-                        .sourceText("Goodbye")
-                        .translatedText("Do widzenia")
-                        .sourceLanguage("en")
-                        .targetLanguage("pl")
+                        .sourceText(TranslationText.of("Goodbye"))
+                        .translatedText(TranslationText.of("Do widzenia"))
+                        .sourceLanguage(TranslationLanguage.of("en"))
+                        .targetLanguage(TranslationLanguage.of("pl"))
                         .success(true)
                         .errorMessage(null)
                         .timestamp(LocalDateTime.now())
@@ -159,10 +157,10 @@ public class TranslationHistoryServiceTest {
         List<Translation> successfulTranslations = List.of(
                 Translation.builder()
                         .id(100L)
-                        .sourceText("Hello")
-                        .translatedText("Cześć")
-                        .sourceLanguage("en")
-                        .targetLanguage("pl")
+                        .sourceText(TranslationText.of("Hello"))
+                        .translatedText(TranslationText.of("Cześć"))
+                        .sourceLanguage(TranslationLanguage.of("en"))
+                        .targetLanguage(TranslationLanguage.of("pl"))
                         .success(true)
                         .errorMessage(null)
                         .timestamp(LocalDateTime.now())
@@ -170,10 +168,10 @@ public class TranslationHistoryServiceTest {
                         .build(),
                 Translation.builder()
                         .id(101L)
-                        .sourceText("Thanks")
-                        .translatedText("Dzięki")
-                        .sourceLanguage("en")
-                        .targetLanguage("pl")
+                        .sourceText(TranslationText.of("Thanks"))
+                        .translatedText(TranslationText.of("Dzięki"))
+                        .sourceLanguage(TranslationLanguage.of("en"))
+                        .targetLanguage(TranslationLanguage.of("pl"))
                         .success(true)
                         .errorMessage(null)
                         .timestamp(LocalDateTime.now())
@@ -201,14 +199,60 @@ public class TranslationHistoryServiceTest {
             assertNull(first.errorMessage());
         }
     }
+    @Test
+    public void getTranslationPage_shouldReturnCursorForNextPage() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<TranslationView> rows = LongStream.of(30L, 20L, 10L)
+                .mapToObj(id -> view(id, timestamp))
+                .toList();
+
+        try (MockedStatic<SecurityUtils> mockedStatic = mockStatic(SecurityUtils.class)) {
+            mockedStatic.when(SecurityUtils::getCurrentUserId).thenReturn(1L);
+            when(translationRepository.findPage(eq(1L), any(LocalDateTime.class), eq(Long.MAX_VALUE),
+                    isNull(), isNull(), isNull(), isNull(), isNull(), eq(Limit.of(3))))
+                    .thenReturn(rows);
+            when(translationRepository.findPage(eq(1L), eq(timestamp), eq(20L),
+                    isNull(), isNull(), isNull(), isNull(), isNull(), eq(Limit.of(3))))
+                    .thenReturn(rows.subList(2, 3));
+
+            TranslationPage first = translationHistoryService.getTranslationPage(TranslationHistoryQuery.builder().build());
+            TranslationPage second = translationHistoryService.getTranslationPage(
+                    TranslationHistoryQuery.builder().cursor(first.nextCursor()).build());
+
+            assertEquals(List.of(30L, 20L), first.items().stream().map(TranslationDTO::id).toList());
+            assertNotNull(first.nextCursor());
+            assertEquals(List.of(10L), second.items().stream().map(TranslationDTO::id).toList());
+            assertNull(second.nextCursor());
+        }
+    }
+
+    @Test
+    public void getTranslationPage_shouldRejectMalformedCursor() {
+        try (MockedStatic<SecurityUtils> mockedStatic = mockStatic(SecurityUtils.class)) {
+            mockedStatic.when(SecurityUtils::getCurrentUserId).thenReturn(1L);
+
+            TranslationException exception = assertThrows(TranslationException.class, () ->
+                    translationHistoryService.getTranslationPage(TranslationHistoryQuery.builder().cursor("not-a-cursor").build()));
+
+            assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        }
+    }
+
+    private static TranslationView view(Long id, LocalDateTime timestamp) {
+        TranslationView view = mock(TranslationView.class);
+        lenient().when(view.getId()).thenReturn(id);
+        lenient().when(view.getTimestamp()).thenReturn(timestamp);
+        return view;
+    }
+
     @Test
     public void deleteTranslationById_shouldDeleteWhenUserIsOwner(){
         Translation translation = Translation.builder()
                 .id(100L)
-                .sourceText("Hello")
-                .translatedText("Cześć")
-                .sourceLanguage("en")
-                .targetLanguage("pl")
+                .sourceText(TranslationText.of("Hello"))
+                .translatedText(TranslationText.of("Cześć"))
+                .sourceLanguage(TranslationLanguage.of("en"))
+                .targetLanguage(TranslationLanguage.of("pl"))
                 .success(true)
                 .errorMessage(null)
                 .timestamp(LocalDateTime.now())
@@ -223,6 +267,7 @@ public class TranslationHistoryServiceTest {
             translationHistoryService.deleteTranslationById(100L);
 
             verify(translationRepository).deleteById(100L);
+            verify(translationStatsRepository).decrement(translation);
         }
     }
 
@@ -234,10 +279,10 @@ public class TranslationHistoryServiceTest {
 
         Translation translation = Translation.builder()
                 .id(100L)
-                .sourceText("Hello")
-                .translatedText("Cześć")
-                .sourceLanguage("en")
-                .targetLanguage("pl")
+                .sourceText(TranslationText.of("Hello"))
+                .translatedText(TranslationText.of("Cześć"))
+                .sourceLanguage(TranslationLanguage.of("en"))
+                .targetLanguage(TranslationLanguage.of("pl"))
                 .success(true)
                 .errorMessage(null)
                 .timestamp(LocalDateTime.now())
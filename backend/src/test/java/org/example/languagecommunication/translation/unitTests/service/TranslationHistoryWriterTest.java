@@ -0,0 +1,271 @@
+package org.example.languagecommunication.translation.unitTests.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.languagecommunication.auth.model.User;
+import org.example.languagecommunication.translation.awstranslation.model.Translation;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationLanguage;
+import org.example.languagecommunication.translation.awstranslation.model.TranslationText;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationSearchRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationStatsRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationTextRepository;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationHistoryWriter;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class TranslationHistoryWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private final TranslationStatsRepository translationStatsRepository = mock(TranslationStatsRepository.class);
+    private final TranslationTextRepository translationTextRepository = mock(TranslationTextRepository.class);
+    private final TranslationSearchRepository translationSearchRepository = mock(TranslationSearchRepository.class);
+    private final List<List<Long>> insertedBatches = new CopyOnWriteArrayList<>();
+    private final List<List<Long>> countedBatches = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    Collection<Translation> batch = invocation.getArgument(1);
+                    insertedBatches.add(batch.stream().map(Translation::getId).toList());
+                    return new int[0][];
+                });
+        doAnswer(invocation -> {
+            Collection<Translation> batch = invocation.getArgument(0);
+            countedBatches.add(batch.stream().map(Translation::getId).toList());
+            return null;
+        }).when(translationStatsRepository).increment(anyCollection());
+    }
+
+    private TranslationHistoryWriter newWriter(int batchSize, Duration flushInterval) {
+        return newWriter(batchSize, flushInterval, Duration.ZERO);
+    }
+
+    private TranslationHistoryWriter newWriter(int batchSize, Duration flushInterval, Duration repeatWindow) {
+        SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class, RETURNS_DEEP_STUBS);
+        IdentifierGenerator generator = mock(IdentifierGenerator.class);
+        AtomicLong ids = new AtomicLong(100);
+        when(generator.generate(any(), any())).thenAnswer(invocation -> ids.incrementAndGet());
+        when(sessionFactory.getMappingMetamodel().getEntityDescriptor(Translation.class).getGenerator()).thenReturn(generator);
+        when(sessionFactory.openStatelessSession())
+                .thenReturn(mock(StatelessSession.class, withSettings().extraInterfaces(SharedSessionContractImplementor.class)));
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        return new TranslationHistoryWriter(jdbcTemplate, entityManagerFactory, translationStatsRepository, translationTextRepository,
+                translationSearchRepository, 100, batchSize, flushInterval, Duration.ofMillis(10), repeatWindow, 1000);
+    }
+
+    private static Translation translation(Long id) {
+        User user = new User("test_user", "test@example.com", "password123");
+        user.setId(1L);
+        return Translation.builder()
+                .id(id)
+                .sourceText(TranslationText.of("Hello"))
+                .translatedText(TranslationText.of("Cześć"))
+                .sourceLanguage(TranslationLanguage.of("en"))
+                .targetLanguage(TranslationLanguage.of("pl"))
+                .timestamp(LocalDateTime.now())
+                .success(true)
+                .user(user)
+                .build();
+    }
+
+    @Test
+    public void write_shouldInsertImmediatelyWhenWriterIsNotRunning() {
+        TranslationHistoryWriter writer = newWriter(10, Duration.ofSeconds(5));
+
+        writer.write(translation(1L));
+
+        assertEquals(List.of(List.of(1L)), insertedBatches);
+    }
+
+    @Test
+    public void write_shouldFlushFullBatchesWithoutWaitingForInterval() {
+        TranslationHistoryWriter writer = newWriter(2, Duration.ofSeconds(5));
+        writer.start();
+
+        for (long id = 1; id <= 4; id++) {
+            writer.write(translation(id));
+        }
+
+        verify(jdbcTemplate, timeout(2000).times(2))
+                .batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L)), insertedBatches);
+        verify(translationStatsRepository, timeout(2000).times(2)).increment(anyCollection());
+        assertEquals(insertedBatches, countedBatches);
+        writer.stop();
+    }
+
+    @Test
+    public void stop_shouldDrainQueuedTranslations() {
+        TranslationHistoryWriter writer = newWriter(100, Duration.ofMillis(100));
+        writer.start();
+
+        for (long id = 1; id <= 5; id++) {
+            writer.write(translation(id));
+        }
+        writer.stop();
+
+        List<Long> inserted = new ArrayList<>();
+        insertedBatches.forEach(inserted::addAll);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), inserted);
+        assertFalse(writer.isRunning());
+    }
+
+    @Test
+    public void write_shouldFoldRepeatIntoEarlierRowAndKeepItsId() {
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{0}}, new int[][]{{1}});
+        TranslationHistoryWriter writer = newWriter(10, Duration.ofSeconds(5), Duration.ofMinutes(10));
+
+        Translation first = translation(null);
+        Translation repeat = translation(null);
+        writer.write(first);
+        writer.write(repeat);
+
+        verify(translationTextRepository, times(2)).resolve(anyCollection());
+        assertEquals(101L, first.getId());
+        assertEquals(first.getId(), repeat.getId());
+        assertEquals(List.of(List.of(101L)), insertedBatches);
+        assertEquals(List.of(List.of(101L), List.of(101L)), countedBatches);
+    }
+
+    @Test
+    public void write_shouldGiveNewIdOutsideRepeatWindow() {
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{0}});
+        TranslationHistoryWriter writer = newWriter(10, Duration.ofSeconds(5), Duration.ofMinutes(10));
+
+        Translation first = translation(null);
+        first.setTimestamp(LocalDateTime.now().minusMinutes(11));
+        Translation later = translation(null);
+        writer.write(first);
+        writer.write(later);
+
+        assertEquals(List.of(List.of(101L), List.of(102L)), insertedBatches);
+    }
+
+    @Test
+    public void write_shouldNotFoldRepeatAcrossMidnight() {
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{0}});
+        TranslationHistoryWriter writer = newWriter(10, Duration.ofSeconds(5), Duration.ofMinutes(10));
+        LocalDateTime midnight = LocalDate.now().atStartOfDay();
+
+        Translation beforeMidnight = translation(null);
+        beforeMidnight.setTimestamp(midnight.minusMinutes(2));
+        Translation afterMidnight = translation(null);
+        afterMidnight.setTimestamp(midnight.plusMinutes(1));
+        writer.write(beforeMidnight);
+        writer.write(afterMidnight);
+
+        assertEquals(List.of(List.of(101L), List.of(102L)), insertedBatches);
+        assertEquals(1, afterMidnight.getRepeatCount());
+    }
+
+    @Test
+    public void write_shouldMergeRepeatsWithinBatchIntoOneRow() {
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{0}});
+        TranslationHistoryWriter writer = newWriter(2, Duration.ofSeconds(5), Duration.ofMinutes(10));
+        writer.start();
+
+        Translation first = translation(null);
+        Translation second = translation(null);
+        writer.write(first);
+        writer.write(second);
+
+        verify(translationStatsRepository, timeout(2000)).increment(anyCollection());
+        assertEquals(List.of(List.of(101L)), insertedBatches);
+        assertEquals(101L, second.getId());
+        assertEquals(2, second.getRepeatCount());
+        writer.stop();
+    }
+
+    @Test
+    public void write_shouldNotCountRowsThatFailedToInsert() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        TranslationHistoryWriter writer = newWriter(10, Duration.ofSeconds(5));
+
+        writer.write(translation(1L));
+
+        verifyNoInteractions(translationStatsRepository);
+    }
+
+    @Test
+    public void write_shouldResolveTextsAgainWhenOneWasDeletedBeforeTheInsert() {
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("fk_source_text"))
+                .thenAnswer(invocation -> {
+                    Collection<Translation> batch = invocation.getArgument(1);
+                    insertedBatches.add(batch.stream().map(Translation::getId).toList());
+                    return new int[0][];
+                });
+        Translation translation = translation(1L);
+        when(translationTextRepository.resolveAgain(translation)).thenReturn(true);
+        TranslationHistoryWriter writer = newWriter(10, Duration.ofSeconds(5));
+
+        writer.write(translation);
+
+        assertEquals(List.of(List.of(1L)), insertedBatches);
+        assertEquals(List.of(List.of(1L)), countedBatches);
+    }
+
+    @Test
+    public void write_shouldInsertOnCallerOnlyAfterWorkerFinishedItsBatch() throws Exception {
+        CountDownLatch workerInserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger inserting = new AtomicInteger();
+        AtomicInteger maxInserting = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxInserting.accumulateAndGet(inserting.incrementAndGet(), Math::max);
+            workerInserting.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            inserting.decrementAndGet();
+            return null;
+        }).when(translationTextRepository).resolve(anyCollection());
+        TranslationHistoryWriter writer = newWriter(1, Duration.ofSeconds(5));
+        writer.start();
+
+        writer.write(translation(1L));
+        assertTrue(workerInserting.await(2, TimeUnit.SECONDS));
+        // fills the queue, so that the next write falls back to inserting on the caller
+        for (long id = 2; id <= 101; id++) {
+            writer.write(translation(id));
+        }
+        Thread caller = Thread.ofVirtual().start(() -> writer.write(translation(102L)));
+        caller.join(200);
+        assertTrue(caller.isAlive());
+
+        release.countDown();
+        caller.join(2000);
+        writer.stop();
+
+        assertEquals(1, maxInserting.get());
+        assertEquals(102, insertedBatches.stream().mapToInt(List::size).sum());
+    }
+}
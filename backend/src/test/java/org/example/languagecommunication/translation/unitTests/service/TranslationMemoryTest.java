@@ -0,0 +1,111 @@
+package org.example.languagecommunication.translation.unitTests.service;
+
+import org.example.languagecommunication.common.utils.SecurityUtils;
+import org.example.languagecommunication.translation.awstranslation.model.MatchType;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationMemoryRepository;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationMemory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TranslationMemoryTest {
+
+    @Mock
+    TranslationMemoryRepository translationMemoryRepository;
+
+    private TranslationMemory translationMemory;
+    private MockedStatic<SecurityUtils> securityUtils;
+
+    @BeforeEach
+    public void setUp() {
+        translationMemory = new TranslationMemory(translationMemoryRepository, true, 0.9, 500, 10);
+        securityUtils = mockStatic(SecurityUtils.class);
+        securityUtils.when(SecurityUtils::getCurrentUserId).thenReturn(1L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        securityUtils.close();
+    }
+
+    private static TranslationMemoryRepository.Candidate candidate(String sourceText, String translatedText) {
+        return new TranslationMemoryRepository.Candidate(sourceText, translatedText);
+    }
+
+    @Test
+    public void findExact_shouldReportExactMatch() {
+        when(translationMemoryRepository.findExact("Good morning", "en", "pl")).thenReturn(Optional.of("Dzień dobry"));
+
+        assertEquals(Optional.of(new TranslationMemory.Match("Dzień dobry", MatchType.EXACT)),
+                translationMemory.findExact("Good morning", "en", "pl"));
+    }
+
+    @Test
+    public void findExact_shouldFallBackWhenDatabaseFails() {
+        when(translationMemoryRepository.findExact(anyString(), anyString(), anyString()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertTrue(translationMemory.findExact("Good morning", "en", "pl").isEmpty());
+    }
+
+    @Test
+    public void findFuzzy_shouldPickMostSimilarCandidateAboveThreshold() {
+        String text = "Where is the nearest train station?";
+        when(translationMemoryRepository.findFuzzyCandidates(eq(1L), eq(text), eq("en"), eq("pl"), anyInt(), anyInt(), eq(10)))
+                .thenReturn(List.of(
+                        candidate("Where is the nearest bus stop?", "Gdzie jest najbliższy przystanek?"),
+                        candidate("Where is the nearest train station", "Gdzie jest najbliższa stacja kolejowa"),
+                        candidate("where is the  nearest train station?", "Gdzie jest najbliższa stacja kolejowa?")));
+
+        Optional<TranslationMemory.Match> match = translationMemory.findFuzzy(text, "en", "pl");
+
+        assertEquals(Optional.of(new TranslationMemory.Match("Gdzie jest najbliższa stacja kolejowa?", MatchType.FUZZY)), match);
+    }
+
+    @Test
+    public void findFuzzy_shouldRejectCandidatesBelowThreshold() {
+        when(translationMemoryRepository.findFuzzyCandidates(anyLong(), anyString(), anyString(), anyString(), anyInt(), anyInt(), anyInt()))
+                .thenReturn(List.of(candidate("Where is the nearest bus stop?", "Gdzie jest najbliższy przystanek?")));
+
+        assertTrue(translationMemory.findFuzzy("Where is the nearest train station?", "en", "pl").isEmpty());
+    }
+
+    @Test
+    public void findFuzzy_shouldRejectCandidatesWithDifferentNumbers() {
+        when(translationMemoryRepository.findFuzzyCandidates(anyLong(), anyString(), anyString(), anyString(), anyInt(), anyInt(), anyInt()))
+                .thenReturn(List.of(candidate("I would like to book a table for 4 people", "Chciałbym zarezerwować stolik dla 4 osób")));
+
+        assertTrue(translationMemory.findFuzzy("I would like to book a table for 5 people", "en", "pl").isEmpty());
+    }
+
+    @Test
+    public void findFuzzy_shouldBoundCandidateLengthByThreshold() {
+        translationMemory.findFuzzy("a".repeat(100), "en", "pl");
+
+        verify(translationMemoryRepository).findFuzzyCandidates(1L, "a".repeat(100), "en", "pl", 90, 112, 10);
+    }
+
+    @Test
+    public void findFuzzy_shouldSkipLongTextsAndDisabledMemory() {
+        assertTrue(translationMemory.findFuzzy("a".repeat(501), "en", "pl").isEmpty());
+
+        TranslationMemory disabled = new TranslationMemory(translationMemoryRepository, false, 0.9, 500, 10);
+        assertTrue(disabled.findFuzzy("Hello", "en", "pl").isEmpty());
+        assertTrue(disabled.findExact("Hello", "en", "pl").isEmpty());
+
+        verifyNoInteractions(translationMemoryRepository);
+    }
+}
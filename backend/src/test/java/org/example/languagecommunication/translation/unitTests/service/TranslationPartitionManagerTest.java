@@ -0,0 +1,132 @@
+package org.example.languagecommunication.translation.unitTests.service;
+
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationPartitionRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationPartitionRepository.Partition;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationPartitionManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TranslationPartitionManagerTest {
+
+    private static final Partition LEGACY = Partition.of("translations_legacy",
+            "FOR VALUES FROM (MINVALUE) TO ('2025-03-01 00:00:00')");
+    private static final Partition MARCH = Partition.of("translations_p2025_03",
+            "FOR VALUES FROM ('2025-03-01 00:00:00') TO ('2025-04-01 00:00:00')");
+    private static final Partition DEFAULT = Partition.of("translations_default", "DEFAULT");
+
+    private static final String CRON = "0 15 3 * * *";
+
+    @Mock
+    TranslationPartitionRepository translationPartitionRepository;
+
+    @Mock
+    TaskScheduler maintenanceScheduler;
+
+    @Test
+    public void partitionOf_shouldParseRangeAndDefaultBounds() {
+        assertNull(LEGACY.from());
+        assertEquals(LocalDateTime.of(2025, 3, 1, 0, 0), LEGACY.to());
+        assertEquals(LocalDateTime.of(2025, 3, 1, 0, 0), MARCH.from());
+        assertEquals(LocalDateTime.of(2025, 4, 1, 0, 0), MARCH.to());
+        assertTrue(DEFAULT.isDefault());
+        assertFalse(DEFAULT.covers(LocalDateTime.of(2025, 5, 1, 0, 0)));
+    }
+
+    @Test
+    public void missingMonths_shouldSkipCoveredMonths() {
+        List<YearMonth> missing = TranslationPartitionManager.missingMonths(
+                List.of(LEGACY, MARCH, DEFAULT), YearMonth.of(2025, 2), 3);
+
+        assertEquals(List.of(YearMonth.of(2025, 4), YearMonth.of(2025, 5)), missing);
+    }
+
+    @Test
+    public void expiredPartitions_shouldReturnRangesEndingBeforeCutoff() {
+        List<Partition> partitions = List.of(LEGACY, MARCH, DEFAULT);
+
+        assertEquals(List.of("translations_legacy"),
+                TranslationPartitionManager.expiredPartitions(partitions, LocalDateTime.of(2025, 3, 1, 0, 0)));
+        assertEquals(List.of("translations_legacy", "translations_p2025_03"),
+                TranslationPartitionManager.expiredPartitions(partitions, LocalDateTime.of(2025, 4, 1, 0, 0)));
+    }
+
+    @Test
+    public void maintainPartitions_shouldCreateFutureMonthsAndDropExpired() {
+        TranslationPartitionManager manager = new TranslationPartitionManager(translationPartitionRepository, maintenanceScheduler, true, 1, 12, CRON);
+        when(translationPartitionRepository.isPartitioned()).thenReturn(true);
+        when(translationPartitionRepository.findPartitions()).thenReturn(List.of(LEGACY, DEFAULT));
+
+        manager.maintainPartitions();
+
+        verify(translationPartitionRepository).createMonthPartition(YearMonth.now());
+        verify(translationPartitionRepository).createMonthPartition(YearMonth.now().plusMonths(1));
+        verify(translationPartitionRepository).dropPartition("translations_legacy");
+        verify(translationPartitionRepository, never()).dropPartition("translations_default");
+    }
+
+    @Test
+    public void afterSingletonsInstantiated_shouldDoNothingOutsidePostgres() {
+        TranslationPartitionManager manager = new TranslationPartitionManager(translationPartitionRepository, maintenanceScheduler, true, 3, 0, CRON);
+        when(translationPartitionRepository.isPostgres()).thenReturn(false);
+
+        manager.afterSingletonsInstantiated();
+
+        verify(translationPartitionRepository, never()).convertToPartitioned();
+        verify(translationPartitionRepository, never()).createIndex(anyString(), anyString());
+        verifyNoInteractions(maintenanceScheduler);
+    }
+
+    @Test
+    public void afterSingletonsInstantiated_shouldScheduleMaintenanceOnItsOwnScheduler() {
+        TranslationPartitionManager manager = new TranslationPartitionManager(translationPartitionRepository, maintenanceScheduler, true, 3, 0, CRON);
+        when(translationPartitionRepository.isPostgres()).thenReturn(true);
+        when(translationPartitionRepository.isPartitioned()).thenReturn(true);
+
+        manager.afterSingletonsInstantiated();
+
+        verify(maintenanceScheduler).schedule(any(Runnable.class), eq(new CronTrigger(CRON)));
+    }
+
+    @Test
+    public void afterSingletonsInstantiated_shouldLeavePlainTableForTheMigration() {
+        TranslationPartitionManager manager = new TranslationPartitionManager(translationPartitionRepository, maintenanceScheduler, true, 3, 0, CRON);
+        when(translationPartitionRepository.isPostgres()).thenReturn(true);
+        when(translationPartitionRepository.isPartitioned()).thenReturn(false);
+
+        manager.afterSingletonsInstantiated();
+
+        verify(translationPartitionRepository, never()).convertToPartitioned();
+        verify(translationPartitionRepository, never()).createMonthPartition(any());
+        verify(maintenanceScheduler).schedule(any(Runnable.class), eq(new CronTrigger(CRON)));
+    }
+
+    @Test
+    public void convertToPartitioned_shouldCreateComingMonthsRightAfterConverting() {
+        TranslationPartitionManager manager = new TranslationPartitionManager(translationPartitionRepository, maintenanceScheduler, true, 1, 0, CRON);
+        when(translationPartitionRepository.isPostgres()).thenReturn(true);
+        when(translationPartitionRepository.isPartitioned()).thenReturn(false, true);
+        when(translationPartitionRepository.findPartitions()).thenReturn(List.of(LEGACY, DEFAULT));
+
+        manager.convertToPartitioned();
+
+        InOrder inOrder = inOrder(translationPartitionRepository);
+        inOrder.verify(translationPartitionRepository).convertToPartitioned();
+        inOrder.verify(translationPartitionRepository).createMonthPartition(YearMonth.now());
+        verifyNoInteractions(maintenanceScheduler);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.languagecommunication.translation.unitTests.service;
+
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationSearchRepository;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationTextRepository;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationPartitionManager;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationSchemaMigration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TranslationSchemaMigrationTest {
+
+    @Mock
+    TranslationTextRepository translationTextRepository;
+
+    @Mock
+    TranslationSearchRepository translationSearchRepository;
+
+    @Mock
+    TranslationPartitionManager translationPartitionManager;
+
+    @Mock
+    ConfigurableApplicationContext applicationContext;
+
+    @Test
+    public void run_shouldMigrateLookupTablesBeforeSearchDocumentsAndShutDown() {
+        new TranslationSchemaMigration(translationTextRepository, translationSearchRepository, translationPartitionManager, applicationContext,
+                List.of(TranslationSchemaMigration.LOOKUP_TABLES))
+                .run(new DefaultApplicationArguments());
+
+        InOrder inOrder = inOrder(translationTextRepository, translationSearchRepository, translationPartitionManager, applicationContext);
+        inOrder.verify(translationTextRepository).migrateInlineColumns();
+        inOrder.verify(translationSearchRepository).fillSearchColumn();
+        inOrder.verify(applicationContext).close();
+    }
+
+    @Test
+    public void run_shouldRejectUnknownStepWithoutShuttingDown() {
+        TranslationSchemaMigration migration = new TranslationSchemaMigration(translationTextRepository,
+                translationSearchRepository, translationPartitionManager, applicationContext, List.of("drop-everything"));
+
+        assertThrows(IllegalArgumentException.class, () -> migration.run(new DefaultApplicationArguments()));
+        verifyNoInteractions(translationTextRepository, translationSearchRepository, translationPartitionManager, applicationContext);
+    }
+
+    @Test
+    public void run_shouldRunStepsInTheGivenOrder() {
+        new TranslationSchemaMigration(translationTextRepository, translationSearchRepository, translationPartitionManager, applicationContext,
+                List.of(TranslationSchemaMigration.PARTITIONS, TranslationSchemaMigration.LOOKUP_TABLES))
+                .run(new DefaultApplicationArguments());
+
+        InOrder inOrder = inOrder(translationPartitionManager, translationTextRepository, applicationContext);
+        inOrder.verify(translationPartitionManager).convertToPartitioned();
+        inOrder.verify(translationTextRepository).migrateInlineColumns();
+        inOrder.verify(applicationContext).close();
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.languagecommunication.translation.unitTests.service;
+
+import org.example.languagecommunication.common.utils.SecurityUtils;
+import org.example.languagecommunication.exception.TranslationException;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationDTO;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationSearchHit;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationSearchResult;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationSearchRepository;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TranslationSearchServiceTest {
+
+    @Mock
+    private TranslationSearchRepository translationSearchRepository;
+
+    private TranslationSearchService translationSearchService;
+
+    @BeforeEach
+    public void setUp() {
+        translationSearchService = new TranslationSearchService(translationSearchRepository, 50);
+    }
+
+    @Test
+    public void search_shouldRequestOneExtraRowToDetectNextPage() {
+        List<TranslationSearchHit> hits = LongStream.rangeClosed(1, 3)
+                .mapToObj(id -> new TranslationSearchHit(TranslationDTO.builder().id(id).build(), 1.0 / id))
+                .toList();
+
+        try (MockedStatic<SecurityUtils> mockedStatic = mockStatic(SecurityUtils.class)) {
+            mockedStatic.when(SecurityUtils::getCurrentUserId).thenReturn(1L);
+            when(translationSearchRepository.search(1L, "dzień dobry", "pl", 3, 2)).thenReturn(hits);
+
+            TranslationSearchResult result = translationSearchService.search("  dzień dobry ", "pl", 1, 2);
+
+            assertEquals(2, result.hits().size());
+            assertTrue(result.hasMore());
+            assertEquals(1, result.page());
+        }
+    }
+
+    @Test
+    public void search_shouldRejectBlankQuery() {
+        TranslationException exception = assertThrows(TranslationException.class,
+                () -> translationSearchService.search("   ", null, 0, 20));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(translationSearchRepository);
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.languagecommunication.translation.unitTests.service;
+
+import org.example.languagecommunication.common.utils.SecurityUtils;
+import org.example.languagecommunication.exception.TranslationException;
+import org.example.languagecommunication.translation.awstranslation.DTO.DailyActivity;
+import org.example.languagecommunication.translation.awstranslation.DTO.LanguagePairActivity;
+import org.example.languagecommunication.translation.awstranslation.DTO.TranslationStats;
+import org.example.languagecommunication.translation.awstranslation.repository.TranslationStatsRepository;
+import org.example.languagecommunication.translation.awstranslation.service.TranslationStatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TranslationStatsServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 3, 31);
+
+    @Mock
+    TranslationStatsRepository translationStatsRepository;
+
+    @Test
+    public void getStats_shouldSumDaysAndComputeSuccessRate() {
+        TranslationStatsService service = new TranslationStatsService(translationStatsRepository, 30, 366, 20);
+        when(translationStatsRepository.findDaily(1L, FROM, TO)).thenReturn(List.of(
+                new DailyActivity(FROM, 3, 2), new DailyActivity(TO, 1, 1)));
+        when(translationStatsRepository.findTopPairs(1L, FROM, TO, 20)).thenReturn(List.of(
+                new LanguagePairActivity("en", "pl", 4, 3)));
+
+        try (MockedStatic<SecurityUtils> mockedStatic = mockStatic(SecurityUtils.class)) {
+            mockedStatic.when(SecurityUtils::getCurrentUserId).thenReturn(1L);
+
+            TranslationStats stats = service.getStats(FROM, TO, 50);
+
+            assertEquals(4, stats.total());
+            assertEquals(3, stats.successful());
+            assertEquals(0.75, stats.successRate());
+            assertEquals(1, stats.topPairs().size());
+        }
+    }
+
+    @Test
+    public void getStats_shouldRejectInvalidRanges() {
+        TranslationStatsService service = new TranslationStatsService(translationStatsRepository, 30, 31, 20);
+
+        TranslationException reversed = assertThrows(TranslationException.class, () -> service.getStats(TO, FROM, null));
+        assertEquals(HttpStatus.BAD_REQUEST, reversed.getStatus());
+        assertThrows(TranslationException.class, () -> service.getStats(FROM, TO.plusDays(1), null));
+        verifyNoInteractions(translationStatsRepository);
+    }
+}